@@ -0,0 +1,21 @@
+#!/usr/bin/env bash
+# Builds the AOT-processed jar, extracts it into target/faststart and records an AppCDS archive
+# (app.jsa) from a training run that starts the application in the faststart profile, runs the
+# warm-up requests and exits.
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+OUT=target/faststart
+
+mvn -B -q -Pfaststart -DskipTests package
+JAR=$(ls target/car-insurance-*.jar | grep -v original | head -1)
+rm -rf "$OUT"
+"$JAVA" -Djarmode=tools -jar "$JAR" extract --destination "$OUT"
+
+cd "$OUT"
+"$JAVA" -XX:ArchiveClassesAtExit=app.jsa -Dspring.aot.enabled=true -jar "$(basename "$JAR")" \
+    --spring.profiles.active=faststart --server.port=0 --insurance.warmup.exit-when-done=true
+
+echo "CDS archive: $OUT/app.jsa. Start with:"
+echo "  cd $OUT && java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -jar $(basename "$JAR") --spring.profiles.active=faststart"
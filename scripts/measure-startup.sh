@@ -0,0 +1,51 @@
+#!/usr/bin/env bash
+# Time from JVM launch to the first successful API request, default mode versus fast-start mode
+# (AOT initializers, AppCDS archive, faststart profile). Each run waits for the readiness probe,
+# as a load balancer would, then times one insurance-valid request. Run scripts/faststart-cds.sh
+# first. Usage: scripts/measure-startup.sh [runs]
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+DIR=target/faststart
+JAR=$(basename "$(ls "$DIR"/car-insurance-*.jar | head -1)")
+READY="http://localhost:$PORT/actuator/health/readiness"
+API="http://localhost:$PORT/api/cars/1/insurance-valid?date=2025-06-01"
+
+now_ms() { echo $(( $(date +%s%N) / 1000000 )); }
+
+# prints "<ms to ready> <first request ms> <ms to first successful request>"
+run_once() {
+    local started ready first pid
+    started=$(now_ms)
+    (cd "$DIR" && exec "$JAVA" "$@" -jar "$JAR" --server.port="$PORT" \
+        --management.endpoint.health.probes.enabled=true) > target/measure-startup.log 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$READY"; do
+        kill -0 "$pid" 2>/dev/null || { echo "application exited, see target/measure-startup.log" >&2; exit 1; }
+        sleep 0.1
+    done
+    ready=$(now_ms)
+    first=$(curl -sf -o /dev/null -w '%{time_total}' "$API")
+    first=$(awk -v s="$first" 'BEGIN { printf "%d", s * 1000 }')
+    echo "$(( ready - started )) $first $(( ready - started + first ))"
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+}
+
+measure() {
+    local label=$1
+    shift
+    for _ in $(seq "$RUNS"); do run_once "$@"; done | sort -n -k3 | awk -v label="$label" '
+        { ready[NR] = $1; first[NR] = $2; total[NR] = $3 }
+        END {
+            m = int((NR + 1) / 2)
+            printf "%-10s median of %d: ready %d ms, first request %d ms, first successful request %d ms\n",
+                label, NR, ready[m], first[m], total[m]
+        }'
+}
+
+measure default
+measure faststart -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -Dspring.profiles.active=faststart
@@ -0,0 +1,60 @@
+package com.example.carins.bench;
+
+import com.example.carins.CarInsuranceApplication;
+import com.example.carins.service.CoverageIndex;
+import com.example.carins.service.VinIndex;
+import com.example.carins.tools.SyntheticDataGenerator;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Boots the application without a web server against a private in-memory H2 database and
+ * seeds it with a synthetic dataset. Sizes are JMH parameters, e.g. {@code -p cars=100000}.
+ */
+@State(Scope.Benchmark)
+public abstract class AppState {
+
+    @Param("200")
+    public int owners;
+    @Param("2000")
+    public int cars;
+    @Param("3")
+    public int policiesPerCar;
+    @Param("10")
+    public int claimsPerCar;
+
+    public ConfigurableApplicationContext context;
+    public SyntheticDataGenerator.Result dataset;
+
+    protected void start(Map<String, Object> properties) {
+        Map<String, Object> props = new HashMap<>(properties);
+        props.put("spring.datasource.url", "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        props.put("logging.level.root", "WARN");
+        props.put("insurance.expiry.cron", "-");
+        // command-line arguments, so they win over application.properties
+        String[] args = props.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new);
+        context = new SpringApplicationBuilder(CarInsuranceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+        dataset = bean(SyntheticDataGenerator.class)
+                .generate(new SyntheticDataGenerator.Spec(owners, cars, policiesPerCar, claimsPerCar, 42));
+        bean(CoverageIndex.class).load();
+        bean(VinIndex.class).load();
+    }
+
+    protected void stop() {
+        if (context != null) context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
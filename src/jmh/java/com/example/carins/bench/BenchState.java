@@ -0,0 +1,23 @@
+package com.example.carins.bench;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Map;
+
+@State(Scope.Benchmark)
+public class BenchState extends AppState {
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        start(Map.of());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stop();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.carins.bench;
+
+import com.example.carins.service.ClaimSearchIndex;
+import com.example.carins.service.ClaimSearchService;
+import com.example.carins.web.dto.ClaimDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First page of a claim search through the {@code like} fallback versus the in-memory index. Each
+ * call picks one of a few query shapes: one or two words, a word with an amount or date range, or
+ * a date range alone.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClaimSearchBenchmark {
+
+    private static final String[] WORDS = {"hail", "windshield", "theft", "storm", "bumper", "parking",
+            "highway", "cracked", "grille", "overnight", "radiator", "roundabout"};
+
+    @State(Scope.Benchmark)
+    public static class SearchState extends AppState {
+        @Param({"false", "true"})
+        public boolean claimSearch;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            start(Map.of("insurance.claim-search.enabled", claimSearch));
+            bean(ClaimSearchIndex.class).load();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            stop();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Queries {
+        private final SplittableRandom random = new SplittableRandom(11);
+        private final LocalDate today = LocalDate.now();
+
+        List<ClaimDto> next(ClaimSearchService service) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            LocalDate from = today.minusDays(random.nextInt(3 * 365));
+            return switch (random.nextInt(5)) {
+                case 0 -> service.search(word, null, null, null, null, null, 20);
+                case 1 -> service.search(word + " " + WORDS[random.nextInt(WORDS.length)], null, null, null, null, null, 20);
+                case 2 -> service.search(word, BigDecimal.valueOf(4_000 + random.nextInt(500)), null, null, null, null, 20);
+                case 3 -> service.search(word, null, null, from, from.plusDays(7), null, 20);
+                default -> service.search(null, null, null, from, from.plusDays(1), null, 20);
+            };
+        }
+    }
+
+    @Benchmark
+    public List<ClaimDto> search(SearchState s, Queries q) {
+        return q.next(s.bean(ClaimSearchService.class));
+    }
+}
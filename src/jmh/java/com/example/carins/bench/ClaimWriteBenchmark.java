@@ -0,0 +1,41 @@
+package com.example.carins.bench;
+
+import com.example.carins.service.CarService;
+import com.example.carins.service.ClaimIngestionService;
+import com.example.carins.service.ClaimRow;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Claim rows per second: one {@code registerClaim} transaction per row versus batched bulk ingestion. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClaimWriteBenchmark {
+
+    static final int ROWS = 1000;
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void singleInserts(BenchState s, Randoms r) {
+        CarService service = s.bean(CarService.class);
+        for (int i = 0; i < ROWS; i++) {
+            service.registerClaim(r.carId(s), r.date(), "Single insert", BigDecimal.TEN);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Object bulkIngest(BenchState s, Randoms r) {
+        List<ClaimRow> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new ClaimRow(r.carId(s), r.date(), "Bulk insert", BigDecimal.TEN));
+        }
+        return s.bean(ClaimIngestionService.class).ingest(rows, 0);
+    }
+}
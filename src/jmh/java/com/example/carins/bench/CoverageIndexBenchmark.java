@@ -0,0 +1,37 @@
+package com.example.carins.bench;
+
+import com.example.carins.service.CarService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** {@code insurance-valid} through the two database queries versus the in-memory coverage index. */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CoverageIndexBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class IndexState extends AppState {
+        @Param({"false", "true"})
+        public boolean coverageIndex;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            start(Map.of("insurance.coverage-index.enabled", coverageIndex));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            stop();
+        }
+    }
+
+    @Benchmark
+    public boolean isInsuranceValid(IndexState s, Randoms r) {
+        return s.bean(CarService.class).isInsuranceValid(r.carId(s), r.date());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.carins.bench;
+
+import com.example.carins.service.PolicyRenewalService;
+import com.example.carins.service.PolicyRow;
+import com.example.carins.service.PolicyService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renewed policies per second: one transaction per row versus the chunked, parallel bulk renewal.
+ * Every row renews a random car for the next term, so each row runs the full lock, range check and
+ * insert path.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PolicyRenewalBenchmark {
+
+    static final int ROWS = 1000;
+
+    @State(Scope.Benchmark)
+    public static class RenewalState extends AppState {
+        @Param("4")
+        public int parallelism;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            // every iteration pushes terms further out, so the date window must not run out
+            start(Map.of("insurance.validity-interval-years", 100_000,
+                    "insurance.policies.renew.parallelism", parallelism));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            stop();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void singleRenewals(RenewalState s, Randoms r) {
+        PolicyService service = s.bean(PolicyService.class);
+        for (int i = 0; i < ROWS; i++) {
+            service.renew(List.of(new PolicyRow(r.carId(s), null, null, null)), new long[] {i});
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Object bulkRenewal(RenewalState s, Randoms r) {
+        List<PolicyRow> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new PolicyRow(r.carId(s), null, null, null));
+        }
+        return s.bean(PolicyRenewalService.class).renew(rows);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.carins.bench;
+
+import com.example.carins.service.CarQueryService;
+import com.example.carins.service.CarService;
+import com.example.carins.web.dto.CarDto;
+import com.example.carins.web.dto.ClaimDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity hydration plus DTO mapping versus JPQL constructor expressions for the car listing and
+ * claim history. Run with {@code -prof gc} to compare allocation per call.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+
+    @Benchmark
+    public List<CarDto> carsViaEntities(BenchState s) {
+        return s.bean(CarService.class).listCars().stream()
+                .map(c -> new CarDto(c.getId(), c.getVin(), c.getMake(), c.getModel(), c.getYearOfManufacture(),
+                        c.getOwner().getId(), c.getOwner().getName(), c.getOwner().getEmail()))
+                .toList();
+    }
+
+    @Benchmark
+    public List<CarDto> carsViaProjection(BenchState s) {
+        return s.bean(CarQueryService.class).listCars();
+    }
+
+    @Benchmark
+    public List<ClaimDto> historyViaEntities(BenchState s, Randoms r) {
+        return s.bean(CarService.class).listClaims(r.carId(s)).stream()
+                .map(c -> new ClaimDto(c.getId(), c.getClaimDate(), c.getDescription(), c.getAmount(), c.getCar().getId()))
+                .toList();
+    }
+
+    @Benchmark
+    public List<ClaimDto> historyViaProjection(BenchState s, Randoms r) {
+        return s.bean(CarQueryService.class).listClaims(r.carId(s));
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.carins.bench;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+@State(Scope.Thread)
+public class Randoms {
+
+    private final SplittableRandom random = new SplittableRandom(7);
+    private final LocalDate today = LocalDate.now();
+
+    public long carId(AppState state) {
+        return random.nextLong(state.dataset.firstCarId(), state.dataset.lastCarId() + 1);
+    }
+
+    public LocalDate date() {
+        return today.minusDays(random.nextInt(4 * 365));
+    }
+}
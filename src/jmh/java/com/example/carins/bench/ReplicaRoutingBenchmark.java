@@ -0,0 +1,70 @@
+package com.example.carins.bench;
+
+import com.example.carins.model.Claim;
+import com.example.carins.service.CarService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mixed load of three reader threads and one claim writer, with every query on the primary
+ * versus read-only transactions routed to in-memory H2 replicas copied from the seeded primary.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReplicaRoutingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class RoutingState extends AppState {
+        @Param({"0", "2"})
+        public int replicas;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            List<String> urls = new ArrayList<>();
+            for (int i = 0; i < replicas; i++) {
+                urls.add("jdbc:h2:mem:bench-replica-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+            }
+            start(Map.of("insurance.replicas.enabled", replicas > 0,
+                    "insurance.replicas.urls", String.join(",", urls)));
+            List<String> script = bean(JdbcTemplate.class).queryForList("SCRIPT", String.class);
+            for (String url : urls) {
+                try (Connection c = DriverManager.getConnection(url, "sa", ""); Statement st = c.createStatement()) {
+                    for (String sql : script) st.execute(sql);
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            stop();
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public List<Claim> read(RoutingState s, Randoms r) {
+        return s.bean(CarService.class).listClaims(r.carId(s));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public Claim write(RoutingState s, Randoms r) {
+        return s.bean(CarService.class).registerClaim(r.carId(s), r.date(), "Mixed load", BigDecimal.TEN);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.carins.bench;
+
+import com.example.carins.metrics.SqlStatementCounter;
+import com.example.carins.service.CarService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Hot read paths with the Hibernate second-level cache off and on. Besides time per call, the
+ * {@code sqlStatements} secondary result reports how many statements reached the database.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecondLevelCacheBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class CacheState extends AppState {
+        @Param({"false", "true"})
+        public boolean cache;
+
+        public CarService service;
+        public SqlStatementCounter counter;
+        public final LocalDate today = LocalDate.now();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            start(Map.of("insurance.cache.enabled", cache));
+            service = bean(CarService.class);
+            counter = bean(SqlStatementCounter.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            stop();
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Statements {
+        public long sqlStatements;
+
+        <T> T count(SqlStatementCounter counter, Supplier<T> call) {
+            try (var scope = counter.open()) {
+                T result = call.get();
+                sqlStatements += scope.count();
+                return result;
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean isInsuranceValid(CacheState s, Randoms r, Statements st) {
+        long carId = r.carId(s);
+        LocalDate date = r.date();
+        return st.count(s.counter, () -> s.service.isInsuranceValid(carId, date));
+    }
+
+    @Benchmark
+    public boolean isInsuranceValidToday(CacheState s, Randoms r, Statements st) {
+        long carId = r.carId(s);
+        return st.count(s.counter, () -> s.service.isInsuranceValid(carId, s.today));
+    }
+}
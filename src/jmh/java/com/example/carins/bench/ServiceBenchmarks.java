@@ -0,0 +1,53 @@
+package com.example.carins.bench;
+
+import com.example.carins.service.CarService;
+import com.example.carins.web.CarController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/** Read and write hot paths of {@link CarService} and the DTO mapping/serialization in {@link CarController}. */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmarks {
+
+    @Benchmark
+    public boolean isInsuranceValid(BenchState s, Randoms r) {
+        return s.bean(CarService.class).isInsuranceValid(r.carId(s), r.date());
+    }
+
+    @Benchmark
+    public Object listCarsPage(BenchState s, Randoms r) {
+        return s.bean(CarController.class).getCarsPage(r.carId(s), 50);
+    }
+
+    @Benchmark
+    public Object listCarsAll(BenchState s) {
+        return s.bean(CarService.class).listCars();
+    }
+
+    @Benchmark
+    public Object listClaims(BenchState s, Randoms r) {
+        return s.bean(CarService.class).listClaims(r.carId(s));
+    }
+
+    @Benchmark
+    public Object carHistoryDtos(BenchState s, Randoms r) {
+        return s.bean(CarController.class).getCarHistory(r.carId(s));
+    }
+
+    @Benchmark
+    public byte[] carPageJson(BenchState s, Randoms r) throws Exception {
+        return s.bean(ObjectMapper.class).writeValueAsBytes(s.bean(CarController.class).getCarsPage(r.carId(s), 100));
+    }
+
+    @Benchmark
+    public Object registerClaim(BenchState s, Randoms r) {
+        return s.bean(CarService.class).registerClaim(r.carId(s), r.date(), "Benchmark claim", BigDecimal.TEN);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.carins.bench;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP load against a running server with platform versus virtual request threads. Tomcat is
+ * capped at {@code tomcatThreads} platform threads (ignored in virtual mode) while
+ * {@code @Threads} clients keep requests in flight; the pool size is the same in both modes.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(256)
+@Fork(1)
+public class VirtualThreadLoadBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ServerState extends AppState {
+        @Param({"false", "true"})
+        public boolean virtualThreads;
+        @Param("32")
+        public int tomcatThreads;
+
+        HttpClient client;
+        String baseUrl;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            start(Map.of(
+                    "spring.main.web-application-type", "servlet",
+                    "server.port", 0,
+                    "server.tomcat.threads.max", tomcatThreads,
+                    "spring.threads.virtual.enabled", virtualThreads));
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            baseUrl = "http://localhost:" + port;
+            client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            client.close();
+            stop();
+        }
+    }
+
+    @Benchmark
+    public int insuranceValid(ServerState s, Randoms r) throws Exception {
+        return get(s, "/api/cars/" + r.carId(s) + "/insurance-valid?date=" + r.date());
+    }
+
+    @Benchmark
+    public int history(ServerState s, Randoms r) throws Exception {
+        return get(s, "/api/cars/" + r.carId(s) + "/history?limit=20");
+    }
+
+    private int get(ServerState s, String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(s.baseUrl + path)).GET().build();
+        return s.client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.carins.config;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that follows observed latency, in the style of a gradient limiter. Completed
+ * calls add their round-trip time to striped counters; once per window one thread folds the
+ * window's mean into a long-term average and moves the limit by {@code tolerance * long / short}
+ * (kept between 0.5 and 1) plus a queue allowance of {@code sqrt(limit)}. While latency stays at
+ * its long-term level the limit grows; once calls start queueing for connections, latency rises
+ * and the limit shrinks. A call that failed for lack of database capacity cuts the limit by 10%.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double SMOOTHING = 0.2;
+    private static final int LONG_WINDOWS = 60;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final long windowNanos;
+    private final LongSupplier clock;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final AtomicInteger peakInflight = new AtomicInteger();
+    private final AtomicBoolean overloaded = new AtomicBoolean();
+    private final LongAdder windowRtt = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final ReentrantLock update = new ReentrantLock();
+    private volatile double limit;
+    private volatile long windowStart;
+    private volatile double longRtt;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                    long windowNanos, LongSupplier clock) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max: " + minLimit + ", " + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.windowNanos = windowNanos;
+        this.clock = clock;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.windowStart = clock.getAsLong();
+    }
+
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    /** Takes a slot if fewer than {@link #limit()} calls are in flight. */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inflight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+        } while (!inflight.compareAndSet(current, current + 1));
+        peakInflight.accumulateAndGet(current + 1, Math::max);
+        return true;
+    }
+
+    /**
+     * Returns the slot of a call that started at {@code startNanos} (from {@link #now()}).
+     * {@code overload} marks a call that failed because the database was out of capacity.
+     */
+    public void release(long startNanos, boolean overload) {
+        inflight.decrementAndGet();
+        long now = clock.getAsLong();
+        if (overload) {
+            overloaded.set(true);
+        } else {
+            windowRtt.add(now - startNanos);
+            windowSamples.increment();
+        }
+        if (now - windowStart >= windowNanos && update.tryLock()) {
+            try {
+                if (now - windowStart >= windowNanos) roll(now);
+            } finally {
+                update.unlock();
+            }
+        }
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inflight() {
+        return inflight.get();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /** Long-term mean round-trip time in nanoseconds, 0 before the first window. */
+    public double baselineRttNanos() {
+        return longRtt;
+    }
+
+    private void roll(long now) {
+        windowStart = now;
+        long samples = windowSamples.sumThenReset();
+        long rtt = windowRtt.sumThenReset();
+        int peak = peakInflight.getAndSet(inflight.get());
+        double current = limit;
+        if (overloaded.getAndSet(false)) {
+            limit = Math.max(minLimit, current * 0.9);
+            return;
+        }
+        if (samples == 0) return;
+        double shortRtt = (double) rtt / samples;
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+            return;
+        }
+        double baseline = longRtt + (shortRtt - longRtt) / LONG_WINDOWS;
+        if (baseline / shortRtt > 2) baseline *= 0.95; // latency dropped for good; forget the slower past
+        longRtt = baseline;
+        if (peak < current / 2) return; // the limit was not in use, so latency says nothing about it
+
+        double gradient = Math.clamp(tolerance * baseline / shortRtt, 0.5, 1.0);
+        double next = current * gradient + Math.sqrt(current);
+        limit = Math.clamp(current * (1 - SMOOTHING) + next * SMOOTHING, minLimit, maxLimit);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.carins.config;
+
+import com.example.carins.web.ClientRateLimitInterceptor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control, off unless {@code insurance.admission.enabled}. Each request under
+ * {@code /api} first takes a token from its client's {@link ClientRateLimiter} bucket, then
+ * {@link ConcurrencyLimited} service calls pass the shared {@link AdaptiveConcurrencyLimit}. Both
+ * reject with 429 and {@code Retry-After}.
+ */
+@Configuration
+public class AdmissionControlConfig implements WebMvcConfigurer {
+
+    @Value("${insurance.admission.enabled:false}")
+    private boolean enabled;
+
+    private final ObjectProvider<ClientRateLimiter> clientRateLimiter;
+
+    public AdmissionControlConfig(ObjectProvider<ClientRateLimiter> clientRateLimiter) {
+        this.clientRateLimiter = clientRateLimiter;
+    }
+
+    @Bean
+    public ClientRateLimiter clientRateLimiter(@Value("${insurance.admission.client-rate:200}") double rate,
+                                               @Value("${insurance.admission.client-burst:400}") int burst,
+                                               @Value("${insurance.admission.max-clients:100000}") int maxClients,
+                                               ObjectProvider<MeterRegistry> registry) {
+        var limiter = new ClientRateLimiter(rate, burst, maxClients, System::nanoTime);
+        registry.ifAvailable(r -> {
+            Gauge.builder("admission.clients", limiter, ClientRateLimiter::clients)
+                    .description("Clients with a partly used rate-limit bucket").register(r);
+            FunctionCounter.builder("admission.rejected", limiter, ClientRateLimiter::rejected)
+                    .tag("reason", "client-rate").description("Requests rejected with 429").register(r);
+        });
+        return limiter;
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimit adaptiveConcurrencyLimit(
+            @Value("${insurance.admission.concurrency.initial-limit:20}") int initialLimit,
+            @Value("${insurance.admission.concurrency.min-limit:4}") int minLimit,
+            @Value("${insurance.admission.concurrency.max-limit:200}") int maxLimit,
+            @Value("${insurance.admission.concurrency.rtt-tolerance:1.5}") double tolerance,
+            @Value("${insurance.admission.concurrency.window:100ms}") Duration window,
+            ObjectProvider<MeterRegistry> registry) {
+        var limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance, window.toNanos(),
+                System::nanoTime);
+        registry.ifAvailable(r -> {
+            Gauge.builder("admission.concurrency.limit", limit, AdaptiveConcurrencyLimit::limit)
+                    .description("Current adaptive concurrency limit").register(r);
+            Gauge.builder("admission.concurrency.inflight", limit, AdaptiveConcurrencyLimit::inflight)
+                    .description("Limited calls in flight").register(r);
+            TimeGauge.builder("admission.concurrency.rtt.baseline", limit, TimeUnit.NANOSECONDS,
+                    AdaptiveConcurrencyLimit::baselineRttNanos)
+                    .description("Long-term mean latency of limited calls").register(r);
+            FunctionCounter.builder("admission.rejected", limit, AdaptiveConcurrencyLimit::rejected)
+                    .tag("reason", "concurrency").description("Requests rejected with 429").register(r);
+        });
+        return limit;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!enabled) return;
+        registry.addInterceptor(new ClientRateLimitInterceptor(clientRateLimiter.getObject())).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.carins.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token bucket of {@code burst} requests that refills at {@code ratePerSecond}. Each
+ * bucket is one {@link AtomicLong} holding the time at which it is full again (the generic cell
+ * rate algorithm) and is updated by compare-and-set, so concurrent requests never lock. A full
+ * bucket carries no information, so full buckets are swept once more than {@code maxClients}
+ * are tracked.
+ */
+public class ClientRateLimiter {
+
+    private static final long SWEEP_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final int maxClients;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, AtomicLong> fullAt = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+    private volatile long lastSweep;
+
+    public ClientRateLimiter(double ratePerSecond, int burst, int maxClients, LongSupplier clock) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive: " + ratePerSecond + ", " + burst);
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.capacityNanos = intervalNanos * burst;
+        this.maxClients = maxClients;
+        this.clock = clock;
+        this.lastSweep = clock.getAsLong();
+    }
+
+    /** Takes one token; returns 0 when admitted, otherwise how many nanoseconds until a token is free. */
+    public long acquire(String client) {
+        long now = clock.getAsLong();
+        AtomicLong bucket = fullAt.get(client);
+        if (bucket == null) {
+            if (fullAt.size() >= maxClients) sweep(now);
+            bucket = fullAt.computeIfAbsent(client, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long current = bucket.get();
+            long next = Math.max(current, now) + intervalNanos;
+            if (next - now > capacityNanos) {
+                rejected.increment();
+                return next - now - capacityNanos;
+            }
+            if (bucket.compareAndSet(current, next)) return 0;
+        }
+    }
+
+    public int clients() {
+        return fullAt.size();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    private void sweep(long now) {
+        long last = lastSweep;
+        if (now - last < SWEEP_INTERVAL_NANOS) return;
+        lastSweep = now;
+        fullAt.values().removeIf(bucket -> bucket.get() <= now);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.carins.config;
+
+import com.example.carins.service.RetryLaterException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+/**
+ * Applies {@link AdaptiveConcurrencyLimit} to {@link ConcurrencyLimited} methods. Ordered outside
+ * the transaction advice, so a rejected call never touches the pool; nested limited calls on the
+ * same thread share the outer slot.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ConcurrencyLimitAspect {
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    private final AdaptiveConcurrencyLimit limit;
+    private final boolean enabled;
+
+    public ConcurrencyLimitAspect(AdaptiveConcurrencyLimit limit,
+                                  @Value("${insurance.admission.enabled:false}") boolean enabled) {
+        this.limit = limit;
+        this.enabled = enabled;
+    }
+
+    @Around("@annotation(com.example.carins.config.ConcurrencyLimited)")
+    public Object limited(ProceedingJoinPoint pjp) throws Throwable {
+        if (!enabled || ACTIVE.get() != null) return pjp.proceed();
+        if (!limit.tryAcquire()) {
+            throw new RetryLaterException(HttpStatus.TOO_MANY_REQUESTS, "Server is busy, please retry.", 1);
+        }
+        long started = limit.now();
+        boolean overload = false;
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            return pjp.proceed();
+        } catch (CannotCreateTransactionException | TransientDataAccessException e) {
+            overload = true;
+            throw e;
+        } finally {
+            ACTIVE.remove();
+            limit.release(started, overload);
+        }
+    }
+}
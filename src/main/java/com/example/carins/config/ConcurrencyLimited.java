@@ -0,0 +1,15 @@
+package com.example.carins.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the method under the {@link AdaptiveConcurrencyLimit} when admission control is on. Calls
+ * over the limit fail fast with 429 instead of queueing for a database connection.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConcurrencyLimited {
+}
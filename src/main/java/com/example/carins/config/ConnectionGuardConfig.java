@@ -0,0 +1,43 @@
+package com.example.carins.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class ConnectionGuardConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionGuardPostProcessor(Environment env, ObjectProvider<MeterRegistry> registry) {
+        int maxPending = env.getProperty("insurance.db.max-pending-connections", Integer.class, 200);
+        return new GuardPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (maxPending <= 0 || !"dataSource".equals(beanName) || !(bean instanceof DataSource ds)
+                        || bean instanceof ConnectionGuardDataSource) {
+                    return bean;
+                }
+                var guarded = new ConnectionGuardDataSource(ds, maxPending);
+                registry.ifAvailable(r -> Gauge.builder("db.connections.pending", guarded, ConnectionGuardDataSource::pending)
+                        .description("Threads waiting for a pooled database connection")
+                        .register(r));
+                return guarded;
+            }
+        };
+    }
+
+    /** Runs before the replica router, so the guard wraps the primary pool rather than the router. */
+    private abstract static class GuardPostProcessor implements BeanPostProcessor, Ordered {
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.carins.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps how many threads may wait for a pooled connection at once. With virtual threads the
+ * servlet container no longer bounds concurrency, so without this every request would queue
+ * inside the pool until its timeout; callers over the cap fail immediately instead.
+ */
+public class ConnectionGuardDataSource extends DelegatingDataSource {
+
+    private final int maxPending;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public ConnectionGuardDataSource(DataSource target, int maxPending) {
+        super(target);
+        this.maxPending = maxPending;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        enter();
+        try {
+            return super.getConnection();
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        enter();
+        try {
+            return super.getConnection(username, password);
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+
+    public int pending() {
+        return pending.get();
+    }
+
+    private void enter() throws SQLTransientConnectionException {
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            throw new SQLTransientConnectionException("Too many requests waiting for a database connection");
+        }
+    }
+}
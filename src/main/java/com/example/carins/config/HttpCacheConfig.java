@@ -0,0 +1,33 @@
+package com.example.carins.config;
+
+import com.example.carins.service.ResourceVersions;
+import com.example.carins.web.ConditionalGetFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Registers {@link ConditionalGetFilter} for the car collection and history resources. The
+ * serialized-response cache is off unless {@code insurance.http-cache.response-bytes.max-bytes}
+ * is positive.
+ */
+@Configuration
+public class HttpCacheConfig {
+
+    @Value("${insurance.http-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${insurance.http-cache.response-bytes.max-bytes:0}")
+    private long responseBytesMax;
+
+    @Bean
+    public FilterRegistrationBean<ConditionalGetFilter> conditionalGetFilter(ResourceVersions versions) {
+        var registration = new FilterRegistrationBean<>(new ConditionalGetFilter(versions, responseBytesMax));
+        registration.addUrlPatterns("/api/cars", "/api/cars/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        registration.setEnabled(enabled);
+        return registration;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.carins.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/** Marks the thread for {@link ReadFromPrimary} methods; ordered outside the transaction advice. */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReadFromPrimaryAspect {
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    public static boolean isActive() {
+        return ACTIVE.get() != null;
+    }
+
+    @Around("@annotation(com.example.carins.config.ReadFromPrimary)")
+    public Object onPrimary(ProceedingJoinPoint pjp) throws Throwable {
+        if (isActive()) return pjp.proceed();
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            return pjp.proceed();
+        } finally {
+            ACTIVE.remove();
+        }
+    }
+}
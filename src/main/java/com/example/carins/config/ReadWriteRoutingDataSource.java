@@ -0,0 +1,167 @@
+package com.example.carins.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends connections for read-only transactions to the replica with the fewest connections
+ * checked out and everything else to the primary. A client that committed a write within the
+ * staleness window reads from the primary too, so it always sees its own writes, and so do
+ * methods marked {@link ReadFromPrimary}.
+ *
+ * <p>The routing decision needs the transaction's read-only flag, which Spring only publishes
+ * after the transaction has begun; wrap this in a {@code LazyConnectionDataSourceProxy} so the
+ * connection is fetched on the first statement.
+ *
+ * <p>Code that labels a response with the primary's state, like the ETag filter, can ask whether
+ * the current thread read from a replica between {@link #trackReplicaReads()} and
+ * {@link #stopTrackingReplicaReads()}.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    public enum Route { WRITE, READ, READ_ON_PRIMARY }
+
+    private static final ThreadLocal<boolean[]> REPLICA_READ = new ThreadLocal<>();
+
+    private interface Opener {
+        Connection open(DataSource target) throws SQLException;
+    }
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final ReadYourWrites readYourWrites;
+    private final AtomicIntegerArray outstanding;
+    private final AtomicInteger rotation = new AtomicInteger();
+    private final LongAdder[] routed = new LongAdder[Route.values().length];
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, ReadYourWrites readYourWrites) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.readYourWrites = readYourWrites;
+        this.outstanding = new AtomicIntegerArray(replicas.size());
+        for (int i = 0; i < routed.length; i++) routed[i] = new LongAdder();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(target -> target.getConnection(username, password));
+    }
+
+    private Connection route(Opener opener) throws SQLException {
+        String client = ReadYourWrites.currentClient();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || replicas.isEmpty()) {
+            routed[Route.WRITE.ordinal()].increment();
+            recordWriteOnCommit(client);
+            return opener.open(primary);
+        }
+        if (ReadFromPrimaryAspect.isActive() || readYourWrites.wroteRecently(client)) {
+            routed[Route.READ_ON_PRIMARY.ordinal()].increment();
+            return opener.open(primary);
+        }
+        routed[Route.READ.ordinal()].increment();
+        boolean[] replicaRead = REPLICA_READ.get();
+        if (replicaRead != null) replicaRead[0] = true;
+        int replica = leastOutstanding();
+        outstanding.incrementAndGet(replica);
+        try {
+            return released(opener.open(replicas.get(replica)), replica);
+        } catch (SQLException | RuntimeException e) {
+            outstanding.decrementAndGet(replica);
+            throw e;
+        }
+    }
+
+    public static void trackReplicaReads() {
+        REPLICA_READ.set(new boolean[1]);
+    }
+
+    /** Whether the current thread took a replica connection since {@link #trackReplicaReads()}. */
+    public static boolean replicaWasRead() {
+        boolean[] replicaRead = REPLICA_READ.get();
+        return replicaRead != null && replicaRead[0];
+    }
+
+    public static void stopTrackingReplicaReads() {
+        REPLICA_READ.remove();
+    }
+
+    public int replicaCount() {
+        return replicas.size();
+    }
+
+    public int outstanding(int replica) {
+        return outstanding.get(replica);
+    }
+
+    public long routed(Route route) {
+        return routed[route.ordinal()].sum();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) closeable.close();
+        }
+    }
+
+    private void recordWriteOnCommit(String client) {
+        if (client == null) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            readYourWrites.recordWrite(client);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                readYourWrites.recordWrite(client);
+            }
+        });
+    }
+
+    private int leastOutstanding() {
+        int n = replicas.size();
+        int start = Math.floorMod(rotation.getAndIncrement(), n);
+        int best = start;
+        for (int k = 1; k < n; k++) {
+            int i = (start + k) % n;
+            if (outstanding.get(i) < outstanding.get(best)) best = i;
+        }
+        return best;
+    }
+
+    private Connection released(Connection target, int replica) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> {
+                        if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                            outstanding.decrementAndGet(replica);
+                        }
+                        try {
+                            yield method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    }
+                });
+    }
+}
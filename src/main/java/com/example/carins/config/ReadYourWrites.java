@@ -0,0 +1,50 @@
+package com.example.carins.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers when each client last committed a write, so that its reads can stay on the primary
+ * until the replicas have had {@code insurance.replicas.staleness-window} to catch up. The client
+ * of the current thread is bound per request; threads without a client always read from replicas.
+ */
+public class ReadYourWrites {
+
+    private static final ThreadLocal<String> CLIENT = new ThreadLocal<>();
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final long windowNanos;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWrites(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public static void bind(String client) {
+        CLIENT.set(client);
+    }
+
+    public static void clear() {
+        CLIENT.remove();
+    }
+
+    public static String currentClient() {
+        return CLIENT.get();
+    }
+
+    public void recordWrite(String client) {
+        if (client == null || windowNanos <= 0) return;
+        long now = System.nanoTime();
+        lastWrites.put(client, now);
+        if (lastWrites.size() > PURGE_THRESHOLD) {
+            lastWrites.values().removeIf(at -> now - at >= windowNanos);
+        }
+    }
+
+    public boolean wroteRecently(String client) {
+        if (client == null) return false;
+        Long at = lastWrites.get(client);
+        return at != null && System.nanoTime() - at < windowNanos;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.carins.config;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+
+/**
+ * Keeps reads that may be served by a replica out of the second-level and query caches. Such a
+ * read can return rows from before a write the primary already committed, and the update
+ * timestamps cannot tell, so a cached copy would be served as current until it is evicted.
+ * Read-only transactions outside {@link ReadFromPrimary} therefore load entities with
+ * {@link CacheStoreMode#BYPASS}: they still use cached entries, which only ever come from the
+ * primary, but never add to them. Queries follow the session cache mode instead, and Hibernate
+ * stores a query cache miss even under {@link CacheMode#GET}, so they skip the query cache.
+ */
+public class ReplicaCacheModeJpaDialect extends HibernateJpaDialect {
+
+    private static final String STORE_MODE = AvailableSettings.JAKARTA_SHARED_CACHE_STORE_MODE;
+
+    private record Data(Object target, Session session, Object previousStoreMode, CacheMode previousCacheMode) {}
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException {
+        Object target = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly() || ReadFromPrimaryAspect.isActive()) return target;
+        Session session = entityManager.unwrap(Session.class);
+        Data data = new Data(target, session,
+                session.getProperties().getOrDefault(STORE_MODE, CacheStoreMode.USE), session.getCacheMode());
+        session.setProperty(STORE_MODE, CacheStoreMode.BYPASS);
+        session.setCacheMode(CacheMode.IGNORE);
+        return data;
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof Data data) {
+            if (data.session().isOpen()) {
+                data.session().setProperty(STORE_MODE, data.previousStoreMode());
+                data.session().setCacheMode(data.previousCacheMode());
+            }
+            super.cleanupTransaction(data.target());
+        } else {
+            super.cleanupTransaction(transactionData);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.carins.config;
+
+import com.example.carins.web.ClientBindingFilter;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Routes read-only transactions to the replicas in {@code insurance.replicas.urls} when
+ * {@code insurance.replicas.enabled} is set. Each replica gets its own Hikari pool; the primary
+ * stays the configured {@code dataSource}, including its connection guard. Transactions that may
+ * read from a replica do not populate the Hibernate caches ({@link ReplicaCacheModeJpaDialect}).
+ */
+@Configuration
+public class ReplicaRoutingConfig {
+
+    @Value("${insurance.replicas.enabled:false}")
+    private boolean enabled;
+
+    @Bean
+    public ReadYourWrites readYourWrites(@Value("${insurance.replicas.staleness-window:2s}") Duration window) {
+        return new ReadYourWrites(window);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ClientBindingFilter> clientBindingFilter() {
+        var registration = new FilterRegistrationBean<>(new ClientBindingFilter());
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        registration.setEnabled(enabled);
+        return registration;
+    }
+
+    @Bean
+    public static DestructionAwareBeanPostProcessor replicaRoutingPostProcessor(Environment env,
+                                                                               ObjectProvider<ReadYourWrites> readYourWrites,
+                                                                               ObjectProvider<MeterRegistry> registry) {
+        boolean enabled = env.getProperty("insurance.replicas.enabled", Boolean.class, false);
+        return new RoutingPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!enabled || !"dataSource".equals(beanName) || !(bean instanceof DataSource primary)
+                        || bean instanceof LazyConnectionDataSourceProxy) {
+                    return bean;
+                }
+                List<DataSource> replicas = new ArrayList<>();
+                String[] urls = env.getProperty("insurance.replicas.urls", String[].class, new String[0]);
+                for (String url : Arrays.stream(urls).map(String::trim).filter(u -> !u.isEmpty()).toList()) {
+                    replicas.add(replicaPool(env, url, replicas.size()));
+                }
+                var routing = new ReadWriteRoutingDataSource(primary, replicas, readYourWrites.getObject());
+                registry.ifAvailable(r -> register(r, routing));
+                return new LazyConnectionDataSourceProxy(routing);
+            }
+
+            @Override
+            public void postProcessBeforeDestruction(Object bean, String beanName) {
+                if (bean instanceof LazyConnectionDataSourceProxy proxy
+                        && proxy.getTargetDataSource() instanceof ReadWriteRoutingDataSource routing) {
+                    try {
+                        routing.close();
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Could not close replica pools", e);
+                    }
+                }
+            }
+
+            @Override
+            public boolean requiresDestruction(Object bean) {
+                return bean instanceof LazyConnectionDataSourceProxy;
+            }
+        };
+    }
+
+    @Bean
+    public static BeanPostProcessor replicaCacheModePostProcessor(Environment env) {
+        boolean enabled = env.getProperty("insurance.replicas.enabled", Boolean.class, false);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (enabled && bean instanceof JpaTransactionManager tm) tm.setJpaDialect(new ReplicaCacheModeJpaDialect());
+                return bean;
+            }
+        };
+    }
+
+    private static DataSource replicaPool(Environment env, String url, int index) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("replica-" + index);
+        config.setJdbcUrl(url);
+        config.setUsername(env.getProperty("insurance.replicas.username", env.getProperty("spring.datasource.username")));
+        config.setPassword(env.getProperty("insurance.replicas.password", env.getProperty("spring.datasource.password", "")));
+        config.setMaximumPoolSize(env.getProperty("insurance.replicas.pool-size", Integer.class, 10));
+        config.setConnectionTimeout(env.getProperty("spring.datasource.hikari.connection-timeout", Long.class, 30_000L));
+        config.setReadOnly(true);
+        return new HikariDataSource(config);
+    }
+
+    private static void register(MeterRegistry registry, ReadWriteRoutingDataSource routing) {
+        for (ReadWriteRoutingDataSource.Route route : ReadWriteRoutingDataSource.Route.values()) {
+            FunctionCounter.builder("db.routing.connections", routing, r -> r.routed(route))
+                    .description("Connections handed out by the read/write router")
+                    .tag("route", route.name().toLowerCase(Locale.ROOT).replace('_', '-'))
+                    .register(registry);
+        }
+        for (int i = 0; i < routing.replicaCount(); i++) {
+            int replica = i;
+            Gauge.builder("db.replica.connections.outstanding", routing, r -> r.outstanding(replica))
+                    .description("Connections currently checked out from a replica")
+                    .tag("replica", "replica-" + replica)
+                    .register(registry);
+        }
+    }
+
+    /** Runs after the connection guard, which keeps wrapping the primary pool itself. */
+    private abstract static class RoutingPostProcessor implements DestructionAwareBeanPostProcessor, Ordered {
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.carins.config;
+
+import com.example.carins.model.Car;
+import com.example.carins.model.InsurancePolicy;
+import com.example.carins.model.Owner;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level cache backed by Caffeine through JCache. Entity regions hold
+ * {@link Car}, {@link Owner} and {@link InsurancePolicy}; cacheable queries land in the
+ * default query-results region. Every region is created here with its size and TTL so
+ * nothing depends on an external cache descriptor.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Value("${insurance.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${insurance.cache.entity.max-size:100000}")
+    private long entityMaxSize;
+
+    @Value("${insurance.cache.entity.ttl:10m}")
+    private Duration entityTtl;
+
+    @Value("${insurance.cache.query.max-size:100000}")
+    private long queryMaxSize;
+
+    @Value("${insurance.cache.query.ttl:1m}")
+    private Duration queryTtl;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CacheManager manager = new CaffeineCachingProvider().getCacheManager();
+        for (Class<?> entity : new Class<?>[] {Car.class, Owner.class, InsurancePolicy.class}) {
+            manager.createCache(entity.getName(), region(entityMaxSize, entityTtl));
+        }
+        manager.createCache(QUERY_RESULTS_REGION, region(queryMaxSize, queryTtl));
+        // Timestamps decide whether cached query results are stale, so they must never be evicted.
+        manager.createCache(UPDATE_TIMESTAMPS_REGION, region(0, Duration.ZERO));
+        return manager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return props -> {
+            props.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            props.put(AvailableSettings.USE_QUERY_CACHE, enabled);
+            if (enabled) {
+                props.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+                props.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+                props.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+            }
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, Duration ttl) {
+        var config = new CaffeineConfiguration<>();
+        if (maxSize > 0) config.setMaximumSize(OptionalLong.of(maxSize));
+        if (!ttl.isZero()) config.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        config.setStatisticsEnabled(true);
+        return config;
+    }
+}
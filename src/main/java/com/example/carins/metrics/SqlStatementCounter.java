@@ -0,0 +1,63 @@
+package com.example.carins.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Hibernate {@link StatementInspector} that counts the SQL statements prepared on the current
+ * thread while a {@link Scope} is open. Scopes nest; a statement counts towards every open
+ * scope. Any inspector configured through {@code hibernate.session_factory.statement_inspector}
+ * keeps running behind it.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    public final class Scope implements AutoCloseable {
+        private final Scope parent;
+        private int count;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        @Override
+        public void close() {
+            if (parent != null) current.set(parent); else current.remove();
+        }
+    }
+
+    private final ThreadLocal<Scope> current = new ThreadLocal<>();
+    private volatile StatementInspector delegate;
+
+    public Scope open() {
+        Scope scope = new Scope(current.get());
+        current.set(scope);
+        return scope;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        for (Scope s = current.get(); s != null; s = s.parent) {
+            s.count++;
+        }
+        return delegate != null ? delegate.inspect(sql) : sql;
+    }
+
+    StatementInspector chain(Object configured) {
+        if (configured instanceof SqlStatementCounter) {
+            return this;
+        } else if (configured instanceof StatementInspector inspector) {
+            delegate = inspector;
+        } else if (configured instanceof Class<?> type) {
+            delegate = (StatementInspector) BeanUtils.instantiateClass(type);
+        } else if (configured instanceof String className && !className.isBlank()) {
+            delegate = (StatementInspector) BeanUtils.instantiateClass(
+                    ClassUtils.resolveClassName(className, getClass().getClassLoader()));
+        }
+        return this;
+    }
+}
@@ -1,11 +1,19 @@
 package com.example.carins.model;
 
+import com.example.carins.service.CoverageIndexListener;
+import com.example.carins.service.ResourceVersionListener;
+import com.example.carins.service.VinIndexListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "car")
+@EntityListeners({CoverageIndexListener.class, VinIndexListener.class, ResourceVersionListener.class})
 public class Car {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -21,6 +29,10 @@ public class Car {
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
     private Owner owner;
 
+    /** VIN as last read from or written to the database; entity listeners run before it is updated. */
+    @Transient
+    private String storedVin;
+
     public Car() {}
     public Car(String vin, String make, String model, int yearOfManufacture, Owner owner) {
         this.vin = vin; this.make = make; this.model = model; this.yearOfManufacture = yearOfManufacture; this.owner = owner;
@@ -37,4 +49,8 @@ public class Car {
     public void setYearOfManufacture(int y) { this.yearOfManufacture = y; }
     public Owner getOwner() { return owner; }
     public void setOwner(Owner owner) { this.owner = owner; }
+    public String getStoredVin() { return storedVin; }
+
+    @PostLoad @PostPersist @PostUpdate
+    void rememberStoredVin() { this.storedVin = vin; }
 }
@@ -0,0 +1,38 @@
+package com.example.carins.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "car_claim_stats", indexes = @Index(name = "idx_claim_stats_total", columnList = "total_amount, car_id"))
+public class CarClaimStats {
+    @Id
+    @Column(name = "car_id")
+    private Long carId;
+
+    @Column(name = "claim_count", nullable = false)
+    private long claimCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "max_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal maxAmount;
+
+    @Column(name = "last_claim_date", nullable = false)
+    private LocalDate lastClaimDate;
+
+    public CarClaimStats() {}
+    public CarClaimStats(Long carId, long claimCount, BigDecimal totalAmount, BigDecimal maxAmount, LocalDate lastClaimDate) {
+        this.carId = carId; this.claimCount = claimCount; this.totalAmount = totalAmount;
+        this.maxAmount = maxAmount; this.lastClaimDate = lastClaimDate;
+    }
+
+    public Long getCarId() { return carId; }
+    public long getClaimCount() { return claimCount; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public BigDecimal getMaxAmount() { return maxAmount; }
+    public LocalDate getLastClaimDate() { return lastClaimDate; }
+}
@@ -0,0 +1,49 @@
+package com.example.carins.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * One entry of the change log. Rows are inserted with the business change and carry no
+ * {@code seq}; the change feed numbers them in commit order afterwards.
+ */
+@Entity
+@Table(name = "change_event", indexes = @Index(name = "idx_change_event_seq", columnList = "seq", unique = true))
+public class ChangeEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "change_event_seq")
+    @SequenceGenerator(name = "change_event_seq", sequenceName = "change_event_seq", allocationSize = 50)
+    private Long id;
+
+    private Long seq;
+
+    @Column(nullable = false, length = 32)
+    private String type;
+
+    @Column(name = "car_id", nullable = false)
+    private Long carId;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(nullable = false, length = 4000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public ChangeEvent() {}
+    public ChangeEvent(String type, Long carId, Long entityId, String payload) {
+        this.type = type; this.carId = carId; this.entityId = entityId; this.payload = payload; this.createdAt = Instant.now();
+    }
+
+    public Long getId() { return id; }
+    public Long getSeq() { return seq; }
+    public void setSeq(Long seq) { this.seq = seq; }
+    public String getType() { return type; }
+    public Long getCarId() { return carId; }
+    public Long getEntityId() { return entityId; }
+    public String getPayload() { return payload; }
+    public Instant getCreatedAt() { return createdAt; }
+}
@@ -1,5 +1,7 @@
 package com.example.carins.model;
 
+import com.example.carins.service.ClaimSearchListener;
+import com.example.carins.service.ResourceVersionListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -9,9 +11,12 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "claim")
+@EntityListeners({ResourceVersionListener.class, ClaimSearchListener.class})
+@Table(name = "claim", indexes = @Index(name = "idx_claim_car_date_id", columnList = "car_id, claim_date, id"))
 public class Claim {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "claim_seq")
+    @SequenceGenerator(name = "claim_seq", sequenceName = "claim_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
@@ -30,6 +35,9 @@ public class Claim {
     @Column(nullable = false, precision = 12, scale = 2)
     private BigDecimal amount;
 
+    @Column(name = "tracking_id", length = 36, unique = true)
+    private String trackingId;
+
     public Claim() {}
 
     public Claim(Car car, LocalDate claimDate, String description, BigDecimal amount) {
@@ -48,4 +56,6 @@ public class Claim {
     public void setDescription(String description) { this.description = description; }
     public BigDecimal getAmount() { return amount; }
     public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public String getTrackingId() { return trackingId; }
+    public void setTrackingId(String trackingId) { this.trackingId = trackingId; }
 }
@@ -1,14 +1,26 @@
 package com.example.carins.model;
 
+import com.example.carins.service.CoverageIndexListener;
+import com.example.carins.service.ResourceVersionListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "insurancepolicy")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "insurancepolicy", indexes = {
+        @Index(name = "idx_policy_end_date_id", columnList = "end_date, id"),
+        @Index(name = "idx_policy_car_start_end", columnList = "car_id, start_date, end_date")
+})
+@EntityListeners({CoverageIndexListener.class, ResourceVersionListener.class})
 public class InsurancePolicy {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "policy_seq")
+    @SequenceGenerator(name = "policy_seq", sequenceName = "policy_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
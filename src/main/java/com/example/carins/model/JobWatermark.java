@@ -0,0 +1,30 @@
+package com.example.carins.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "job_watermark")
+public class JobWatermark {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "last_processed_day", nullable = false)
+    private LocalDate lastProcessedDay;
+
+    @Column(name = "last_item_id")
+    private Long lastItemId;
+
+    public JobWatermark() {}
+    public JobWatermark(String name, LocalDate lastProcessedDay) {
+        this.name = name; this.lastProcessedDay = lastProcessedDay;
+    }
+
+    public String getName() { return name; }
+    public LocalDate getLastProcessedDay() { return lastProcessedDay; }
+    public void setLastProcessedDay(LocalDate lastProcessedDay) { this.lastProcessedDay = lastProcessedDay; }
+    public Long getLastItemId() { return lastItemId; }
+    public void setLastItemId(Long lastItemId) { this.lastItemId = lastItemId; }
+}
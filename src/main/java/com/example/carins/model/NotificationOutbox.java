@@ -0,0 +1,40 @@
+package com.example.carins.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "notification_outbox", indexes = @Index(name = "idx_outbox_unsent", columnList = "sent_at, id"))
+public class NotificationOutbox {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String type;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Column(nullable = false, length = 1000)
+    private String message;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "sent_at")
+    private Instant sentAt;
+
+    public NotificationOutbox() {}
+    public NotificationOutbox(String type, Long aggregateId, String message) {
+        this.type = type; this.aggregateId = aggregateId; this.message = message; this.createdAt = Instant.now();
+    }
+
+    public Long getId() { return id; }
+    public String getType() { return type; }
+    public Long getAggregateId() { return aggregateId; }
+    public String getMessage() { return message; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getSentAt() { return sentAt; }
+    public void setSentAt(Instant sentAt) { this.sentAt = sentAt; }
+}
@@ -1,10 +1,16 @@
 package com.example.carins.model;
 
+import com.example.carins.service.ResourceVersionListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@EntityListeners(ResourceVersionListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "owner")
 public class Owner {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
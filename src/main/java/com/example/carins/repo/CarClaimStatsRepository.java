@@ -0,0 +1,55 @@
+package com.example.carins.repo;
+
+import com.example.carins.model.CarClaimStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface CarClaimStatsRepository extends JpaRepository<CarClaimStats, Long> {
+
+    @Modifying
+    @Query("update CarClaimStats s set " +
+           "s.claimCount = s.claimCount + :count, " +
+           "s.totalAmount = s.totalAmount + :total, " +
+           "s.maxAmount = case when s.maxAmount >= :max then s.maxAmount else :max end, " +
+           "s.lastClaimDate = case when s.lastClaimDate >= :last then s.lastClaimDate else :last end " +
+           "where s.carId = :carId")
+    int addClaims(@Param("carId") Long carId, @Param("count") long count, @Param("total") BigDecimal total,
+                  @Param("max") BigDecimal max, @Param("last") LocalDate last);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s.carId from CarClaimStats s where s.carId > :afterId and s.carId <= :toId")
+    List<Long> lockRange(@Param("afterId") Long afterId, @Param("toId") Long toId);
+
+    @Modifying
+    @Query("update CarClaimStats s set " +
+           "s.claimCount = (select count(c) from Claim c where c.car.id = s.carId), " +
+           "s.totalAmount = (select sum(c.amount) from Claim c where c.car.id = s.carId), " +
+           "s.maxAmount = (select max(c.amount) from Claim c where c.car.id = s.carId), " +
+           "s.lastClaimDate = (select max(c.claimDate) from Claim c where c.car.id = s.carId) " +
+           "where s.carId > :afterId and s.carId <= :toId")
+    int recomputeFromClaims(@Param("afterId") Long afterId, @Param("toId") Long toId);
+
+    @Modifying
+    @Query("insert into CarClaimStats (carId, claimCount, totalAmount, maxAmount, lastClaimDate) " +
+           "select c.car.id, count(c), sum(c.amount), max(c.amount), max(c.claimDate) " +
+           "from Claim c where c.car.id > :afterId and c.car.id <= :toId " +
+           "and not exists (select 1 from CarClaimStats s where s.carId = c.car.id) " +
+           "group by c.car.id")
+    int insertMissingFromClaims(@Param("afterId") Long afterId, @Param("toId") Long toId);
+
+    @Modifying
+    @Query("delete from CarClaimStats s where s.carId > :afterId and s.carId <= :toId " +
+           "and not exists (select 1 from Claim c where c.car.id = s.carId)")
+    int deleteWithoutClaims(@Param("afterId") Long afterId, @Param("toId") Long toId);
+
+    List<CarClaimStats> findByOrderByTotalAmountDescCarIdAsc(Limit limit);
+}
@@ -1,14 +1,58 @@
 package com.example.carins.repo;
 
 import com.example.carins.model.*;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CarRepository extends JpaRepository<Car, Long> {
+public interface CarRepository extends JpaRepository<Car, Long>, CarRepositoryCustom {
     @EntityGraph(attributePaths = {"owner"})
     List<Car> findAll();
     Optional<Car> findByVin(String vin);
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = {"owner"})
+    List<Car> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    @Query("select c.id from Car c")
+    Stream<Long> streamAllIds();
+
+    @Query("select new com.example.carins.repo.CarVin(c.id, c.vin) from Car c")
+    Stream<CarVin> streamAllVins();
+
+    @Query("select c.id from Car c where c.id in :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Car c where c.id = :id")
+    Optional<Car> lockById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c.id from Car c where c.id > :afterId order by c.id")
+    List<Long> lockIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /** Locks the cars in id order, so writers locking overlapping sets cannot deadlock. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Car c where c.id in :ids order by c.id")
+    List<Car> lockAllById(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.example.carins.repo.IdRange(min(c.id), max(c.id)) from Car c")
+    IdRange findIdRange();
+
+    @Query("select new com.example.carins.repo.UninsuredCar(c.id, c.vin, c.make, c.model, c.owner.id) " +
+           "from Car c " +
+           "where c.id between :fromId and :toId " +
+           "and not exists (select p.id from InsurancePolicy p " +
+           "                where p.car.id = c.id and p.startDate <= :date and p.endDate >= :date) " +
+           "order by c.id")
+    List<UninsuredCar> findUninsuredBetween(@Param("date") LocalDate date,
+                                            @Param("fromId") Long fromId,
+                                            @Param("toId") Long toId);
+}
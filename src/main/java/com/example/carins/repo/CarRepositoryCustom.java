@@ -0,0 +1,9 @@
+package com.example.carins.repo;
+
+import com.example.carins.model.Car;
+
+import java.util.function.Consumer;
+
+public interface CarRepositoryCustom {
+    void scrollAllWithOwner(int fetchSize, Consumer<Car> action);
+}
@@ -0,0 +1,37 @@
+package com.example.carins.repo;
+
+import com.example.carins.model.Car;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public class CarRepositoryImpl implements CarRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /**
+     * Walks every car with its owner over a server-side cursor. The persistence context is
+     * cleared every {@code fetchSize} rows so memory use does not grow with the table, and the
+     * second-level cache is bypassed so a full scan does not evict the hot entries.
+     */
+    @Override
+    public void scrollAllWithOwner(int fetchSize, Consumer<Car> action) {
+        try (Stream<Car> cars = em.createQuery("select c from Car c join fetch c.owner order by c.id", Car.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+                .getResultStream()) {
+            int n = 0;
+            for (Iterator<Car> it = cars.iterator(); it.hasNext(); ) {
+                action.accept(it.next());
+                if (++n % fetchSize == 0) em.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.carins.repo;
+
+import com.example.carins.model.ChangeEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface ChangeEventRepository extends JpaRepository<ChangeEvent, Long> {
+    @Query("select e from ChangeEvent e where e.seq is null order by e.id")
+    List<ChangeEvent> findUnsequenced(Limit limit);
+
+    @Query("select e.id from ChangeEvent e where e.seq is null")
+    List<Long> findUnsequencedIds(Limit limit);
+
+    @Query("select e from ChangeEvent e where e.seq > :after order by e.seq")
+    List<ChangeEvent> findSequencedAfter(long after, Limit limit);
+}
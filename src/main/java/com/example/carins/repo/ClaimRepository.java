@@ -2,9 +2,22 @@ package com.example.carins.repo;
 
 import com.example.carins.model.Claim;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ClaimRepository extends JpaRepository<Claim, Long> {
+public interface ClaimRepository extends JpaRepository<Claim, Long>, ClaimRepositoryCustom {
     List<Claim> findByCarIdOrderByClaimDateAsc(Long carId);
+
+    Optional<Claim> findByTrackingId(String trackingId);
+
+    @Query("select c.trackingId from Claim c where c.trackingId in :trackingIds")
+    List<String> findExistingTrackingIds(Collection<String> trackingIds);
+
+    @Query("select new com.example.carins.repo.ClaimText(c.id, c.claimDate, c.amount, c.description) " +
+           "from Claim c order by c.id desc")
+    Stream<ClaimText> streamAllTextNewestFirst();
 }
@@ -0,0 +1,11 @@
+package com.example.carins.repo;
+
+import com.example.carins.model.Claim;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ClaimRepositoryCustom {
+    List<Claim> findHistoryPage(Long carId, LocalDate from, LocalDate to, boolean descending,
+                                LocalDate afterDate, Long afterId, int limit);
+}
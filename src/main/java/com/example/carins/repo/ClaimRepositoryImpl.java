@@ -0,0 +1,46 @@
+package com.example.carins.repo;
+
+import com.example.carins.model.Claim;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class ClaimRepositoryImpl implements ClaimRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /**
+     * Keyset page over (claimDate, id) for one car. Every predicate and the ordering follow
+     * the {@code (car_id, claim_date, id)} index, so the page costs a range scan of
+     * {@code limit} index entries no matter how deep the cursor is.
+     */
+    @Override
+    public List<Claim> findHistoryPage(Long carId, LocalDate from, LocalDate to, boolean descending,
+                                       LocalDate afterDate, Long afterId, int limit) {
+        StringBuilder jpql = new StringBuilder("select c from Claim c where c.car.id = :carId");
+        if (from != null) jpql.append(" and c.claimDate >= :from");
+        if (to != null) jpql.append(" and c.claimDate <= :to");
+        if (afterDate != null) {
+            String cmp = descending ? "<" : ">";
+            jpql.append(" and (c.claimDate ").append(cmp).append(" :afterDate")
+                .append(" or (c.claimDate = :afterDate and c.id ").append(cmp).append(" :afterId))");
+        }
+        String dir = descending ? " desc" : " asc";
+        jpql.append(" order by c.claimDate").append(dir).append(", c.id").append(dir);
+
+        TypedQuery<Claim> query = em.createQuery(jpql.toString(), Claim.class)
+                .setParameter("carId", carId)
+                .setMaxResults(limit);
+        if (from != null) query.setParameter("from", from);
+        if (to != null) query.setParameter("to", to);
+        if (afterDate != null) {
+            query.setParameter("afterDate", afterDate);
+            query.setParameter("afterId", afterId);
+        }
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.carins.repo;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record ClaimText(Long id, LocalDate claimDate, BigDecimal amount, String description) {}
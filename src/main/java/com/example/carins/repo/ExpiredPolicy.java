@@ -0,0 +1,5 @@
+package com.example.carins.repo;
+
+import java.time.LocalDate;
+
+public record ExpiredPolicy(Long id, Long carId, LocalDate endDate) {}
@@ -0,0 +1,7 @@
+package com.example.carins.repo;
+
+public record IdRange(Long min, Long max) {
+    public boolean isEmpty() {
+        return min == null || max == null;
+    }
+}
@@ -1,15 +1,21 @@
 package com.example.carins.repo;
 
 import com.example.carins.model.*;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface InsurancePolicyRepository extends JpaRepository<InsurancePolicy, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("select case when count(p) > 0 then true else false end " +
            "from InsurancePolicy p " +
            "where p.car.id = :carId " +
@@ -20,4 +26,45 @@ public interface InsurancePolicyRepository extends JpaRepository<InsurancePolicy
     List<InsurancePolicy> findByCarId(Long carId);
 
     List<InsurancePolicy> findByEndDate(LocalDate endDate);
-}
\ No newline at end of file
+
+    @Query("select new com.example.carins.repo.ExpiredPolicy(p.id, p.car.id, p.endDate) " +
+           "from InsurancePolicy p " +
+           "where p.endDate = :endDate and p.id > :afterId " +
+           "order by p.id")
+    List<ExpiredPolicy> findExpiredAfter(@Param("endDate") LocalDate endDate, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("select new com.example.carins.repo.PolicyInterval(p.car.id, p.startDate, p.endDate) " +
+           "from InsurancePolicy p order by p.car.id")
+    Stream<PolicyInterval> streamAllIntervals();
+
+    @Query("select new com.example.carins.repo.PolicyInterval(p.car.id, p.startDate, p.endDate) " +
+           "from InsurancePolicy p where p.car.id = :carId")
+    List<PolicyInterval> findIntervalsByCarId(@Param("carId") Long carId);
+
+    @Query("select new com.example.carins.repo.PolicyInterval(p.car.id, p.startDate, p.endDate) " +
+           "from InsurancePolicy p " +
+           "where p.car.id in :carIds " +
+           "and p.startDate <= :to " +
+           "and p.endDate >= :from")
+    List<PolicyInterval> findIntervalsByCarIds(@Param("carIds") Collection<Long> carIds,
+                                               @Param("from") LocalDate from,
+                                               @Param("to") LocalDate to);
+
+    /** Policies of the given cars that share at least one day with {@code [from, to]}; a range scan on {@code idx_policy_car_start_end}. */
+    @Query("select new com.example.carins.repo.PolicySpan(p.id, p.car.id, p.provider, p.startDate, p.endDate) " +
+           "from InsurancePolicy p " +
+           "where p.car.id in :carIds " +
+           "and p.startDate <= :to " +
+           "and p.endDate >= :from " +
+           "order by p.car.id, p.startDate")
+    List<PolicySpan> findOverlapping(@Param("carIds") Collection<Long> carIds,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to);
+
+    @Query("select new com.example.carins.repo.PolicySpan(p.id, p.car.id, p.provider, p.startDate, p.endDate) " +
+           "from InsurancePolicy p " +
+           "where p.car.id in :carIds " +
+           "and p.endDate = (select max(q.endDate) from InsurancePolicy q where q.car.id = p.car.id) " +
+           "order by p.car.id, p.id")
+    List<PolicySpan> findLatestByCarIds(@Param("carIds") Collection<Long> carIds);
+}
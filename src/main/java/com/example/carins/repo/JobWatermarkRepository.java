@@ -0,0 +1,15 @@
+package com.example.carins.repo;
+
+import com.example.carins.model.JobWatermark;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface JobWatermarkRepository extends JpaRepository<JobWatermark, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select w from JobWatermark w where w.name = :name")
+    Optional<JobWatermark> lockByName(String name);
+}
@@ -0,0 +1,10 @@
+package com.example.carins.repo;
+
+import com.example.carins.model.NotificationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+    List<NotificationOutbox> findByTypeOrderByIdAsc(String type);
+}
@@ -0,0 +1,5 @@
+package com.example.carins.repo;
+
+import java.time.LocalDate;
+
+public record PolicyInterval(Long carId, LocalDate startDate, LocalDate endDate) {}
@@ -0,0 +1,5 @@
+package com.example.carins.repo;
+
+import java.time.LocalDate;
+
+public record PolicySpan(Long id, Long carId, String provider, LocalDate startDate, LocalDate endDate) {}
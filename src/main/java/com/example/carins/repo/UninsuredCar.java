@@ -0,0 +1,3 @@
+package com.example.carins.repo;
+
+public record UninsuredCar(Long carId, String vin, String make, String model, Long ownerId) {}
@@ -0,0 +1,41 @@
+package com.example.carins.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Defers work of the JPA listeners until the writing transaction commits. Items one listener
+ * adds during a transaction are collected in a single batch bound to the transaction, so a set
+ * drops duplicates, and are handed to the action in order after the commit; a rollback discards
+ * them. Outside a transaction the action runs right away.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {}
+
+    @SuppressWarnings("unchecked")
+    static <T> void run(Object owner, T item, Supplier<? extends Collection<T>> batch, Consumer<? super T> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(item);
+            return;
+        }
+        Collection<T> pending = (Collection<T>) TransactionSynchronizationManager.getResource(owner);
+        if (pending == null) {
+            Collection<T> items = batch.get();
+            TransactionSynchronizationManager.bindResource(owner, items);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(owner);
+                    if (status == STATUS_COMMITTED) items.forEach(action);
+                }
+            });
+            pending = items;
+        }
+        pending.add(item);
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.carins.service;
+
+import com.example.carins.repo.CarRepository;
+import com.example.carins.repo.ClaimRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional write-behind intake for single claims. A claim is validated, written to the local
+ * {@link ClaimJournal} and queued; the caller gets a tracking id right away. One writer thread
+ * drains the queue and stores whatever has piled up (up to {@code batch-size}) in one
+ * transaction through {@link ClaimIngestionService}, so many claims share one commit.
+ * Tracking ids are stored with the claims, which makes replaying the journal after a crash
+ * idempotent.
+ */
+@Service
+public class AsyncClaimService {
+
+    public enum State { QUEUED, COMMITTED, FAILED }
+
+    public record Status(String trackingId, State state, Long claimId, String error) {}
+
+    private record Queued(ClaimJournal.Entry entry, long segment) {}
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncClaimService.class);
+    private static final int FAILED_RETAINED = 10_000;
+    private static final HibernateJpaDialect JPA_DIALECT = new HibernateJpaDialect();
+
+    private final ClaimIngestionService ingestionService;
+    private final CarRepository carRepository;
+    private final ClaimRepository claimRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${insurance.claims.async.enabled:false}")
+    private boolean enabled;
+
+    @Value("${insurance.claims.async.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${insurance.claims.async.batch-size:500}")
+    private int batchSize;
+
+    @Value("${insurance.claims.async.journal-dir:${java.io.tmpdir}/carins-claim-journal}")
+    private Path journalDir;
+
+    @Value("${insurance.claims.async.journal-segment-bytes:16777216}")
+    private long journalSegmentBytes;
+
+    @Value("${insurance.claims.async.journal-fsync:true}")
+    private boolean journalFsync;
+
+    @Value("${insurance.claims.async.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private final Map<String, Boolean> queued = new ConcurrentHashMap<>();
+    private final Map<String, String> failed = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > FAILED_RETAINED;
+        }
+    });
+
+    private Semaphore slots;
+    private BlockingQueue<Queued> queue;
+    private ClaimJournal journal;
+    private Thread writer;
+    private volatile boolean running;
+    private volatile boolean accepting;
+
+    public AsyncClaimService(ClaimIngestionService ingestionService, CarRepository carRepository,
+                             ClaimRepository claimRepository, ObjectMapper objectMapper,
+                             ObjectProvider<MeterRegistry> meterRegistry) {
+        this.ingestionService = ingestionService;
+        this.carRepository = carRepository;
+        this.claimRepository = claimRepository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (!enabled) return;
+        journal = new ClaimJournal(journalDir, objectMapper, journalSegmentBytes, journalFsync);
+        replay();
+        slots = new Semaphore(queueCapacity);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        meterRegistry.ifAvailable(r -> Gauge.builder("claims.async.queued", queue, BlockingQueue::size)
+                .description("Claims accepted but not yet committed")
+                .register(r));
+        running = true;
+        writer = Thread.ofPlatform().name("claim-writer").daemon().start(this::drain);
+        accepting = true;
+    }
+
+    /** Validates the claim, journals it and queues it; returns the tracking id. */
+    public String submit(Long carId, LocalDate claimDate, String description, BigDecimal amount) {
+        if (!accepting) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Asynchronous claim intake is not available");
+        }
+        if (carId == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Car id must be provided");
+        }
+        if (carRepository.findById(carId).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Car not found");
+        }
+        if (!slots.tryAcquire()) {
+            throw new RetryLaterException(HttpStatus.TOO_MANY_REQUESTS, "Claim queue is full, please retry.", 1);
+        }
+        var entry = new ClaimJournal.Entry(UUID.randomUUID().toString(), carId, claimDate, description, amount);
+        long segment;
+        try {
+            segment = journal.append(entry);
+        } catch (IOException e) {
+            slots.release();
+            log.error("Could not journal claim for car {}", carId, e);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Could not accept claim, please retry.");
+        }
+        queued.put(entry.trackingId(), Boolean.TRUE);
+        queue.add(new Queued(entry, segment));
+        return entry.trackingId();
+    }
+
+    public Status status(String trackingId) {
+        if (queued.containsKey(trackingId)) {
+            return new Status(trackingId, State.QUEUED, null, null);
+        }
+        String error = failed.get(trackingId);
+        if (error != null) {
+            return new Status(trackingId, State.FAILED, null, error);
+        }
+        return claimRepository.findByTrackingId(trackingId)
+                .map(c -> new Status(trackingId, State.COMMITTED, c.getId(), null))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown tracking id"));
+    }
+
+    private void drain() {
+        List<Queued> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Queued first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                if (store(batch.stream().map(Queued::entry).toList())) {
+                    Map<Long, Integer> perSegment = new HashMap<>();
+                    for (Queued q : batch) perSegment.merge(q.segment(), 1, Integer::sum);
+                    for (var e : perSegment.entrySet()) journal.committed(e.getKey(), e.getValue());
+                }
+                slots.release(batch.size());
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                log.warn("Could not trim the claim journal", e);
+            }
+        }
+    }
+
+    /**
+     * Stores one batch. Transient failures (lock timeouts, no database connection) are retried with
+     * backoff and given up only during shutdown, leaving the claims in the journal for the next
+     * start. Any other failure splits the batch until the failing claim is alone and marked FAILED.
+     */
+    private boolean store(List<ClaimJournal.Entry> entries) throws InterruptedException {
+        long backoffMs = 100;
+        while (true) {
+            try {
+                apply(entries);
+                return true;
+            } catch (RuntimeException e) {
+                if (!isTransient(e)) return storeApart(entries, e);
+                if (!running) {
+                    log.warn("Leaving {} claims in the journal after a failed write during shutdown", entries.size(), e);
+                    return false;
+                }
+                log.warn("Claim batch of {} failed, retrying in {} ms", entries.size(), backoffMs, e);
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(5_000, backoffMs * 2);
+            }
+        }
+    }
+
+    private boolean storeApart(List<ClaimJournal.Entry> entries, RuntimeException e) throws InterruptedException {
+        if (entries.size() == 1) {
+            String trackingId = entries.get(0).trackingId();
+            log.error("Claim {} could not be stored", trackingId, e);
+            failed.put(trackingId, "Claim could not be stored");
+            queued.remove(trackingId);
+            return true;
+        }
+        int half = entries.size() / 2;
+        boolean first = store(entries.subList(0, half));
+        boolean second = store(entries.subList(half, entries.size()));
+        return first && second;
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        DataAccessException translated = e instanceof DataAccessException dae
+                ? dae : JPA_DIALECT.translateExceptionIfPossible(e);
+        return translated instanceof TransientDataAccessException || e instanceof CannotCreateTransactionException;
+    }
+
+    private void apply(List<ClaimJournal.Entry> entries) {
+        List<ClaimRow> rows = new ArrayList<>(entries.size());
+        List<String> trackingIds = new ArrayList<>(entries.size());
+        for (var e : entries) {
+            rows.add(new ClaimRow(e.carId(), e.claimDate(), e.description(), e.amount()));
+            trackingIds.add(e.trackingId());
+        }
+        var result = ingestionService.ingest(rows, trackingIds, 0);
+        for (var reject : result.rejects()) {
+            failed.put(trackingIds.get((int) reject.index()), reject.error());
+        }
+        trackingIds.forEach(queued::remove);
+    }
+
+    private void replay() throws IOException {
+        List<ClaimJournal.Entry> entries = journal.readUncommitted();
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            apply(entries.subList(from, Math.min(entries.size(), from + batchSize)));
+        }
+        journal.discardUncommitted();
+        if (!entries.isEmpty()) log.info("Replayed {} journaled claims", entries.size());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException, IOException {
+        accepting = false;
+        running = false;
+        if (writer != null) writer.join(shutdownTimeoutMs);
+        if (journal != null) journal.close();
+    }
+}
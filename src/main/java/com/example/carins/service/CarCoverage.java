@@ -0,0 +1,79 @@
+package com.example.carins.service;
+
+import com.example.carins.repo.PolicyInterval;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable set of policy intervals for one car, stored as epoch days.
+ * {@code starts} is sorted ascending and {@code maxEnds[i]} is the largest end date among
+ * the first {@code i + 1} intervals, so a car is covered on a day when the last interval
+ * starting on or before that day has a running max end on or after it.
+ */
+public final class CarCoverage {
+
+    static final CarCoverage EMPTY = new CarCoverage(new int[0], new int[0]);
+
+    private final int[] starts;
+    private final int[] maxEnds;
+
+    private CarCoverage(int[] starts, int[] maxEnds) {
+        this.starts = starts;
+        this.maxEnds = maxEnds;
+    }
+
+    public static CarCoverage of(Collection<PolicyInterval> intervals) {
+        long[] packed = new long[intervals.size()];
+        int n = 0;
+        for (PolicyInterval i : intervals) {
+            // same semantics as the JPQL check: an interval without a start never matches
+            if (i.startDate() == null || i.endDate() == null) continue;
+            int start = (int) i.startDate().toEpochDay();
+            int end = (int) i.endDate().toEpochDay();
+            packed[n++] = ((long) start << 32) | (end & 0xFFFFFFFFL);
+        }
+        if (n == 0) return EMPTY;
+        Arrays.sort(packed, 0, n);
+
+        int[] starts = new int[n];
+        int[] maxEnds = new int[n];
+        int max = Integer.MIN_VALUE;
+        for (int k = 0; k < n; k++) {
+            starts[k] = (int) (packed[k] >> 32);
+            max = Math.max(max, (int) packed[k]);
+            maxEnds[k] = max;
+        }
+        return new CarCoverage(starts, maxEnds);
+    }
+
+    public boolean covers(LocalDate date) {
+        return covers(date.toEpochDay());
+    }
+
+    public boolean covers(long epochDay) {
+        int lo = 0, hi = starts.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] <= epochDay) lo = mid + 1; else hi = mid;
+        }
+        return lo > 0 && maxEnds[lo - 1] >= epochDay;
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CarCoverage other)) return false;
+        return Arrays.equals(starts, other.starts) && Arrays.equals(maxEnds, other.maxEnds);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(starts) + Arrays.hashCode(maxEnds);
+    }
+}
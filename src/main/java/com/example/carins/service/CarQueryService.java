@@ -0,0 +1,60 @@
+package com.example.carins.service;
+
+import com.example.carins.config.ConcurrencyLimited;
+import com.example.carins.repo.CarRepository;
+import com.example.carins.web.dto.CarDto;
+import com.example.carins.web.dto.ClaimDto;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Read path that builds response DTOs straight from JPQL constructor expressions. No entities are
+ * hydrated, so there are no persistence-context entries, dirty-checking snapshots or lazy proxies;
+ * read-only transactions also switch Hibernate's flush mode to manual.
+ */
+@Service
+@Transactional(readOnly = true)
+@Timed(value = "carins.service", histogram = true)
+public class CarQueryService {
+
+    private final CarRepository carRepository;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    public CarQueryService(CarRepository carRepository) {
+        this.carRepository = carRepository;
+    }
+
+    @ConcurrencyLimited
+    public List<CarDto> listCars() {
+        return em.createQuery("select new com.example.carins.web.dto.CarDto(" +
+                        "c.id, c.vin, c.make, c.model, c.yearOfManufacture, o.id, o.name, o.email) " +
+                        "from Car c left join c.owner o order by c.id", CarDto.class)
+                .getResultList();
+    }
+
+    /** Claims of a car in claim-date order; the car is only looked up when there are none. */
+    @ConcurrencyLimited
+    public List<ClaimDto> listClaims(Long carId) {
+        if (carId == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Car id must be provided");
+        }
+        List<ClaimDto> claims = em.createQuery("select new com.example.carins.web.dto.ClaimDto(" +
+                        "c.id, c.claimDate, c.description, c.amount, c.car.id) " +
+                        "from Claim c where c.car.id = :carId order by c.claimDate, c.id", ClaimDto.class)
+                .setParameter("carId", carId)
+                .getResultList();
+        if (claims.isEmpty() && carRepository.findById(carId).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Car not found");
+        }
+        return claims;
+    }
+}
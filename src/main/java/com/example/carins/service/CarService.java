@@ -1,50 +1,161 @@
 package com.example.carins.service;
 
+import com.example.carins.config.ConcurrencyLimited;
+import com.example.carins.config.ReadFromPrimary;
 import com.example.carins.model.Car;
 import com.example.carins.model.Claim;
+import com.example.carins.model.InsurancePolicy;
 import com.example.carins.repo.CarRepository;
 import com.example.carins.repo.ClaimRepository;
 import com.example.carins.repo.InsurancePolicyRepository;
+import com.example.carins.repo.PolicyInterval;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
+@Timed(value = "carins.service", histogram = true)
 public class CarService {
 
     private final CarRepository carRepository;
     private final InsurancePolicyRepository policyRepository;
     private final ClaimRepository claimRepository;
+    private final CoverageIndex coverageIndex;
+    private final ClaimStatsService claimStatsService;
+    private final VinIndex vinIndex;
+    private final ChangeLog changeLog;
 
     @Value("${insurance.validity-interval-years:50}")
     private int validityIntervalYears;
 
+    @Value("${insurance.cars.max-page-size:1000}")
+    private int maxCarPageSize;
+
+    @Value("${insurance.cars.stream-fetch-size:500}")
+    private int carStreamFetchSize;
+
+    @Value("${insurance.claims.max-page-size:500}")
+    private int maxClaimPageSize;
+
+    @Value("${insurance.validity-batch.query-chunk-size:1000}")
+    private int validityQueryChunkSize;
+
     public CarService(CarRepository carRepository,
                       InsurancePolicyRepository policyRepository,
-                      ClaimRepository claimRepository) {
+                      ClaimRepository claimRepository,
+                      CoverageIndex coverageIndex,
+                      ClaimStatsService claimStatsService,
+                      VinIndex vinIndex,
+                      ChangeLog changeLog) {
         this.carRepository = carRepository;
         this.policyRepository = policyRepository;
         this.claimRepository = claimRepository;
+        this.coverageIndex = coverageIndex;
+        this.claimStatsService = claimStatsService;
+        this.vinIndex = vinIndex;
+        this.changeLog = changeLog;
     }
 
+    /**
+     * Resolves a VIN to a car id through the VIN index, falling back to the primary on a miss, since
+     * the result is cached in the index.
+     */
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    public Long carIdByVin(String vin) {
+        if (vin == null || vin.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "VIN must be provided");
+        }
+        Long carId = vinIndex.find(vin);
+        if (carId != null) return carId;
+        Car car = carRepository.findByVin(vin)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Car not found"));
+        vinIndex.put(car.getVin(), car.getId());
+        return car.getId();
+    }
+
+    @Transactional(readOnly = true)
+    @ConcurrencyLimited
     public List<Car> listCars() {
         return carRepository.findAll();
     }
 
+    /**
+     * Keyset page of cars with id greater than {@code afterId}. Returns up to {@code limit + 1}
+     * cars so the caller can tell whether another page follows.
+     */
+    @Transactional(readOnly = true)
+    @ConcurrencyLimited
+    public List<Car> listCars(Long afterId, int limit) {
+        if (limit < 1 || limit > maxCarPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + maxCarPageSize);
+        }
+        return carRepository.findByIdGreaterThanOrderByIdAsc(afterId != null ? afterId : Long.MIN_VALUE, Limit.of(limit + 1));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamCars(Consumer<Car> action) {
+        carRepository.scrollAllWithOwner(carStreamFetchSize, action);
+    }
+
+    @Transactional(readOnly = true)
+    @ConcurrencyLimited
     public List<Claim> listClaims(Long carId) {
         if (carId == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Car id must be provided");
         }
-        Car car = carRepository.findById(carId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Car not found"));
-        return claimRepository.findByCarIdOrderByClaimDateAsc(car.getId());
+        List<Claim> claims = claimRepository.findByCarIdOrderByClaimDateAsc(carId);
+        requireCarIfEmpty(carId, claims);
+        return claims;
     }
 
+    /**
+     * Keyset page of a car's claims ordered by (claimDate, id), optionally limited to
+     * {@code [from, to]}. Returns up to {@code limit + 1} claims so the caller can tell whether
+     * another page follows. The car is only looked up when the page comes back empty.
+     */
+    @Transactional(readOnly = true)
+    @ConcurrencyLimited
+    public List<Claim> listClaims(Long carId, LocalDate from, LocalDate to, boolean descending,
+                                  ClaimCursor after, int limit) {
+        if (carId == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Car id must be provided");
+        }
+        if (limit < 1 || limit > maxClaimPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + maxClaimPageSize);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must not be after 'to'");
+        }
+        List<Claim> claims = claimRepository.findHistoryPage(carId, from, to, descending,
+                after != null ? after.claimDate() : null, after != null ? after.id() : null, limit + 1);
+        requireCarIfEmpty(carId, claims);
+        return claims;
+    }
+
+    private void requireCarIfEmpty(Long carId, List<?> rows) {
+        if (rows.isEmpty() && carRepository.findById(carId).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Car not found");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    @ConcurrencyLimited
     public boolean isInsuranceValid(Long carId, LocalDate date) {
         if (date == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Date must be provided");
@@ -59,12 +170,118 @@ public class CarService {
         if (carId == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Car id must be provided");
         }
+        if (coverageIndex.isActive()) {
+            CarCoverage coverage = coverageIndex.find(carId);
+            if (coverage != null) return coverage.covers(date);
+        }
         Car car = carRepository.findById(carId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Car not found"));
 
         return policyRepository.existsActiveOnDate(car.getId(), date);
     }
 
+    /**
+     * Covered and uncovered intervals of {@code [from, to]} for one car, merged from its policies
+     * in a single query. The car is only looked up when it has no policies.
+     */
+    @Transactional(readOnly = true)
+    @ConcurrencyLimited
+    public CoverageTimeline coverageTimeline(Long carId, LocalDate from, LocalDate to) {
+        if (carId == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Car id must be provided");
+        }
+        if (from == null || to == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' and 'to' must be provided");
+        }
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must not be after 'to'");
+        }
+        LocalDate minDate = LocalDate.now().minusYears(validityIntervalYears);
+        LocalDate maxDate = LocalDate.now().plusYears(validityIntervalYears);
+        if (from.isBefore(minDate) || to.isAfter(maxDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Range is outside the supported range: " + minDate + " to " + maxDate);
+        }
+        List<InsurancePolicy> policies = policyRepository.findByCarId(carId);
+        requireCarIfEmpty(carId, policies);
+        return CoverageTimeline.of(policies, from, to);
+    }
+
+    /**
+     * Answers many (car, date) checks with one car-existence and one interval query per
+     * chunk of distinct car ids. Invalid items get an inline error instead of failing the batch.
+     */
+    @Transactional(readOnly = true)
+    @ConcurrencyLimited
+    public List<ValidityCheck.Result> checkInsuranceValidity(List<ValidityCheck> checks) {
+        LocalDate minDate = LocalDate.now().minusYears(validityIntervalYears);
+        LocalDate maxDate = LocalDate.now().plusYears(validityIntervalYears);
+
+        ValidityCheck.Result[] results = new ValidityCheck.Result[checks.size()];
+        Set<Long> carIds = new LinkedHashSet<>();
+        LocalDate from = null, to = null;
+        for (int i = 0; i < checks.size(); i++) {
+            ValidityCheck c = checks.get(i);
+            if (c.date() == null) {
+                results[i] = ValidityCheck.Result.error("Date must be provided");
+            } else if (c.date().isBefore(minDate) || c.date().isAfter(maxDate)) {
+                results[i] = ValidityCheck.Result.error("Date is outside the supported range: " + minDate + " to " + maxDate);
+            } else if (c.carId() == null) {
+                results[i] = ValidityCheck.Result.error("Car id must be provided");
+            } else {
+                carIds.add(c.carId());
+                if (from == null || c.date().isBefore(from)) from = c.date();
+                if (to == null || c.date().isAfter(to)) to = c.date();
+            }
+        }
+
+        Map<Long, CarCoverage> coverage = coverageIndex.isActive()
+                ? indexedCoverage(carIds, from, to)
+                : loadCoverage(carIds, from, to);
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) continue;
+            ValidityCheck c = checks.get(i);
+            CarCoverage cc = coverage.get(c.carId());
+            results[i] = cc == null ? ValidityCheck.Result.error("Car not found") : ValidityCheck.Result.of(cc.covers(c.date()));
+        }
+        return List.of(results);
+    }
+
+    private Map<Long, CarCoverage> indexedCoverage(Set<Long> carIds, LocalDate from, LocalDate to) {
+        Map<Long, CarCoverage> result = new HashMap<>();
+        Set<Long> misses = new HashSet<>();
+        for (Long id : carIds) {
+            CarCoverage cc = coverageIndex.find(id);
+            if (cc != null) {
+                result.put(id, cc);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) result.putAll(loadCoverage(misses, from, to));
+        return result;
+    }
+
+    private Map<Long, CarCoverage> loadCoverage(Set<Long> carIds, LocalDate from, LocalDate to) {
+        Map<Long, CarCoverage> result = new HashMap<>();
+        List<Long> ids = new ArrayList<>(carIds);
+        for (int start = 0; start < ids.size(); start += validityQueryChunkSize) {
+            List<Long> chunk = ids.subList(start, Math.min(ids.size(), start + validityQueryChunkSize));
+            Map<Long, List<PolicyInterval>> byCar = new HashMap<>();
+            for (Long id : carRepository.findExistingIds(chunk)) {
+                byCar.put(id, new ArrayList<>());
+            }
+            if (byCar.isEmpty()) continue;
+            for (PolicyInterval p : policyRepository.findIntervalsByCarIds(byCar.keySet(), from, to)) {
+                byCar.get(p.carId()).add(p);
+            }
+            byCar.forEach((id, intervals) -> result.put(id, CarCoverage.of(intervals)));
+        }
+        return result;
+    }
+
+    @Transactional
+    @ConcurrencyLimited
     public Claim registerClaim(Long carId, LocalDate claimDate, String description, BigDecimal amount) {
         if (carId == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Car id must be provided");
@@ -72,7 +289,9 @@ public class CarService {
         Car car = carRepository.findById(carId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Car not found"));
 
-        Claim claim = new Claim(car, claimDate, description, amount);
-        return claimRepository.save(claim);
+        Claim claim = claimRepository.save(new Claim(car, claimDate, description, amount));
+        claimStatsService.add(carId, amount, claimDate);
+        changeLog.claimRegistered(claim, carId);
+        return claim;
     }
 }
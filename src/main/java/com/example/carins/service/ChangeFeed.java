@@ -0,0 +1,326 @@
+package com.example.carins.service;
+
+import com.example.carins.model.ChangeEvent;
+import com.example.carins.model.JobWatermark;
+import com.example.carins.repo.ChangeEventRepository;
+import com.example.carins.repo.JobWatermarkRepository;
+import com.example.carins.web.dto.ChangeDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the change log to subscribers. One tail thread numbers new {@link ChangeEvent} rows
+ * in commit order under the {@value #JOB_NAME} watermark lock, reads the numbered rows once and
+ * fans them out to the bounded queue of every live subscriber. A subscriber that resumes from an
+ * older sequence first catches up from an in-memory ring of recent changes or, further back, from
+ * the table. A subscriber whose queue overflows is dropped and has to resume from its position.
+ */
+@Component
+public class ChangeFeed {
+
+    public static final String JOB_NAME = "change-feed";
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeed.class);
+
+    /** One published change; {@code json} is its {@link ChangeDto}, serialized once for all subscribers. */
+    public record Change(long seq, String type, String json) {}
+
+    private final ChangeEventRepository changeRepository;
+    private final JobWatermarkRepository watermarkRepository;
+    private final TransactionTemplate tx;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Duration pollInterval;
+    private final int batchSize;
+    private final int subscriberBuffer;
+    private final int maxSubscribers;
+    private final Change[] ring;
+    private final List<Subscription> live = new ArrayList<>();
+    private final Set<Subscription> open = ConcurrentHashMap.newKeySet();
+    private final Counter published;
+    private final Counter dropped;
+    private long lastSeq;
+    private int ringSize;
+    private volatile boolean started;
+    private volatile Thread tail;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    public ChangeFeed(ChangeEventRepository changeRepository, JobWatermarkRepository watermarkRepository,
+                      TransactionTemplate tx, ObjectMapper objectMapper,
+                      @Value("${insurance.changes.enabled:true}") boolean enabled,
+                      @Value("${insurance.changes.poll-interval:200ms}") Duration pollInterval,
+                      @Value("${insurance.changes.batch-size:500}") int batchSize,
+                      @Value("${insurance.changes.replay-buffer:10000}") int replayBuffer,
+                      @Value("${insurance.changes.subscriber-buffer:2000}") int subscriberBuffer,
+                      @Value("${insurance.changes.max-subscribers:500}") int maxSubscribers,
+                      ObjectProvider<MeterRegistry> meterRegistry) {
+        this.changeRepository = changeRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.tx = tx;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.pollInterval = pollInterval;
+        this.batchSize = Math.max(1, batchSize);
+        this.ring = new Change[Math.max(1, replayBuffer)];
+        this.subscriberBuffer = Math.max(1, subscriberBuffer);
+        this.maxSubscribers = maxSubscribers;
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Gauge.builder("changes.subscribers", open, Set::size)
+                    .description("Open change feed subscriptions").register(registry);
+            Gauge.builder("changes.last.seq", this, ChangeFeed::lastSeq)
+                    .description("Sequence of the last published change").register(registry);
+            published = Counter.builder("changes.published").description("Changes read by the tail loop").register(registry);
+            dropped = Counter.builder("changes.subscribers.dropped")
+                    .description("Subscribers disconnected because their buffer overflowed").register(registry);
+        } else {
+            published = null;
+            dropped = null;
+        }
+    }
+
+    public boolean isActive() {
+        return enabled && started;
+    }
+
+    public synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || started) return;
+        JobWatermark wm = tx.execute(status -> watermarkRepository.findById(JOB_NAME).orElse(null));
+        if (wm == null) wm = initWatermark();
+        synchronized (this) {
+            lastSeq = wm.getLastItemId() != null ? wm.getLastItemId() : 0L;
+        }
+        started = true;
+        tail = Thread.ofPlatform().name("change-feed-tail").daemon().start(this::run);
+        log.info("Change feed started at sequence {}", lastSeq());
+    }
+
+    /**
+     * Opens a subscription positioned after {@code after}, or at the current end of the feed when
+     * {@code null}.
+     */
+    public Subscription subscribe(Long after) {
+        if (!isActive()) throw new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE, "Change feed is not running", 5);
+        if (after != null && after < 0) throw new IllegalArgumentException("Sequence must not be negative: " + after);
+        Subscription sub = new Subscription(after != null ? after : lastSeq());
+        open.add(sub);
+        if (open.size() > maxSubscribers) {
+            open.remove(sub);
+            throw new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE, "Too many change feed subscribers", 5);
+        }
+        return sub;
+    }
+
+    /** Numbers and publishes one batch; returns how many changes were published. */
+    int poll() {
+        sequence();
+        long after = lastSeq();
+        List<Change> batch = tx.execute(status -> changeRepository.findSequencedAfter(after, Limit.of(batchSize))
+                .stream().map(this::toChange).toList());
+        if (batch == null || batch.isEmpty()) return 0;
+        publish(batch);
+        return batch.size();
+    }
+
+    private void sequence() {
+        Boolean pending = tx.execute(status -> !changeRepository.findUnsequencedIds(Limit.of(1)).isEmpty());
+        if (!Boolean.TRUE.equals(pending)) return;
+        tx.executeWithoutResult(status -> {
+            JobWatermark wm = watermarkRepository.lockByName(JOB_NAME).orElseThrow();
+            List<ChangeEvent> events = changeRepository.findUnsequenced(Limit.of(batchSize));
+            long seq = wm.getLastItemId() != null ? wm.getLastItemId() : 0L;
+            Session session = em.unwrap(Session.class);
+            session.setJdbcBatchSize(batchSize);
+            for (ChangeEvent e : events) e.setSeq(++seq);
+            wm.setLastItemId(seq);
+            wm.setLastProcessedDay(LocalDate.now());
+        });
+    }
+
+    private synchronized void publish(List<Change> batch) {
+        for (Change c : batch) {
+            if (c.seq() != lastSeq + 1) {
+                log.warn("Change feed skipped from sequence {} to {}", lastSeq, c.seq());
+                ringSize = 0;
+            }
+            ring[(int) (c.seq() % ring.length)] = c;
+            ringSize = Math.min(ringSize + 1, ring.length);
+            lastSeq = c.seq();
+        }
+        for (Iterator<Subscription> it = live.iterator(); it.hasNext(); ) {
+            Subscription s = it.next();
+            for (Change c : batch) {
+                if (!s.queue.offer(c)) {
+                    s.dropped = true;
+                    it.remove();
+                    if (dropped != null) dropped.increment();
+                    break;
+                }
+            }
+        }
+        if (published != null) published.increment(batch.size());
+    }
+
+    /** The next page after {@code sub}'s position, or an empty page once it has joined the live fan-out. */
+    private List<Change> catchUp(Subscription sub, int max) {
+        synchronized (this) {
+            if (sub.position >= lastSeq) {
+                if (!sub.closed) live.add(sub);
+                sub.live = true;
+                return List.of();
+            }
+            if (sub.position >= lastSeq - ringSize) {
+                int n = (int) Math.min(max, lastSeq - sub.position);
+                List<Change> page = new ArrayList<>(n);
+                for (long seq = sub.position + 1; page.size() < n; seq++) page.add(ring[(int) (seq % ring.length)]);
+                return page;
+            }
+        }
+        long after = sub.position;
+        List<Change> page = tx.execute(status -> changeRepository.findSequencedAfter(after, Limit.of(max))
+                .stream().map(this::toChange).toList());
+        return page != null ? page : List.of();
+    }
+
+    private synchronized void unsubscribe(Subscription sub) {
+        live.remove(sub);
+        open.remove(sub);
+    }
+
+    private Change toChange(ChangeEvent e) {
+        try {
+            return new Change(e.getSeq(), e.getType(), objectMapper.writeValueAsString(
+                    new ChangeDto(e.getSeq(), e.getType(), e.getCarId(), e.getEntityId(), e.getCreatedAt(), e.getPayload())));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize change " + e.getSeq(), ex);
+        }
+    }
+
+    private JobWatermark initWatermark() {
+        try {
+            return tx.execute(status -> watermarkRepository.save(new JobWatermark(JOB_NAME, LocalDate.now())));
+        } catch (DataIntegrityViolationException e) {
+            return watermarkRepository.findById(JOB_NAME).orElseThrow();
+        }
+    }
+
+    private void run() {
+        while (started) {
+            try {
+                if (poll() < batchSize) Thread.sleep(pollInterval);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Change feed poll failed, retrying", e);
+                try {
+                    Thread.sleep(pollInterval.multipliedBy(10));
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        started = false;
+        Thread t = tail;
+        if (t != null) t.interrupt();
+        List.copyOf(open).forEach(Subscription::close);
+    }
+
+    /**
+     * One consumer's position in the feed. Only the consumer's own thread calls {@link #next}; the
+     * tail thread only ever offers to its queue.
+     */
+    public final class Subscription implements AutoCloseable {
+
+        private final BlockingQueue<Change> queue = new ArrayBlockingQueue<>(subscriberBuffer);
+        private volatile long position;
+        private volatile boolean live;
+        private volatile boolean dropped;
+        private volatile boolean closed;
+
+        private Subscription(long position) {
+            this.position = position;
+        }
+
+        /** Sequence of the last change handed out; resume after it. */
+        public long position() {
+            return position;
+        }
+
+        /** Whether the feed disconnected this subscriber because it fell too far behind. */
+        public boolean isDropped() {
+            return dropped && queue.isEmpty();
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * Up to {@code max} changes after {@link #position()}. Once caught up, waits at most
+         * {@code wait} for new ones and returns an empty list if none arrived.
+         */
+        public List<Change> next(int max, Duration wait) throws InterruptedException {
+            if (closed) return List.of();
+            if (!live) {
+                List<Change> page = catchUp(this, max);
+                if (!page.isEmpty()) position = page.get(page.size() - 1).seq();
+                if (!page.isEmpty() || !live) return page;
+            }
+            if (dropped && queue.isEmpty()) return List.of();
+            Change first = queue.poll(wait.toNanos(), TimeUnit.NANOSECONDS);
+            if (first == null) return List.of();
+            List<Change> batch = new ArrayList<>(Math.min(max, queue.size() + 1));
+            batch.add(first);
+            queue.drainTo(batch, max - 1);
+            batch.removeIf(c -> c.seq() <= position);
+            if (!batch.isEmpty()) position = batch.get(batch.size() - 1).seq();
+            return batch;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            unsubscribe(this);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.carins.service;
+
+import com.example.carins.model.ChangeEvent;
+import com.example.carins.model.Claim;
+import com.example.carins.model.InsurancePolicy;
+import com.example.carins.repo.ExpiredPolicy;
+import com.example.carins.web.dto.ClaimDto;
+import com.example.carins.web.dto.PolicyDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Appends change events in the caller's transaction, so an event commits or rolls back together
+ * with the claim or policy it describes. {@link ChangeFeed} numbers and publishes them.
+ */
+@Component
+public class ChangeLog implements PolicyExpiryHandler {
+
+    public static final String CLAIM_REGISTERED = "CLAIM_REGISTERED";
+    public static final String POLICY_CREATED = "POLICY_CREATED";
+    public static final String POLICY_EXPIRED = "POLICY_EXPIRED";
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    public ChangeLog(ObjectMapper objectMapper, @Value("${insurance.changes.enabled:true}") boolean enabled) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void claimRegistered(Claim claim, Long carId) {
+        append(CLAIM_REGISTERED, carId, claim.getId(),
+                new ClaimDto(claim.getId(), claim.getClaimDate(), claim.getDescription(), claim.getAmount(), carId));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void policyCreated(InsurancePolicy policy, Long carId) {
+        append(POLICY_CREATED, carId, policy.getId(),
+                new PolicyDto(policy.getId(), carId, policy.getProvider(), policy.getStartDate(), policy.getEndDate()));
+    }
+
+    @Override
+    public void onExpired(ExpiredPolicy p) {
+        append(POLICY_EXPIRED, p.carId(), p.id(), p);
+    }
+
+    private void append(String type, Long carId, Long entityId, Object payload) {
+        if (!enabled) return;
+        try {
+            em.persist(new ChangeEvent(type, carId, entityId, objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + type + " event for " + entityId, e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.carins.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/** Position in a car's claim history, rendered as {@code <claimDate>_<id>}. */
+public record ClaimCursor(LocalDate claimDate, Long id) {
+
+    public static ClaimCursor parse(String value) {
+        if (value == null || value.isBlank()) return null;
+        int sep = value.indexOf('_');
+        try {
+            if (sep < 0) throw new IllegalArgumentException();
+            return new ClaimCursor(LocalDate.parse(value.substring(0, sep)), Long.parseLong(value.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return claimDate + "_" + id;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.carins.service;
+
+import com.example.carins.model.Car;
+import com.example.carins.model.Claim;
+import com.example.carins.repo.CarRepository;
+import com.example.carins.repo.ClaimRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Bulk claim loading for repair-shop feeds. Each call validates a chunk of rows, checks car
+ * existence with one set query and inserts the accepted rows in JDBC batches of
+ * {@code insurance.claims.ingest.batch-size} within a single transaction, together with the
+ * per-car claim stats and one change log event per claim.
+ */
+@Service
+@Timed(value = "carins.service", histogram = true)
+public class ClaimIngestionService {
+
+    public record Reject(long index, Long carId, String error) {}
+
+    public record ChunkResult(int accepted, List<Reject> rejects) {}
+
+    private final CarRepository carRepository;
+    private final ClaimRepository claimRepository;
+    private final Validator validator;
+    private final ClaimStatsService claimStatsService;
+    private final ChangeLog changeLog;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Value("${insurance.claims.ingest.batch-size:500}")
+    private int batchSize;
+
+    public ClaimIngestionService(CarRepository carRepository, ClaimRepository claimRepository, Validator validator,
+                                 ClaimStatsService claimStatsService, ChangeLog changeLog) {
+        this.carRepository = carRepository;
+        this.claimRepository = claimRepository;
+        this.validator = validator;
+        this.claimStatsService = claimStatsService;
+        this.changeLog = changeLog;
+    }
+
+    /**
+     * Ingests one chunk. {@code firstIndex} is the position of the first row in the whole
+     * upload and is only used to number the rejects. A {@code null} row counts as malformed.
+     */
+    @Transactional
+    public ChunkResult ingest(List<ClaimRow> rows, long firstIndex) {
+        return ingest(rows, null, firstIndex);
+    }
+
+    /**
+     * Same as {@link #ingest(List, long)}, with an optional tracking id per row. Rows whose
+     * tracking id is already stored are skipped without a reject, so a replayed chunk is a no-op.
+     */
+    @Transactional
+    public ChunkResult ingest(List<ClaimRow> rows, List<String> trackingIds, long firstIndex) {
+        List<Reject> rejects = new ArrayList<>();
+        boolean[] accepted = new boolean[rows.size()];
+        Set<Long> carIds = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            ClaimRow row = rows.get(i);
+            if (row == null) {
+                rejects.add(new Reject(firstIndex + i, null, "Malformed item"));
+                continue;
+            }
+            Set<ConstraintViolation<ClaimRow>> violations = validator.validate(row);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .min(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                        .map(ConstraintViolation::getMessage).orElseThrow();
+                rejects.add(new Reject(firstIndex + i, row.carId(), message));
+                continue;
+            }
+            accepted[i] = true;
+            carIds.add(row.carId());
+        }
+
+        Set<Long> existing = carIds.isEmpty() ? Set.of() : new HashSet<>(carRepository.findExistingIds(carIds));
+        Set<String> stored = new HashSet<>();
+        if (trackingIds != null) {
+            List<String> ids = trackingIds.stream().filter(Objects::nonNull).toList();
+            if (!ids.isEmpty()) stored.addAll(claimRepository.findExistingTrackingIds(ids));
+        }
+
+        Session session = em.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+        int inserted = 0;
+        Map<Long, ClaimStatsService.Delta> stats = new HashMap<>();
+        try {
+            for (int i = 0; i < rows.size(); i++) {
+                if (!accepted[i]) continue;
+                ClaimRow row = rows.get(i);
+                String trackingId = trackingIds != null ? trackingIds.get(i) : null;
+                if (trackingId != null && !stored.add(trackingId)) continue;
+                if (!existing.contains(row.carId())) {
+                    rejects.add(new Reject(firstIndex + i, row.carId(), "Car not found"));
+                    continue;
+                }
+                Claim claim = new Claim(em.getReference(Car.class, row.carId()), row.claimDate(), row.description(), row.amount());
+                claim.setTrackingId(trackingId);
+                em.persist(claim);
+                changeLog.claimRegistered(claim, row.carId());
+                stats.computeIfAbsent(row.carId(), id -> new ClaimStatsService.Delta()).add(row.amount(), row.claimDate());
+                if (++inserted % batchSize == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            em.flush();
+            em.clear();
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+        claimStatsService.addAll(stats);
+        rejects.sort(Comparator.comparingLong(Reject::index));
+        return new ChunkResult(inserted, rejects);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.carins.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Append-only local journal of accepted claims, one JSON line per claim, split into numbered
+ * segment files. {@link #append} returns once the line is on disk; concurrent appenders share
+ * one {@code fsync}. A sealed segment is deleted as soon as every claim in it is committed, and
+ * whatever is left when the process stops is handed back by {@link #readUncommitted()} on the
+ * next start.
+ */
+public class ClaimJournal implements Closeable {
+
+    public record Entry(String trackingId, Long carId, LocalDate claimDate, String description, BigDecimal amount) {}
+
+    private static final String PREFIX = "claims-";
+    private static final String SUFFIX = ".log";
+
+    private final Path dir;
+    private final ObjectMapper mapper;
+    private final long segmentBytes;
+    private final boolean fsync;
+    private final List<Path> leftovers;
+    private final Map<Long, AtomicLong> pending = new ConcurrentHashMap<>();
+    private final Object syncLock = new Object();
+    private final AtomicLong synced = new AtomicLong();
+
+    private FileChannel channel;
+    private long segment;
+    private long size;
+    private long appended;
+
+    public ClaimJournal(Path dir, ObjectMapper mapper, long segmentBytes, boolean fsync) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.mapper = mapper;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        try (Stream<Path> files = Files.list(dir)) {
+            this.leftovers = files.filter(p -> p.getFileName().toString().startsWith(PREFIX)).sorted().toList();
+        }
+        this.segment = leftovers.isEmpty() ? 0 : segmentNumber(leftovers.get(leftovers.size() - 1));
+        openNextSegment();
+    }
+
+    /** Writes the entry and returns its segment number once it is durable. */
+    public long append(Entry entry) throws IOException {
+        byte[] json = mapper.writeValueAsBytes(entry);
+        ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+        long seq, seg;
+        synchronized (this) {
+            if (size >= segmentBytes) {
+                channel.force(false);
+                synced.accumulateAndGet(appended, Math::max);
+                channel.close();
+                deleteIfDone(segment);
+                openNextSegment();
+            }
+            while (line.hasRemaining()) channel.write(line);
+            size += json.length + 1;
+            seq = ++appended;
+            seg = segment;
+            pending.get(seg).incrementAndGet();
+        }
+        if (fsync) sync(seq);
+        return seg;
+    }
+
+    private void sync(long seq) throws IOException {
+        synchronized (syncLock) {
+            if (synced.get() >= seq) return;
+            long target;
+            FileChannel ch;
+            synchronized (this) {
+                target = appended;
+                ch = channel;
+            }
+            try {
+                ch.force(false);
+            } catch (ClosedChannelException e) {
+                // the segment was rotated, and rotation forces it before closing
+            }
+            synced.accumulateAndGet(target, Math::max);
+        }
+    }
+
+    /** Marks {@code count} entries of {@code segment} as stored in the database. */
+    public void committed(long segment, int count) throws IOException {
+        AtomicLong left = pending.get(segment);
+        if (left != null && left.addAndGet(-count) <= 0) {
+            synchronized (this) {
+                if (segment != this.segment) deleteIfDone(segment);
+            }
+        }
+    }
+
+    /**
+     * Entries from segments left over by a previous run. A torn last line from a crash in the
+     * middle of a write is skipped; it was never acknowledged to the client. A line that does not
+     * parse anywhere else means the journal is corrupt, and replaying around it would lose claims.
+     */
+    public List<Entry> readUncommitted() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (Path file : leftovers) {
+            String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            boolean tornTail = !content.isEmpty() && !content.endsWith("\n");
+            List<String> lines = content.lines().toList();
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                if (line.isBlank()) continue;
+                try {
+                    entries.add(mapper.readValue(line, Entry.class));
+                } catch (JsonProcessingException e) {
+                    if (tornTail && i == lines.size() - 1) break;
+                    throw new IOException("Corrupt claim journal " + file + " at line " + (i + 1), e);
+                }
+            }
+        }
+        return entries;
+    }
+
+    /** Deletes the leftover segments once their entries have been replayed. */
+    public void discardUncommitted() throws IOException {
+        for (Path file : leftovers) Files.deleteIfExists(file);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.force(false);
+        channel.close();
+        deleteIfDone(segment);
+    }
+
+    private void openNextSegment() throws IOException {
+        segment++;
+        channel = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        size = 0;
+        pending.put(segment, new AtomicLong());
+    }
+
+    private void deleteIfDone(long seg) throws IOException {
+        AtomicLong left = pending.get(seg);
+        if (left != null && left.get() <= 0) {
+            pending.remove(seg);
+            Files.deleteIfExists(segmentPath(seg));
+        }
+    }
+
+    private Path segmentPath(long seg) {
+        return dir.resolve(PREFIX + String.format("%016d", seg) + SUFFIX);
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
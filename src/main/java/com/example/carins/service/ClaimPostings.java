@@ -0,0 +1,144 @@
+package com.example.carins.service;
+
+import java.util.Arrays;
+
+/**
+ * Ascending document numbers of one search term, delta-encoded as varints. Every
+ * {@value #SKIP}th entry is also kept in a skip table with its byte offset, so a cursor can jump
+ * close to a target instead of decoding every entry in between.
+ */
+final class ClaimPostings {
+
+    static final int SKIP = 128;
+    static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+    final byte[] data;
+    final int count;
+    final int[] skipDocs;
+    final int[] skipOffsets;
+
+    private ClaimPostings(byte[] data, int count, int[] skipDocs, int[] skipOffsets) {
+        this.data = data;
+        this.count = count;
+        this.skipDocs = skipDocs;
+        this.skipOffsets = skipOffsets;
+    }
+
+    long heapBytes() {
+        return 32L + data.length + 4L * (skipDocs.length + skipOffsets.length);
+    }
+
+    Cursor cursor() {
+        return new Cursor(this);
+    }
+
+    /** Appends strictly increasing document numbers. */
+    static final class Builder {
+        private byte[] data = new byte[8];
+        private int size;
+        private int count;
+        private int last = -1;
+        private int[] skipDocs = new int[0];
+        private int[] skipOffsets = new int[0];
+
+        void add(int doc) {
+            if (doc <= last) throw new IllegalArgumentException("Postings must be ascending: " + doc + " after " + last);
+            if (data.length - size < 5) data = Arrays.copyOf(data, Math.max(16, data.length * 2));
+            int delta = count == 0 ? doc : doc - last;
+            while ((delta & ~0x7F) != 0) {
+                data[size++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            data[size++] = (byte) delta;
+            if (count % SKIP == 0) {
+                int k = count / SKIP;
+                if (k == skipDocs.length) {
+                    skipDocs = Arrays.copyOf(skipDocs, Math.max(1, k * 2));
+                    skipOffsets = Arrays.copyOf(skipOffsets, Math.max(1, k * 2));
+                }
+                skipDocs[k] = doc;
+                skipOffsets[k] = size;
+            }
+            last = doc;
+            count++;
+        }
+
+        boolean isEmpty() {
+            return count == 0;
+        }
+
+        ClaimPostings build() {
+            int skips = (count + SKIP - 1) / SKIP;
+            return new ClaimPostings(Arrays.copyOf(data, size), count,
+                    Arrays.copyOf(skipDocs, skips), Arrays.copyOf(skipOffsets, skips));
+        }
+    }
+
+    /** Forward-only position in a postings list. */
+    static final class Cursor implements DocCursor {
+        private final ClaimPostings postings;
+        private int index = -1;
+        private int offset;
+        private int doc = -1;
+
+        Cursor(ClaimPostings postings) {
+            this.postings = postings;
+        }
+
+        @Override
+        public long cost() {
+            return postings.count;
+        }
+
+        @Override
+        public int doc() {
+            return doc;
+        }
+
+        @Override
+        public int next() {
+            if (++index >= postings.count) return doc = NO_MORE_DOCS;
+            byte[] data = postings.data;
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return doc = index == 0 ? value : doc + value;
+        }
+
+        @Override
+        public int advance(int target) {
+            if (doc >= target) return doc;
+            int[] skipDocs = postings.skipDocs;
+            int nextSkip = index < 0 ? 0 : index / SKIP + 1;
+            if (nextSkip < skipDocs.length && skipDocs[nextSkip] <= target) {
+                int k = Arrays.binarySearch(skipDocs, nextSkip, skipDocs.length, target);
+                if (k < 0) k = -k - 2;
+                index = k * SKIP;
+                doc = postings.skipDocs[k];
+                offset = postings.skipOffsets[k];
+                if (doc >= target) return doc;
+            }
+            while (next() < target) {
+                // decode forward until the target is reached
+            }
+            return doc;
+        }
+    }
+
+    /** Iterates ascending document numbers; {@link #NO_MORE_DOCS} once exhausted. */
+    interface DocCursor {
+        long cost();
+
+        int doc();
+
+        int next();
+
+        /** Moves to the first document at or after {@code target} and returns it. */
+        int advance(int target);
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.carins.service;
+
+import com.example.carins.config.ReadFromPrimary;
+import com.example.carins.repo.ClaimRepository;
+import com.example.carins.repo.ClaimText;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory claim search over description tokens, amount and claim date. Built from the database
+ * once the application is ready into an immutable {@link ClaimSearchSegment}; claims committed
+ * afterwards go to a small {@link ClaimSearchTail} via {@link ClaimSearchListener}, which a
+ * background thread merges into a new segment once it grows. Changes committed while a load runs
+ * are buffered and replayed over the new segment, since the load may or may not have read them.
+ * Claims written outside JPA (the synthetic generator, snapshot imports) are only picked up by the
+ * next load.
+ */
+@Component
+public class ClaimSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ClaimSearchIndex.class);
+
+    /** A change committed during a load; {@code tokens == null} for a removal. */
+    private record Pending(long id, int day, long cents, String[] tokens) {}
+
+    static final int MIN_TOKEN_LENGTH = 2;
+    static final int MAX_TOKEN_LENGTH = 40;
+
+    private final ClaimRepository claimRepository;
+    private final boolean enabled;
+    private final int mergeMinDocs;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> deleted = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean merging = new AtomicBoolean();
+    private final ThreadPoolTaskExecutor merger = TaskExecutors.fixed("claim-search-merge-", 1, 0);
+    private volatile ClaimSearchSegment segment = ClaimSearchSegment.EMPTY;
+    private ClaimSearchTail tail = new ClaimSearchTail();
+    private List<Pending> pending;
+    private volatile boolean loaded;
+
+    public ClaimSearchIndex(ClaimRepository claimRepository,
+                            @Value("${insurance.claim-search.enabled:true}") boolean enabled,
+                            @Value("${insurance.claim-search.merge-min-docs:16384}") int mergeMinDocs,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.claimRepository = claimRepository;
+        this.enabled = enabled;
+        this.mergeMinDocs = Math.max(1, mergeMinDocs);
+        meterRegistry.ifAvailable(r -> {
+            Gauge.builder("claim.search.index.docs", this, ClaimSearchIndex::size)
+                    .description("Claims in the search index").register(r);
+            Gauge.builder("claim.search.index.pending", this, ClaimSearchIndex::pendingDocs)
+                    .description("Claims added since the last segment merge").register(r);
+            Gauge.builder("claim.search.index.heap", this, ClaimSearchIndex::heapBytes).baseUnit("bytes")
+                    .description("Heap held by the claim search index").register(r);
+        });
+    }
+
+    public boolean isActive() {
+        return enabled && loaded;
+    }
+
+    /** Lower-cased runs of letters and digits, without duplicates, in order of appearance. */
+    public static List<String> tokens(String text) {
+        if (text == null || text.isEmpty()) return List.of();
+        Set<String> tokens = new LinkedHashSet<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                int length = i - start;
+                if (length >= MIN_TOKEN_LENGTH && length <= MAX_TOKEN_LENGTH) tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return List.copyOf(tokens);
+    }
+
+    static int day(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+
+    static long cents(BigDecimal amount, RoundingMode rounding) {
+        return amount.movePointRight(2).setScale(0, rounding).longValueExact();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    public void load() {
+        if (!enabled) return;
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ClaimSearchSegment.Builder builder = new ClaimSearchSegment.Builder();
+        ClaimSearchSegment built;
+        try (Stream<ClaimText> claims = claimRepository.streamAllTextNewestFirst()) {
+            claims.forEach(c -> builder.add(c.id(), day(c.claimDate()), cents(c.amount(), RoundingMode.UNNECESSARY),
+                    tokens(c.description())));
+            built = builder.build();
+        } catch (RuntimeException e) {
+            stopBuffering();
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            segment = built;
+            tail = new ClaimSearchTail();
+            deleted.clear();
+            for (Pending p : pending) {
+                if (!tail.remove(p.id()) && built.contains(p.id())) deleted.add(p.id());
+                if (p.tokens() != null) tail.add(p.id(), p.day(), p.cents(), p.tokens());
+            }
+            pending = null;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Claim search index loaded {} claims, {} terms into {} KiB in {} ms", built.size(),
+                built.termCount(), built.heapBytes() / 1024, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void stopBuffering() {
+        lock.writeLock().lock();
+        try {
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(long id, LocalDate claimDate, BigDecimal amount, String description) {
+        if (!enabled) return;
+        String[] tokens = tokens(description).toArray(String[]::new);
+        int day = day(claimDate);
+        long cents = cents(amount, RoundingMode.HALF_UP);
+        int tailSize;
+        lock.writeLock().lock();
+        try {
+            if (pending != null) pending.add(new Pending(id, day, cents, tokens));
+            if (!loaded) return;
+            tail.add(id, day, cents, tokens);
+            tailSize = tail.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (tailSize >= Math.max(mergeMinDocs, segment.size() / 16) && merging.compareAndSet(false, true)) {
+            merger.execute(this::merge);
+        }
+    }
+
+    public void remove(long id) {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            if (pending != null) pending.add(new Pending(id, 0, 0, null));
+            if (!loaded) return;
+            if (!tail.remove(id)) deleted.add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Ids of up to {@code want} matching claims, newest first. */
+    List<Long> search(ClaimSearchSegment.Filter filter, int want) {
+        List<Long> fromSegment = new ArrayList<>(Math.min(want, 1024));
+        List<Long> fromTail = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            segment.search(filter, deleted, want, fromSegment);
+            tail.search(filter, want, fromTail);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (fromTail.isEmpty()) return fromSegment;
+        List<Long> ids = new ArrayList<>(Math.min(want, fromSegment.size() + fromTail.size()));
+        int s = 0, t = 0;
+        while (ids.size() < want && (s < fromSegment.size() || t < fromTail.size())) {
+            if (t == fromTail.size() || (s < fromSegment.size() && fromSegment.get(s) > fromTail.get(t))) {
+                ids.add(fromSegment.get(s++));
+            } else {
+                ids.add(fromTail.get(t++));
+            }
+        }
+        return ids;
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return segment.size() - deleted.size() + tail.liveSize();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Claims added since the last merge, including ones updated or removed since. */
+    public int pendingDocs() {
+        lock.readLock().lock();
+        try {
+            return tail.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long heapBytes() {
+        lock.readLock().lock();
+        try {
+            return segment.heapBytes() + tail.heapBytes() + 48L * deleted.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Folds the tail into a new segment without blocking searches or writers while it is built. */
+    void merge() {
+        try {
+            ClaimSearchSegment base;
+            ClaimSearchTail.Snapshot snapshot;
+            Set<Long> deletedAtStart;
+            lock.readLock().lock();
+            try {
+                base = segment;
+                snapshot = tail.snapshot();
+                deletedAtStart = Set.copyOf(deleted);
+            } finally {
+                lock.readLock().unlock();
+            }
+            ClaimSearchSegment merged = base.merge(snapshot, deletedAtStart);
+            lock.writeLock().lock();
+            try {
+                if (segment != base) return; // reloaded meanwhile
+                List<Long> died = new ArrayList<>();
+                tail = tail.remainderAfter(snapshot, died);
+                deleted.removeAll(deletedAtStart);
+                deleted.addAll(died);
+                segment = merged;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.debug("Merged {} claims into the search index, now {} claims", snapshot.size(), merged.size());
+        } catch (RuntimeException e) {
+            log.warn("Claim search merge failed; the tail keeps growing until the next attempt", e);
+        } finally {
+            merging.set(false);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        merger.destroy();
+    }
+}
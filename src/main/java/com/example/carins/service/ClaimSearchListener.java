@@ -0,0 +1,59 @@
+package com.example.carins.service;
+
+import com.example.carins.model.Claim;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+/**
+ * JPA listener that keeps {@link ClaimSearchIndex} in step with committed claim writes. An update
+ * is a removal followed by an insert; changes are applied in order once the transaction commits.
+ */
+public class ClaimSearchListener {
+
+    private record Change(Long id, LocalDate claimDate, BigDecimal amount, String description, boolean removed) {}
+
+    private final ObjectProvider<ClaimSearchIndex> index;
+
+    public ClaimSearchListener(ObjectProvider<ClaimSearchIndex> index) {
+        this.index = index;
+    }
+
+    @PostPersist
+    public void inserted(Claim claim) {
+        afterCommit(added(claim));
+    }
+
+    @PostUpdate
+    public void updated(Claim claim) {
+        afterCommit(new Change(claim.getId(), null, null, null, true));
+        afterCommit(added(claim));
+    }
+
+    @PostRemove
+    public void removed(Claim claim) {
+        afterCommit(new Change(claim.getId(), null, null, null, true));
+    }
+
+    private static Change added(Claim claim) {
+        return new Change(claim.getId(), claim.getClaimDate(), claim.getAmount(), claim.getDescription(), false);
+    }
+
+    private void apply(Change c) {
+        ClaimSearchIndex search = index.getObject();
+        if (c.removed()) {
+            search.remove(c.id());
+        } else {
+            search.put(c.id(), c.claimDate(), c.amount(), c.description());
+        }
+    }
+
+    private void afterCommit(Change change) {
+        if (change.id() != null) AfterCommit.run(this, change, ArrayList::new, this::apply);
+    }
+}
@@ -0,0 +1,369 @@
+package com.example.carins.service;
+
+import com.example.carins.service.ClaimPostings.DocCursor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.example.carins.service.ClaimPostings.NO_MORE_DOCS;
+
+/**
+ * Immutable part of the claim search index. Document {@code d} is the claim {@code ids[d]}, with
+ * ids in descending order so that walking documents forward returns the newest claims first. Claim
+ * date and amount are columns indexed by document, and {@code byDay} / {@code byCents} list the
+ * documents sorted by those columns, so a range filter is two binary searches. Each description
+ * token maps to a {@link ClaimPostings} list.
+ */
+final class ClaimSearchSegment {
+
+    static final ClaimSearchSegment EMPTY = new Builder().build();
+
+    /** Search criteria on primitive bounds; both ends of each range are inclusive. */
+    record Filter(List<String> terms, int fromDay, int toDay, long minCents, long maxCents, long beforeId) {
+        boolean matches(long id, int day, long cents) {
+            return id < beforeId && day >= fromDay && day <= toDay && cents >= minCents && cents <= maxCents;
+        }
+
+        boolean hasDayRange() {
+            return fromDay != Integer.MIN_VALUE || toDay != Integer.MAX_VALUE;
+        }
+
+        boolean hasCentsRange() {
+            return minCents != Long.MIN_VALUE || maxCents != Long.MAX_VALUE;
+        }
+    }
+
+    final long[] ids;
+    final int[] days;
+    final long[] cents;
+    private final int[] byDay;
+    private final int[] byCents;
+    private final Map<String, ClaimPostings> terms;
+
+    private ClaimSearchSegment(long[] ids, int[] days, long[] cents, Map<String, ClaimPostings> terms) {
+        this.ids = ids;
+        this.days = days;
+        this.cents = cents;
+        this.terms = terms;
+        this.byDay = docsSortedBy(days);
+        this.byCents = docsSortedBy(cents);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    boolean contains(long id) {
+        int lo = 0, hi = ids.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ids[mid] == id) return true;
+            if (ids[mid] > id) lo = mid + 1; else hi = mid - 1;
+        }
+        return false;
+    }
+
+    int termCount() {
+        return terms.size();
+    }
+
+    long heapBytes() {
+        long bytes = 20L * ids.length + 4L * (byDay.length + byCents.length);
+        for (var e : terms.entrySet()) bytes += 80 + 2L * e.getKey().length() + e.getValue().heapBytes();
+        return bytes;
+    }
+
+    /**
+     * Adds the ids of up to {@code want} matching claims, newest first, to {@code out}. All terms
+     * must occur in the description. The rarest of the terms and the narrower of the two range
+     * filters drives the walk; the others are checked by advancing to the candidate.
+     */
+    void search(Filter filter, Set<Long> deleted, int want, List<Long> out) {
+        int start = firstDocBefore(filter.beforeId());
+        if (start >= ids.length || want <= 0) return;
+        List<DocCursor> cursors = new ArrayList<>();
+        for (String term : filter.terms()) {
+            ClaimPostings postings = terms.get(term);
+            if (postings == null) return;
+            cursors.add(postings.cursor());
+        }
+        long leadCost = cursors.stream().mapToLong(DocCursor::cost).min().orElse(ids.length);
+        DocCursor range = rangeCursor(filter, leadCost, want);
+        if (range != null) cursors.add(range);
+        if (cursors.isEmpty()) cursors.add(new AllDocs(ids.length));
+        cursors.sort((a, b) -> Long.compare(a.cost(), b.cost()));
+
+        DocCursor lead = cursors.get(0);
+        int doc = lead.advance(start);
+        outer:
+        while (doc != NO_MORE_DOCS) {
+            for (int i = 1; i < cursors.size(); i++) {
+                int d = cursors.get(i).advance(doc);
+                if (d > doc) {
+                    doc = lead.advance(d);
+                    continue outer;
+                }
+            }
+            long id = ids[doc];
+            if (filter.matches(id, days[doc], cents[doc]) && (deleted.isEmpty() || !deleted.contains(id))) {
+                out.add(id);
+                if (out.size() >= want) return;
+            }
+            doc = lead.next();
+        }
+    }
+
+    /** Returns the first document whose claim id is below {@code beforeId}. */
+    private int firstDocBefore(long beforeId) {
+        int lo = 0, hi = ids.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ids[mid] >= beforeId) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * The documents of the narrower range filter in document order, or {@code null} when there is
+     * no range filter or sorting its documents would cost more than the walk it saves. Without it,
+     * the lead cursor is walked and ranges are checked against the columns, which for a range
+     * covering {@code n} documents finds {@code want} hits after about {@code want * size / n}.
+     */
+    private DocCursor rangeCursor(Filter filter, long leadCost, int want) {
+        int[] best = null;
+        int bestFrom = 0, bestTo = 0;
+        if (filter.hasDayRange()) {
+            int from = lowerBound(byDay, filter.fromDay(), true);
+            int to = upperBound(byDay, filter.toDay(), true);
+            best = byDay;
+            bestFrom = from;
+            bestTo = Math.max(from, to);
+        }
+        if (filter.hasCentsRange()) {
+            int from = lowerBound(byCents, filter.minCents(), false);
+            int to = Math.max(from, upperBound(byCents, filter.maxCents(), false));
+            if (best == null || to - from < bestTo - bestFrom) {
+                best = byCents;
+                bestFrom = from;
+                bestTo = to;
+            }
+        }
+        if (best == null) return null;
+        long matching = Math.max(1, bestTo - bestFrom);
+        long walk = Math.min(leadCost, (long) want * ids.length / matching);
+        if (matching > ids.length / 8 || matching > walk) return null;
+        int[] docs = Arrays.copyOfRange(best, bestFrom, bestTo);
+        Arrays.sort(docs);
+        return new ArrayDocs(docs);
+    }
+
+    private int lowerBound(int[] order, long key, boolean byDays) {
+        int lo = 0, hi = order.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (value(order[mid], byDays) < key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private int upperBound(int[] order, long key, boolean byDays) {
+        int lo = 0, hi = order.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (value(order[mid], byDays) <= key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private long value(int doc, boolean byDays) {
+        return byDays ? days[doc] : cents[doc];
+    }
+
+    /**
+     * Builds a new segment from this one and a tail snapshot, dropping the claims in
+     * {@code deleted} from this segment. Both inputs are sorted by id, so documents and postings
+     * are merged rather than re-sorted.
+     */
+    ClaimSearchSegment merge(ClaimSearchTail.Snapshot tail, Set<Long> deleted) {
+        int[] tailOrder = tail.liveByIdDescending();
+        Builder builder = new Builder();
+        int[] baseToNew = new int[ids.length];
+        int[] tailToNew = new int[tailOrder.length];
+        int b = 0, t = 0;
+        while (b < ids.length || t < tailOrder.length) {
+            boolean takeBase = t == tailOrder.length
+                    || (b < ids.length && ids[b] > tail.ids()[tailOrder[t]]);
+            if (takeBase) {
+                if (!deleted.isEmpty() && deleted.contains(ids[b])) {
+                    baseToNew[b++] = -1;
+                    continue;
+                }
+                baseToNew[b] = builder.addColumns(ids[b], days[b], cents[b]);
+                b++;
+            } else {
+                int doc = tailOrder[t];
+                tailToNew[t++] = builder.addColumns(tail.ids()[doc], tail.days()[doc], tail.cents()[doc]);
+            }
+        }
+
+        Map<String, ClaimPostings.Builder> merged = new HashMap<>(terms.size() * 2);
+        Map<String, ClaimSearchTail.IntList> fromTail = new HashMap<>();
+        for (int i = 0; i < tailOrder.length; i++) {
+            for (String term : tail.terms()[tailOrder[i]]) {
+                fromTail.computeIfAbsent(term, k -> new ClaimSearchTail.IntList()).add(tailToNew[i]);
+            }
+        }
+        for (var e : terms.entrySet()) {
+            ClaimPostings.Builder out = new ClaimPostings.Builder();
+            ClaimSearchTail.IntList extra = fromTail.remove(e.getKey());
+            int extraCount = extra == null ? 0 : extra.size;
+            int x = 0;
+            ClaimPostings.Cursor cursor = e.getValue().cursor();
+            for (int doc = cursor.next(); doc != NO_MORE_DOCS; doc = cursor.next()) {
+                int mapped = baseToNew[doc];
+                if (mapped < 0) continue;
+                while (x < extraCount && extra.values[x] < mapped) out.add(extra.values[x++]);
+                out.add(mapped);
+            }
+            while (x < extraCount) out.add(extra.values[x++]);
+            if (!out.isEmpty()) merged.put(e.getKey(), out);
+        }
+        for (var e : fromTail.entrySet()) {
+            ClaimPostings.Builder out = new ClaimPostings.Builder();
+            for (int i = 0; i < e.getValue().size; i++) out.add(e.getValue().values[i]);
+            merged.put(e.getKey(), out);
+        }
+        return builder.build(merged);
+    }
+
+    private static int[] docsSortedBy(int[] keys) {
+        long[] packed = new long[keys.length];
+        for (int doc = 0; doc < keys.length; doc++) packed[doc] = ((long) keys[doc] << 32) | doc;
+        Arrays.sort(packed);
+        int[] docs = new int[keys.length];
+        for (int i = 0; i < docs.length; i++) docs[i] = (int) packed[i];
+        return docs;
+    }
+
+    private static int[] docsSortedBy(long[] keys) {
+        long[] distinct = keys.clone();
+        Arrays.sort(distinct);
+        long[] packed = new long[keys.length];
+        for (int doc = 0; doc < keys.length; doc++) {
+            packed[doc] = ((long) Arrays.binarySearch(distinct, keys[doc]) << 32) | doc;
+        }
+        Arrays.sort(packed);
+        int[] docs = new int[keys.length];
+        for (int i = 0; i < docs.length; i++) docs[i] = (int) packed[i];
+        return docs;
+    }
+
+    /** Collects documents in descending id order. */
+    static final class Builder {
+        private long[] ids = new long[64];
+        private int[] days = new int[64];
+        private long[] cents = new long[64];
+        private int size;
+        private final Map<String, ClaimPostings.Builder> terms = new HashMap<>();
+
+        int add(long id, int day, long amountCents, Iterable<String> tokens) {
+            int doc = addColumns(id, day, amountCents);
+            for (String token : tokens) terms.computeIfAbsent(token, k -> new ClaimPostings.Builder()).add(doc);
+            return doc;
+        }
+
+        private int addColumns(long id, int day, long amountCents) {
+            if (size > 0 && id >= ids[size - 1]) {
+                throw new IllegalArgumentException("Claim ids must be descending: " + id + " after " + ids[size - 1]);
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                days = Arrays.copyOf(days, size * 2);
+                cents = Arrays.copyOf(cents, size * 2);
+            }
+            ids[size] = id;
+            days[size] = day;
+            cents[size] = amountCents;
+            return size++;
+        }
+
+        ClaimSearchSegment build() {
+            return build(terms);
+        }
+
+        private ClaimSearchSegment build(Map<String, ClaimPostings.Builder> postings) {
+            Map<String, ClaimPostings> built = new HashMap<>(Math.max(16, postings.size() * 4 / 3 + 1));
+            postings.forEach((term, p) -> built.put(term, p.build()));
+            return new ClaimSearchSegment(Arrays.copyOf(ids, size), Arrays.copyOf(days, size),
+                    Arrays.copyOf(cents, size), built);
+        }
+    }
+
+    private static final class AllDocs implements DocCursor {
+        private final int size;
+        private int doc = -1;
+
+        AllDocs(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public long cost() {
+            return size;
+        }
+
+        @Override
+        public int doc() {
+            return doc;
+        }
+
+        @Override
+        public int next() {
+            return doc = doc + 1 < size ? doc + 1 : NO_MORE_DOCS;
+        }
+
+        @Override
+        public int advance(int target) {
+            if (doc >= target) return doc;
+            return doc = target < size ? target : NO_MORE_DOCS;
+        }
+    }
+
+    private static final class ArrayDocs implements DocCursor {
+        private final int[] docs;
+        private int index = -1;
+        private int doc = -1;
+
+        ArrayDocs(int[] docs) {
+            this.docs = docs;
+        }
+
+        @Override
+        public long cost() {
+            return docs.length;
+        }
+
+        @Override
+        public int doc() {
+            return doc;
+        }
+
+        @Override
+        public int next() {
+            return doc = ++index < docs.length ? docs[index] : NO_MORE_DOCS;
+        }
+
+        @Override
+        public int advance(int target) {
+            if (doc >= target) return doc;
+            if (index + 1 >= docs.length) return doc = NO_MORE_DOCS;
+            int i = Arrays.binarySearch(docs, index + 1, docs.length, target);
+            index = i >= 0 ? i : -i - 1;
+            return doc = index < docs.length ? docs[index] : NO_MORE_DOCS;
+        }
+    }
+}
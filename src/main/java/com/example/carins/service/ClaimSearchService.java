@@ -0,0 +1,136 @@
+package com.example.carins.service;
+
+import com.example.carins.web.dto.ClaimDto;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Claim search by description words, amount range and claim date range, newest claims first.
+ * Matching runs on {@link ClaimSearchIndex} and only the page is read from the database; until the
+ * index is loaded (or when it is disabled) the same search runs as a {@code like} query.
+ */
+@Service
+@Transactional(readOnly = true)
+@Timed(value = "carins.service", histogram = true)
+public class ClaimSearchService {
+
+    static final int MAX_TERMS = 8;
+
+    private final ClaimSearchIndex index;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Value("${insurance.claim-search.max-page-size:100}")
+    private int maxPageSize;
+
+    public ClaimSearchService(ClaimSearchIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Claims whose description contains every word of {@code q} and whose amount and date fall in
+     * the given inclusive bounds, with ids below {@code beforeId}. Returns up to {@code limit + 1}
+     * claims so the caller can tell whether another page follows.
+     */
+    public List<ClaimDto> search(String q, BigDecimal minAmount, BigDecimal maxAmount,
+                                 LocalDate from, LocalDate to, Long beforeId, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + maxPageSize);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must not be after 'to'");
+        }
+        if (minAmount != null && maxAmount != null && minAmount.compareTo(maxAmount) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'minAmount' must not be greater than 'maxAmount'");
+        }
+        List<String> terms = ClaimSearchIndex.tokens(q);
+        if (q != null && !q.isBlank() && terms.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Query must contain a word of at least " + ClaimSearchIndex.MIN_TOKEN_LENGTH + " letters or digits");
+        }
+        if (terms.size() > MAX_TERMS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Query must not contain more than " + MAX_TERMS + " words");
+        }
+        if (!index.isActive()) {
+            return searchDatabase(terms, minAmount, maxAmount, from, to, beforeId, limit + 1);
+        }
+        var filter = new ClaimSearchSegment.Filter(terms,
+                from != null ? ClaimSearchIndex.day(from) : Integer.MIN_VALUE,
+                to != null ? ClaimSearchIndex.day(to) : Integer.MAX_VALUE,
+                minAmount != null ? ClaimSearchIndex.cents(minAmount, RoundingMode.CEILING) : Long.MIN_VALUE,
+                maxAmount != null ? ClaimSearchIndex.cents(maxAmount, RoundingMode.FLOOR) : Long.MAX_VALUE,
+                beforeId != null ? beforeId : Long.MAX_VALUE);
+        return findByIds(index.search(filter, limit + 1));
+    }
+
+    /** Claims with the given ids, in the order of {@code ids}; ids deleted meanwhile are skipped. */
+    private List<ClaimDto> findByIds(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<Long, ClaimDto> byId = new HashMap<>();
+        em.createQuery("select new com.example.carins.web.dto.ClaimDto(" +
+                        "c.id, c.claimDate, c.description, c.amount, c.car.id) " +
+                        "from Claim c where c.id in :ids", ClaimDto.class)
+                .setParameter("ids", ids)
+                .getResultList()
+                .forEach(c -> byId.put(c.id(), c));
+        List<ClaimDto> claims = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ClaimDto claim = byId.get(id);
+            if (claim != null) claims.add(claim);
+        }
+        return claims;
+    }
+
+    /**
+     * The same search as a {@code like} query. {@code like} also matches inside words, so rows are
+     * re-checked against the tokens and further rows are read until {@code max} claims match.
+     */
+    private List<ClaimDto> searchDatabase(List<String> terms, BigDecimal minAmount, BigDecimal maxAmount,
+                                          LocalDate from, LocalDate to, Long beforeId, int max) {
+        StringBuilder jpql = new StringBuilder("select new com.example.carins.web.dto.ClaimDto(" +
+                "c.id, c.claimDate, c.description, c.amount, c.car.id) from Claim c where c.id < :beforeId");
+        for (int i = 0; i < terms.size(); i++) jpql.append(" and lower(c.description) like :t").append(i);
+        if (minAmount != null) jpql.append(" and c.amount >= :minAmount");
+        if (maxAmount != null) jpql.append(" and c.amount <= :maxAmount");
+        if (from != null) jpql.append(" and c.claimDate >= :from");
+        if (to != null) jpql.append(" and c.claimDate <= :to");
+        jpql.append(" order by c.id desc");
+        List<ClaimDto> claims = new ArrayList<>();
+        long before = beforeId != null ? beforeId : Long.MAX_VALUE;
+        while (true) {
+            TypedQuery<ClaimDto> query = em.createQuery(jpql.toString(), ClaimDto.class)
+                    .setParameter("beforeId", before)
+                    .setMaxResults(max);
+            for (int i = 0; i < terms.size(); i++) query.setParameter("t" + i, "%" + terms.get(i) + "%");
+            if (minAmount != null) query.setParameter("minAmount", minAmount);
+            if (maxAmount != null) query.setParameter("maxAmount", maxAmount);
+            if (from != null) query.setParameter("from", from);
+            if (to != null) query.setParameter("to", to);
+            List<ClaimDto> rows = query.getResultList();
+            for (ClaimDto row : rows) {
+                if (ClaimSearchIndex.tokens(row.description()).containsAll(terms)) {
+                    claims.add(row);
+                    if (claims.size() == max) return claims;
+                }
+            }
+            if (rows.size() < max) return claims;
+            before = rows.get(rows.size() - 1).id();
+        }
+    }
+}
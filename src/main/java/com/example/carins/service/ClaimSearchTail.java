@@ -0,0 +1,142 @@
+package com.example.carins.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Claims added since the last segment merge, in commit order. Postings are plain {@code int}
+ * lists and matches are sorted by id at query time, which stays cheap because the tail is merged
+ * into the segment once it grows. Not thread-safe; {@link ClaimSearchIndex} guards it.
+ */
+final class ClaimSearchTail {
+
+    /** Copy of the tail for a merge: columns, terms and the live documents in descending id order. */
+    record Snapshot(long[] ids, int[] days, long[] cents, String[][] terms, int[] liveByIdDescending) {
+        int size() {
+            return ids.length;
+        }
+    }
+
+    static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+    }
+
+    private long[] ids = new long[64];
+    private int[] days = new int[64];
+    private long[] cents = new long[64];
+    private String[][] terms = new String[64][];
+    private int size;
+    private final BitSet dead = new BitSet();
+    private final Map<Long, Integer> docOf = new HashMap<>();
+    private final Map<String, IntList> postings = new HashMap<>();
+
+    int size() {
+        return size;
+    }
+
+    int liveSize() {
+        return docOf.size();
+    }
+
+    long heapBytes() {
+        long bytes = 28L * ids.length + 48L * docOf.size();
+        for (var e : postings.entrySet()) bytes += 80 + 2L * e.getKey().length() + 4L * e.getValue().values.length;
+        return bytes;
+    }
+
+    void add(long id, int day, long amountCents, String[] tokens) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            days = Arrays.copyOf(days, size * 2);
+            cents = Arrays.copyOf(cents, size * 2);
+            terms = Arrays.copyOf(terms, size * 2);
+        }
+        int doc = size++;
+        ids[doc] = id;
+        days[doc] = day;
+        cents[doc] = amountCents;
+        terms[doc] = tokens;
+        Integer previous = docOf.put(id, doc);
+        if (previous != null) dead.set(previous);
+        for (String token : tokens) postings.computeIfAbsent(token, k -> new IntList()).add(doc);
+    }
+
+    /** Marks the claim dead; returns {@code false} when it is not in the tail. */
+    boolean remove(long id) {
+        Integer doc = docOf.remove(id);
+        if (doc == null) return false;
+        dead.set(doc);
+        return true;
+    }
+
+    /** Adds the ids of up to {@code want} matching claims, newest first. */
+    void search(ClaimSearchSegment.Filter filter, int want, List<Long> out) {
+        IntList lead = null;
+        List<IntList> others = new ArrayList<>();
+        for (String term : filter.terms()) {
+            IntList list = postings.get(term);
+            if (list == null) return;
+            if (lead == null || list.size < lead.size) {
+                if (lead != null) others.add(lead);
+                lead = list;
+            } else {
+                others.add(list);
+            }
+        }
+        long[] found = new long[16];
+        int n = 0;
+        int candidates = lead != null ? lead.size : size;
+        candidates:
+        for (int i = 0; i < candidates; i++) {
+            int doc = lead != null ? lead.values[i] : i;
+            if (dead.get(doc) || !filter.matches(ids[doc], days[doc], cents[doc])) continue;
+            for (IntList other : others) {
+                if (Arrays.binarySearch(other.values, 0, other.size, doc) < 0) continue candidates;
+            }
+            if (n == found.length) found = Arrays.copyOf(found, n * 2);
+            found[n++] = ids[doc];
+        }
+        Arrays.sort(found, 0, n);
+        for (int i = n - 1; i >= 0 && want-- > 0; i--) out.add(found[i]);
+    }
+
+    Snapshot snapshot() {
+        int[] live = new int[size - dead.cardinality()];
+        int n = 0;
+        for (int doc = 0; doc < size; doc++) if (!dead.get(doc)) live[n++] = doc;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = live[i];
+        Arrays.sort(order, (a, b) -> Long.compare(ids[b], ids[a]));
+        for (int i = 0; i < n; i++) live[i] = order[i];
+        return new Snapshot(Arrays.copyOf(ids, size), Arrays.copyOf(days, size), Arrays.copyOf(cents, size),
+                Arrays.copyOf(terms, size), live);
+    }
+
+    /**
+     * The tail that remains once {@code snapshot} has been merged: documents added after it, plus
+     * the ids of snapshot documents that died during the merge, which the caller must now treat as
+     * deleted from the segment.
+     */
+    ClaimSearchTail remainderAfter(Snapshot snapshot, List<Long> diedDuringMerge) {
+        BitSet liveInSnapshot = new BitSet();
+        for (int doc : snapshot.liveByIdDescending()) liveInSnapshot.set(doc);
+        for (int doc = 0; doc < snapshot.size(); doc++) {
+            if (liveInSnapshot.get(doc) && dead.get(doc)) diedDuringMerge.add(ids[doc]);
+        }
+        ClaimSearchTail rest = new ClaimSearchTail();
+        for (int doc = snapshot.size(); doc < size; doc++) {
+            if (!dead.get(doc)) rest.add(ids[doc], days[doc], cents[doc], terms[doc]);
+        }
+        return rest;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.carins.service;
+
+import com.example.carins.model.CarClaimStats;
+import com.example.carins.repo.CarClaimStatsRepository;
+import com.example.carins.repo.CarRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-car claim aggregates kept in {@code car_claim_stats}. Writers call {@link #add} inside the
+ * transaction that inserts the claims; the row is bumped with one atomic update, so concurrent
+ * claims for the same car cannot lose increments. Only the very first claim of a car has to
+ * insert the row, and that path locks the car row so two first claims cannot both insert.
+ * {@link #rebuild} takes the same locks, so it can run while claims are being registered.
+ */
+@Service
+@Timed(value = "carins.service", histogram = true)
+public class ClaimStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClaimStatsService.class);
+
+    /** Claims for one car, folded together before they are applied. */
+    public static final class Delta {
+        long count;
+        BigDecimal total = BigDecimal.ZERO;
+        BigDecimal max;
+        LocalDate last;
+
+        public Delta add(BigDecimal amount, LocalDate date) {
+            count++;
+            total = total.add(amount);
+            if (max == null || amount.compareTo(max) > 0) max = amount;
+            if (last == null || date.isAfter(last)) last = date;
+            return this;
+        }
+    }
+
+    private record Chunk(Long lastCarId, int cars) {}
+
+    private final CarClaimStatsRepository statsRepository;
+    private final CarRepository carRepository;
+    private final TransactionTemplate tx;
+
+    @Value("${insurance.claim-stats.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    @Value("${insurance.claim-stats.max-top:100}")
+    private int maxTop;
+
+    @Value("${insurance.claim-stats.rebuild-chunk-size:1000}")
+    private int rebuildChunkSize;
+
+    public ClaimStatsService(CarClaimStatsRepository statsRepository, CarRepository carRepository,
+                             TransactionTemplate tx) {
+        this.statsRepository = statsRepository;
+        this.carRepository = carRepository;
+        this.tx = tx;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(Long carId, BigDecimal amount, LocalDate date) {
+        apply(carId, new Delta().add(amount, date));
+    }
+
+    /** Applies the deltas in car id order so concurrent batches lock rows in the same order. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addAll(Map<Long, Delta> byCar) {
+        new TreeMap<>(byCar).forEach(this::apply);
+    }
+
+    private void apply(Long carId, Delta d) {
+        if (d.count == 0) return;
+        if (statsRepository.addClaims(carId, d.count, d.total, d.max, d.last) > 0) return;
+        carRepository.lockById(carId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Car not found"));
+        if (statsRepository.addClaims(carId, d.count, d.total, d.max, d.last) > 0) return;
+        statsRepository.saveAndFlush(new CarClaimStats(carId, d.count, d.total, d.max, d.last));
+    }
+
+    /** Stats for one car; a car without claims gets zeros. */
+    @Transactional(readOnly = true)
+    public CarClaimStats forCar(Long carId) {
+        return statsRepository.findById(carId).orElseGet(() -> {
+            if (carRepository.findById(carId).isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Car not found");
+            }
+            return new CarClaimStats(carId, 0, BigDecimal.ZERO, null, null);
+        });
+    }
+
+    public List<CarClaimStats> topByTotalAmount(int limit) {
+        if (limit < 1 || limit > maxTop) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + maxTop);
+        }
+        return statsRepository.findByOrderByTotalAmountDescCarIdAsc(Limit.of(limit));
+    }
+
+    /**
+     * Recomputes every aggregate from the claim table, one transaction per chunk of cars. A chunk
+     * first locks its car rows and then its aggregate rows, which waits out claim transactions that
+     * already touched those cars; claims registered after that update or insert on top of the
+     * recomputed rows. Rows are updated in place rather than deleted and reinserted, so a waiting
+     * claim still finds its row.
+     */
+    public int rebuild() {
+        int cars = 0;
+        Long afterId = 0L;
+        while (true) {
+            Long from = afterId;
+            Chunk chunk = tx.execute(status -> rebuildChunk(from));
+            if (chunk == null) break;
+            cars += chunk.cars();
+            afterId = chunk.lastCarId();
+        }
+        log.info("Rebuilt claim stats for {} cars", cars);
+        return cars;
+    }
+
+    private Chunk rebuildChunk(Long afterId) {
+        List<Long> ids = carRepository.lockIdsAfter(afterId, Limit.of(rebuildChunkSize));
+        if (ids.isEmpty()) return null;
+        Long toId = ids.get(ids.size() - 1);
+        statsRepository.lockRange(afterId, toId);
+        statsRepository.deleteWithoutClaims(afterId, toId);
+        int cars = statsRepository.recomputeFromClaims(afterId, toId);
+        return new Chunk(toId, cars + statsRepository.insertMissingFromClaims(afterId, toId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) rebuild();
+    }
+}
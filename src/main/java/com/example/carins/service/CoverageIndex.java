@@ -0,0 +1,160 @@
+package com.example.carins.service;
+
+import com.example.carins.config.ReadFromPrimary;
+import com.example.carins.repo.CarRepository;
+import com.example.carins.repo.InsurancePolicyRepository;
+import com.example.carins.repo.PolicyInterval;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * In-memory per-car policy coverage used by {@link CarService#isInsuranceValid} when
+ * {@code insurance.coverage-index.enabled=true}. Loaded once the application is ready and
+ * refreshed per car after every committed {@code InsurancePolicy} write.
+ * <p>
+ * Every read from the database takes a stamp before it starts, and an entry is only replaced by
+ * a read with a later stamp. A full load or verify therefore never puts back a car's coverage
+ * over a refresh that read after it, and a removed car is kept as an empty entry for the same
+ * reason. A car without coverage in the index is looked up in the database by the callers.
+ */
+@Component
+public class CoverageIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CoverageIndex.class);
+
+    private final CarRepository carRepository;
+    private final InsurancePolicyRepository policyRepository;
+    private final boolean enabled;
+    private final Map<Long, Entry> coverage = new ConcurrentHashMap<>();
+    private final AtomicLong stamps = new AtomicLong();
+    private volatile boolean loaded;
+
+    public CoverageIndex(CarRepository carRepository,
+                         InsurancePolicyRepository policyRepository,
+                         @Value("${insurance.coverage-index.enabled:false}") boolean enabled) {
+        this.carRepository = carRepository;
+        this.policyRepository = policyRepository;
+        this.enabled = enabled;
+    }
+
+    /** Coverage of one car, {@code null} once the car is deleted, as read at {@code stamp}. */
+    private record Entry(CarCoverage coverage, long stamp) {}
+
+    public boolean isActive() {
+        return enabled && loaded;
+    }
+
+    /** Returns the coverage of a car, or {@code null} when the car is not in the index. */
+    public CarCoverage find(Long carId) {
+        Entry e = coverage.get(carId);
+        return e == null ? null : e.coverage();
+    }
+
+    public int carCount() {
+        return (int) coverage.values().stream().filter(e -> e.coverage() != null).count();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    public void load() {
+        if (!enabled) return;
+        long started = System.nanoTime();
+        long stamp = stamps.incrementAndGet();
+        Map<Long, CarCoverage> snapshot = readFromDatabase();
+        snapshot.forEach((carId, cc) -> store(carId, cc, stamp));
+        loaded = true;
+        log.info("Coverage index loaded {} cars in {} ms", snapshot.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    @ReadFromPrimary
+    public void refresh(Long carId) {
+        if (!enabled || carId == null) return;
+        long stamp = stamps.incrementAndGet();
+        store(carId, carRepository.existsById(carId)
+                ? CarCoverage.of(policyRepository.findIntervalsByCarId(carId))
+                : null, stamp);
+    }
+
+    /**
+     * Rebuilds the coverage of every car from the database, replaces the entries that
+     * differ and were not refreshed since, and returns how many did.
+     */
+    @Scheduled(fixedDelayString = "${insurance.coverage-index.verify-interval-ms:3600000}",
+               initialDelayString = "${insurance.coverage-index.verify-interval-ms:3600000}")
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    public int verify() {
+        if (!isActive()) return 0;
+        long stamp = stamps.incrementAndGet();
+        Map<Long, CarCoverage> expected = readFromDatabase();
+        int mismatches = 0;
+        for (var e : expected.entrySet()) {
+            if (store(e.getKey(), e.getValue(), stamp)) {
+                log.warn("Coverage index out of sync for car {}, repairing", e.getKey());
+                mismatches++;
+            }
+        }
+        for (Long carId : List.copyOf(coverage.keySet())) {
+            if (!expected.containsKey(carId) && store(carId, null, stamp)) {
+                log.warn("Coverage index holds unknown car {}, removing", carId);
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Replaces the coverage of a car unless it was read after {@code stamp}, and returns whether
+     * the stored coverage changed.
+     */
+    private boolean store(Long carId, CarCoverage value, long stamp) {
+        boolean[] changed = new boolean[1];
+        coverage.compute(carId, (id, current) -> {
+            if (current != null && current.stamp() > stamp) return current;
+            changed[0] = !Objects.equals(current == null ? null : current.coverage(), value);
+            return new Entry(value, stamp);
+        });
+        return changed[0];
+    }
+
+    private Map<Long, CarCoverage> readFromDatabase() {
+        Map<Long, CarCoverage> result = new HashMap<>();
+        try (Stream<Long> ids = carRepository.streamAllIds()) {
+            ids.forEach(id -> result.put(id, CarCoverage.EMPTY));
+        }
+        try (Stream<PolicyInterval> intervals = policyRepository.streamAllIntervals()) {
+            List<PolicyInterval> current = new ArrayList<>();
+            var it = intervals.iterator();
+            while (it.hasNext()) {
+                PolicyInterval i = it.next();
+                if (!current.isEmpty() && !current.get(0).carId().equals(i.carId())) {
+                    result.put(current.get(0).carId(), CarCoverage.of(current));
+                    current.clear();
+                }
+                current.add(i);
+            }
+            if (!current.isEmpty()) result.put(current.get(0).carId(), CarCoverage.of(current));
+        }
+        return result;
+    }
+}
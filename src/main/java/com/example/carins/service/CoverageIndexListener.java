@@ -0,0 +1,38 @@
+package com.example.carins.service;
+
+import com.example.carins.model.Car;
+import com.example.carins.model.InsurancePolicy;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.LinkedHashSet;
+
+/**
+ * JPA listener that keeps {@link CoverageIndex} in step with committed car and policy writes.
+ * Changes are collected per transaction and applied once it commits.
+ */
+public class CoverageIndexListener {
+
+    private final ObjectProvider<CoverageIndex> index;
+
+    public CoverageIndexListener(ObjectProvider<CoverageIndex> index) {
+        this.index = index;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        if (entity instanceof Car car) {
+            afterCommit(car.getId());
+        } else if (entity instanceof InsurancePolicy policy && policy.getCar() != null) {
+            afterCommit(policy.getCar().getId());
+        }
+    }
+
+    private void afterCommit(Long carId) {
+        AfterCommit.run(this, carId, LinkedHashSet::new, id -> index.getObject().refresh(id));
+    }
+}
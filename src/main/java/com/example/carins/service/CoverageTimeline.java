@@ -0,0 +1,89 @@
+package com.example.carins.service;
+
+import com.example.carins.model.InsurancePolicy;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Covered and uncovered stretches of {@code [from, to]} for one car, plus the places where two
+ * policies overlap. Segments are contiguous, ordered and together span the whole range; a day is
+ * covered exactly when {@code existsActiveOnDate} would return true for it.
+ */
+public record CoverageTimeline(LocalDate from, LocalDate to, List<Segment> segments, List<Overlap> overlaps) {
+
+    public record Segment(LocalDate from, LocalDate to, boolean covered) {
+        public long days() {
+            return to.toEpochDay() - from.toEpochDay() + 1;
+        }
+    }
+
+    /** Days in {@code [from, to]} covered by both {@code policyId} and {@code otherPolicyId}. */
+    public record Overlap(Long policyId, Long otherPolicyId, LocalDate from, LocalDate to) {}
+
+    /**
+     * Sorts the policies by start date and sweeps them once. Adjacent policies (one ending the day
+     * before the next starts) merge into one covered segment. Each policy is checked for overlap
+     * against the earlier policy reaching furthest, which flags every policy that overlaps another.
+     */
+    public static CoverageTimeline of(List<InsurancePolicy> policies, LocalDate from, LocalDate to) {
+        List<InsurancePolicy> sorted = new ArrayList<>(policies.size());
+        for (InsurancePolicy p : policies) {
+            // same semantics as the JPQL check: an interval without a start never matches
+            if (p.getStartDate() == null || p.getEndDate() == null || p.getStartDate().isAfter(p.getEndDate())) continue;
+            if (p.getEndDate().isBefore(from) || p.getStartDate().isAfter(to)) continue;
+            sorted.add(p);
+        }
+        sorted.sort(Comparator.comparing(InsurancePolicy::getStartDate).thenComparing(InsurancePolicy::getEndDate));
+
+        List<Segment> segments = new ArrayList<>();
+        List<Overlap> overlaps = new ArrayList<>();
+        LocalDate cursor = from;
+        LocalDate blockStart = null, blockEnd = null;
+        InsurancePolicy furthest = null;
+        for (InsurancePolicy p : sorted) {
+            LocalDate start = max(p.getStartDate(), from);
+            LocalDate end = min(p.getEndDate(), to);
+            if (furthest != null && !p.getStartDate().isAfter(furthest.getEndDate())) {
+                overlaps.add(new Overlap(furthest.getId(), p.getId(), start, min(end, furthest.getEndDate())));
+            }
+            if (furthest == null || p.getEndDate().isAfter(furthest.getEndDate())) furthest = p;
+
+            if (blockEnd != null && !start.isAfter(blockEnd.plusDays(1))) {
+                blockEnd = max(blockEnd, end);
+                continue;
+            }
+            if (blockEnd != null) {
+                segments.add(new Segment(blockStart, blockEnd, true));
+                cursor = blockEnd.plusDays(1);
+            }
+            if (start.isAfter(cursor)) segments.add(new Segment(cursor, start.minusDays(1), false));
+            blockStart = start;
+            blockEnd = end;
+        }
+        if (blockEnd != null) {
+            segments.add(new Segment(blockStart, blockEnd, true));
+            cursor = blockEnd.plusDays(1);
+        }
+        if (!cursor.isAfter(to)) segments.add(new Segment(cursor, to, false));
+        return new CoverageTimeline(from, to, List.copyOf(segments), List.copyOf(overlaps));
+    }
+
+    public long coveredDays() {
+        return segments.stream().filter(Segment::covered).mapToLong(Segment::days).sum();
+    }
+
+    public long uncoveredDays() {
+        return segments.stream().filter(s -> !s.covered()).mapToLong(Segment::days).sum();
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
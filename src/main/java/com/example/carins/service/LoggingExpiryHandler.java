@@ -0,0 +1,17 @@
+package com.example.carins.service;
+
+import com.example.carins.repo.ExpiredPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LoggingExpiryHandler implements PolicyExpiryHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingExpiryHandler.class);
+
+    @Override
+    public void onExpired(ExpiredPolicy p) {
+        log.info("Policy {} for car {} expired on {}", p.id(), p.carId(), p.endDate());
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.carins.service;
+
+import com.example.carins.model.NotificationOutbox;
+import com.example.carins.repo.ExpiredPolicy;
+import com.example.carins.repo.NotificationOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class OutboxExpiryHandler implements PolicyExpiryHandler {
+
+    public static final String TYPE = "POLICY_EXPIRED";
+
+    private final NotificationOutboxRepository outbox;
+    private final boolean enabled;
+
+    public OutboxExpiryHandler(NotificationOutboxRepository outbox,
+                               @Value("${insurance.expiry.outbox.enabled:false}") boolean enabled) {
+        this.outbox = outbox;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void onExpired(ExpiredPolicy p) {
+        if (!enabled) return;
+        outbox.save(new NotificationOutbox(TYPE, p.id(),
+                "Policy " + p.id() + " for car " + p.carId() + " expired on " + p.endDate()));
+    }
+}
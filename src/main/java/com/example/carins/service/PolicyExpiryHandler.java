@@ -0,0 +1,11 @@
+package com.example.carins.service;
+
+import com.example.carins.repo.ExpiredPolicy;
+
+/**
+ * Receives every expired policy exactly once per successful chunk. Handlers run inside the
+ * chunk transaction, so database work they do commits together with the watermark.
+ */
+public interface PolicyExpiryHandler {
+    void onExpired(ExpiredPolicy policy);
+}
@@ -0,0 +1,102 @@
+package com.example.carins.service;
+
+import com.example.carins.config.ReadFromPrimary;
+import com.example.carins.model.JobWatermark;
+import com.example.carins.repo.ExpiredPolicy;
+import com.example.carins.repo.InsurancePolicyRepository;
+import com.example.carins.repo.JobWatermarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Hands policies that expired on each day after the persisted watermark to every
+ * {@link PolicyExpiryHandler}. Policies are read in keyset chunks of
+ * {@code insurance.expiry.chunk-size}; each chunk and the watermark advance commit together,
+ * so a restart resumes after the last committed chunk and missed days are caught up.
+ */
+@Service
+public class PolicyExpiryProcessor {
+
+    public static final String JOB_NAME = "policy-expiry";
+
+    private static final Logger log = LoggerFactory.getLogger(PolicyExpiryProcessor.class);
+
+    private final InsurancePolicyRepository policyRepository;
+    private final JobWatermarkRepository watermarkRepository;
+    private final List<PolicyExpiryHandler> handlers;
+    private final TransactionTemplate tx;
+
+    @Value("${insurance.expiry.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${insurance.expiry.max-catch-up-days:31}")
+    private int maxCatchUpDays;
+
+    public PolicyExpiryProcessor(InsurancePolicyRepository policyRepository,
+                                 JobWatermarkRepository watermarkRepository,
+                                 List<PolicyExpiryHandler> handlers,
+                                 TransactionTemplate tx) {
+        this.policyRepository = policyRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.handlers = handlers;
+        this.tx = tx;
+    }
+
+    /** Processes every day after the watermark up to and including {@code lastDay}. */
+    @ReadFromPrimary
+    public int processUpTo(LocalDate lastDay) {
+        initWatermark(lastDay.minusDays(1));
+        int processed = 0;
+        while (true) {
+            Integer n = tx.execute(status -> processChunk(lastDay));
+            if (n == null || n < 0) return processed;
+            processed += n;
+        }
+    }
+
+    @ReadFromPrimary
+    public LocalDate lastProcessedDay() {
+        return watermarkRepository.findById(JOB_NAME).map(JobWatermark::getLastProcessedDay).orElse(null);
+    }
+
+    /** Returns the number of handled policies, or -1 once {@code lastDay} is complete. */
+    private int processChunk(LocalDate lastDay) {
+        JobWatermark wm = watermarkRepository.lockByName(JOB_NAME).orElseThrow();
+        LocalDate day = wm.getLastProcessedDay().plusDays(1);
+        if (day.isAfter(lastDay)) return -1;
+
+        LocalDate oldest = lastDay.minusDays(maxCatchUpDays - 1L);
+        if (day.isBefore(oldest)) {
+            log.warn("Policy expiry watermark {} is older than {} days, skipping to {}",
+                    wm.getLastProcessedDay(), maxCatchUpDays, oldest);
+            day = oldest;
+            wm.setLastProcessedDay(oldest.minusDays(1));
+            wm.setLastItemId(null);
+        }
+
+        Long afterId = wm.getLastItemId() != null ? wm.getLastItemId() : 0L;
+        List<ExpiredPolicy> chunk = policyRepository.findExpiredAfter(day, afterId, Limit.of(chunkSize));
+        for (ExpiredPolicy p : chunk) {
+            handlers.forEach(h -> h.onExpired(p));
+        }
+        if (chunk.size() < chunkSize) {
+            wm.setLastProcessedDay(day);
+            wm.setLastItemId(null);
+        } else {
+            wm.setLastItemId(chunk.get(chunk.size() - 1).id());
+        }
+        return chunk.size();
+    }
+
+    private void initWatermark(LocalDate day) {
+        if (watermarkRepository.existsById(JOB_NAME)) return;
+        tx.executeWithoutResult(status -> watermarkRepository.save(new JobWatermark(JOB_NAME, day)));
+    }
+}
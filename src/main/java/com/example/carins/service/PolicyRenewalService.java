@@ -0,0 +1,116 @@
+package com.example.carins.service;
+
+import com.example.carins.config.ReadYourWrites;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk renewals. Rows are grouped by car and cut into chunks of about
+ * {@code insurance.policies.renew.chunk-size} that {@link PolicyService#renew} stores in parallel,
+ * one transaction each, on {@code insurance.policies.renew.parallelism} threads. All rows for a
+ * car land in the same chunk, so within a request they are resolved in input order and chunks never
+ * wait on each other. Chunks lock their cars in id order, so concurrent requests that share a car
+ * wait instead of deadlocking; a chunk that still cannot get its locks comes back as rejects to retry.
+ */
+@Service
+public class PolicyRenewalService {
+
+    public record Result(long accepted, List<PolicyService.Reject> rejects) {}
+
+    private static final Logger log = LoggerFactory.getLogger(PolicyRenewalService.class);
+
+    private final PolicyService policyService;
+    private final ThreadPoolTaskExecutor executor;
+
+    @Value("${insurance.policies.renew.chunk-size:1000}")
+    private int chunkSize;
+
+    public PolicyRenewalService(PolicyService policyService,
+                                @Value("${insurance.policies.renew.parallelism:4}") int parallelism) {
+        this.policyService = policyService;
+        this.executor = TaskExecutors.fixed("policy-renewal-", Math.max(1, parallelism), 30);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.destroy();
+    }
+
+    public Result renew(List<PolicyRow> rows) {
+        Integer[] order = new Integer[rows.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparing((Integer i) -> carId(rows.get(i)),
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        String client = ReadYourWrites.currentClient();
+        List<Future<PolicyService.ChunkResult>> chunks = new ArrayList<>();
+        int from = 0;
+        while (from < order.length) {
+            int to = Math.min(order.length, from + chunkSize);
+            while (to < order.length && Objects.equals(carId(rows.get(order[to - 1])), carId(rows.get(order[to])))) to++;
+            List<PolicyRow> chunk = new ArrayList<>(to - from);
+            long[] indexes = new long[to - from];
+            for (int i = from; i < to; i++) {
+                chunk.add(rows.get(order[i]));
+                indexes[i - from] = order[i];
+            }
+            chunks.add(executor.submit(() -> renewChunk(chunk, indexes, client)));
+            from = to;
+        }
+        long accepted = 0;
+        List<PolicyService.Reject> rejects = new ArrayList<>();
+        try {
+            for (Future<PolicyService.ChunkResult> chunk : chunks) {
+                PolicyService.ChunkResult result = chunk.get();
+                accepted += result.accepted();
+                rejects.addAll(result.rejects());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            chunks.forEach(f -> f.cancel(true));
+            throw new IllegalStateException("Interrupted while renewing policies", e);
+        } catch (ExecutionException e) {
+            chunks.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+        rejects.sort(Comparator.comparingLong(PolicyService.Reject::index));
+        return new Result(accepted, rejects);
+    }
+
+    /** Runs on a pool thread as {@code client}, so the commit counts as that client's write for routing. */
+    private PolicyService.ChunkResult renewChunk(List<PolicyRow> chunk, long[] indexes, String client) {
+        ReadYourWrites.bind(client);
+        try {
+            return policyService.renew(chunk, indexes);
+        } catch (PessimisticLockingFailureException e) {
+            log.warn("Renewal chunk of {} rows could not lock its cars: {}", chunk.size(), e.getMessage());
+            List<PolicyService.Reject> rejects = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                PolicyRow row = chunk.get(i);
+                rejects.add(new PolicyService.Reject(indexes[i], row != null ? row.carId() : null,
+                        "Car is being updated concurrently, retry"));
+            }
+            return new PolicyService.ChunkResult(0, rejects);
+        } finally {
+            ReadYourWrites.clear();
+        }
+    }
+
+    private static Long carId(PolicyRow row) {
+        return row != null ? row.carId() : null;
+    }
+}
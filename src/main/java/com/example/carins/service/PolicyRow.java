@@ -0,0 +1,22 @@
+package com.example.carins.service;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+
+/**
+ * One renewal. Missing fields default from the car's latest policy: the provider is kept, the
+ * start is the day after it ends (today for a car without policies) and the term is one year.
+ */
+public record PolicyRow(
+        @NotNull(message = "Car id must be provided")
+        Long carId,
+
+        @Size(max = 255, message = "Provider must be at most 255 characters")
+        String provider,
+
+        LocalDate startDate,
+
+        LocalDate endDate
+) {}
@@ -0,0 +1,224 @@
+package com.example.carins.service;
+
+import com.example.carins.model.Car;
+import com.example.carins.model.InsurancePolicy;
+import com.example.carins.repo.CarRepository;
+import com.example.carins.repo.InsurancePolicyRepository;
+import com.example.carins.repo.PolicySpan;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Creates and renews policies while keeping at most one policy active per car on any date.
+ * Writers lock the car rows first, so the overlap check and the insert cannot interleave with
+ * another writer for the same car. The check is a range query on {@code idx_policy_car_start_end}
+ * that only returns the policies touching the new interval.
+ */
+@Service
+@Timed(value = "carins.service", histogram = true)
+public class PolicyService {
+
+    public record Reject(long index, Long carId, String error) {}
+
+    public record ChunkResult(int accepted, List<Reject> rejects) {}
+
+    private final CarRepository carRepository;
+    private final InsurancePolicyRepository policyRepository;
+    private final Validator validator;
+    private final ChangeLog changeLog;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Value("${insurance.validity-interval-years:50}")
+    private int validityIntervalYears;
+
+    @Value("${insurance.policies.renew.batch-size:500}")
+    private int batchSize;
+
+    public PolicyService(CarRepository carRepository, InsurancePolicyRepository policyRepository, Validator validator,
+                         ChangeLog changeLog) {
+        this.carRepository = carRepository;
+        this.policyRepository = policyRepository;
+        this.validator = validator;
+        this.changeLog = changeLog;
+    }
+
+    @Transactional
+    public InsurancePolicy create(Long carId, String provider, LocalDate startDate, LocalDate endDate) {
+        String error = intervalError(startDate, endDate);
+        if (error != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, error);
+        }
+        Car car = carRepository.lockById(carId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Car not found"));
+        List<PolicySpan> overlapping = policyRepository.findOverlapping(List.of(carId), startDate, endDate);
+        if (!overlapping.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, overlapMessage(overlapping.get(0)));
+        }
+        InsurancePolicy policy = policyRepository.save(new InsurancePolicy(car, provider, startDate, endDate));
+        changeLog.policyCreated(policy, carId);
+        return policy;
+    }
+
+    /**
+     * Renews one chunk in one transaction. Rows are checked against stored policies and against
+     * earlier rows of the same chunk; {@code indexes} holds each row's position in the whole
+     * request and only numbers the rejects.
+     */
+    @Transactional
+    public ChunkResult renew(List<PolicyRow> rows, long[] indexes) {
+        List<Reject> rejects = new ArrayList<>();
+        boolean[] valid = new boolean[rows.size()];
+        Set<Long> carIds = new TreeSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            PolicyRow row = rows.get(i);
+            if (row == null) {
+                rejects.add(new Reject(indexes[i], null, "Malformed item"));
+                continue;
+            }
+            Set<ConstraintViolation<PolicyRow>> violations = validator.validate(row);
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .min(Comparator.comparing(v -> v.getPropertyPath().toString()))
+                        .map(ConstraintViolation::getMessage).orElseThrow();
+                rejects.add(new Reject(indexes[i], row.carId(), message));
+                continue;
+            }
+            valid[i] = true;
+            carIds.add(row.carId());
+        }
+
+        Map<Long, Car> cars = new HashMap<>();
+        Map<Long, PolicySpan> latest = new HashMap<>();
+        if (!carIds.isEmpty()) {
+            for (Car car : carRepository.lockAllById(carIds)) cars.put(car.getId(), car);
+        }
+        if (!cars.isEmpty()) {
+            for (PolicySpan p : policyRepository.findLatestByCarIds(cars.keySet())) latest.putIfAbsent(p.carId(), p);
+        }
+
+        // Defaults chain on the car's latest policy, which is only known once the rows before have
+        // been checked for clashes. This pass assumes every row goes in, which only makes the
+        // default terms later than they turn out, so the query window below covers them all.
+        LocalDate today = LocalDate.now();
+        Map<Long, PolicySpan> planned = new HashMap<>(latest);
+        boolean[] resolvable = new boolean[rows.size()];
+        LocalDate from = null;
+        LocalDate to = null;
+        for (int i = 0; i < rows.size(); i++) {
+            if (!valid[i]) continue;
+            PolicyRow row = rows.get(i);
+            if (!cars.containsKey(row.carId())) {
+                rejects.add(new Reject(indexes[i], row.carId(), "Car not found"));
+                continue;
+            }
+            PolicySpan previous = planned.get(row.carId());
+            PolicySpan span = resolve(row, previous, today);
+            String error = rowError(span);
+            if (error != null) {
+                rejects.add(new Reject(indexes[i], row.carId(), error));
+                continue;
+            }
+            resolvable[i] = true;
+            if (previous == null || span.endDate().isAfter(previous.endDate())) planned.put(row.carId(), span);
+            LocalDate earliest = row.startDate() != null ? span.startDate() : resolve(row, latest.get(row.carId()), today).startDate();
+            from = from == null || earliest.isBefore(from) ? earliest : from;
+            to = to == null || span.endDate().isAfter(to) ? span.endDate() : to;
+        }
+
+        Map<Long, List<PolicySpan>> taken = new HashMap<>();
+        if (from != null) {
+            for (PolicySpan p : policyRepository.findOverlapping(cars.keySet(), from, to)) {
+                taken.computeIfAbsent(p.carId(), id -> new ArrayList<>()).add(p);
+            }
+        }
+
+        Session session = em.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+        int inserted = 0;
+        try {
+            for (int i = 0; i < rows.size(); i++) {
+                if (!resolvable[i]) continue;
+                PolicyRow row = rows.get(i);
+                PolicySpan previous = latest.get(row.carId());
+                PolicySpan span = resolve(row, previous, today);
+                String error = rowError(span);
+                if (error != null) {
+                    rejects.add(new Reject(indexes[i], row.carId(), error));
+                    continue;
+                }
+                List<PolicySpan> carSpans = taken.computeIfAbsent(span.carId(), id -> new ArrayList<>());
+                PolicySpan clash = carSpans.stream()
+                        .filter(p -> !p.startDate().isAfter(span.endDate()) && !p.endDate().isBefore(span.startDate()))
+                        .findFirst().orElse(null);
+                if (clash != null) {
+                    rejects.add(new Reject(indexes[i], span.carId(), overlapMessage(clash)));
+                    continue;
+                }
+                carSpans.add(span);
+                if (previous == null || span.endDate().isAfter(previous.endDate())) latest.put(span.carId(), span);
+                InsurancePolicy policy = new InsurancePolicy(cars.get(span.carId()), span.provider(), span.startDate(), span.endDate());
+                em.persist(policy);
+                changeLog.policyCreated(policy, span.carId());
+                if (++inserted % batchSize == 0) em.flush();
+            }
+            em.flush();
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+        rejects.sort(Comparator.comparingLong(Reject::index));
+        return new ChunkResult(inserted, rejects);
+    }
+
+    /** Fills in a row's missing provider and dates from the car's latest policy, or from today. */
+    private static PolicySpan resolve(PolicyRow row, PolicySpan previous, LocalDate today) {
+        String provider = row.provider() != null ? row.provider() : previous != null ? previous.provider() : null;
+        LocalDate start = row.startDate() != null ? row.startDate()
+                : previous != null ? previous.endDate().plusDays(1) : today;
+        LocalDate end = row.endDate() != null ? row.endDate() : start.plusYears(1).minusDays(1);
+        return new PolicySpan(null, row.carId(), provider, start, end);
+    }
+
+    private String rowError(PolicySpan span) {
+        return span.provider() == null || span.provider().isBlank() ? "Provider must be provided"
+                : intervalError(span.startDate(), span.endDate());
+    }
+
+    private String intervalError(LocalDate start, LocalDate end) {
+        if (start == null) return "Start date must be provided";
+        if (end == null) return "End date must be provided";
+        if (start.isAfter(end)) return "Start date must not be after end date";
+        LocalDate minDate = LocalDate.now().minusYears(validityIntervalYears);
+        LocalDate maxDate = LocalDate.now().plusYears(validityIntervalYears);
+        if (start.isBefore(minDate) || end.isAfter(maxDate)) {
+            return "Dates must be between " + minDate + " and " + maxDate;
+        }
+        return null;
+    }
+
+    private static String overlapMessage(PolicySpan p) {
+        return p.id() == null
+                ? "Overlaps an earlier row for the same car (" + p.startDate() + " to " + p.endDate() + ")"
+                : "Overlaps policy " + p.id() + " (" + p.startDate() + " to " + p.endDate() + ")";
+    }
+}
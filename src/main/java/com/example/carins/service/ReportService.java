@@ -0,0 +1,107 @@
+package com.example.carins.service;
+
+import com.example.carins.repo.CarRepository;
+import com.example.carins.repo.IdRange;
+import com.example.carins.repo.UninsuredCar;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Fleet-wide reports. The car id space is cut into fixed-size ranges that are queried in parallel
+ * with one anti-join each; results are handed to the caller in id order while at most
+ * {@code parallelism} ranges are in flight, so memory stays bounded whatever the fleet size.
+ * Each range is read in its own transaction, so a report is not one consistent snapshot: a policy
+ * committed while the report runs shows up only in the ranges queried after the commit.
+ */
+@Service
+@Timed(value = "carins.service", histogram = true)
+public class ReportService {
+
+    private final CarRepository carRepository;
+    private final ThreadPoolTaskExecutor executor;
+    private final int parallelism;
+
+    @Value("${insurance.validity-interval-years:50}")
+    private int validityIntervalYears;
+
+    @Value("${insurance.reports.range-size:10000}")
+    private int rangeSize;
+
+    public ReportService(CarRepository carRepository,
+                         @Value("${insurance.reports.parallelism:4}") int parallelism) {
+        this.carRepository = carRepository;
+        this.parallelism = Math.max(1, parallelism);
+        this.executor = TaskExecutors.fixed("report-", this.parallelism, 30);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.destroy();
+    }
+
+    /** Rejects a report date that {@link #forEachUninsured} would reject, before anything is streamed. */
+    public void validateDate(LocalDate date) {
+        if (date == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Date must be provided");
+        }
+        LocalDate minDate = LocalDate.now().minusYears(validityIntervalYears);
+        LocalDate maxDate = LocalDate.now().plusYears(validityIntervalYears);
+        if (date.isBefore(minDate) || date.isAfter(maxDate)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Date is outside the supported range: " + minDate + " to " + maxDate);
+        }
+    }
+
+    /** Passes every car without an active policy on {@code date} to {@code action}, ordered by id. */
+    public long forEachUninsured(LocalDate date, Consumer<UninsuredCar> action) {
+        validateDate(date);
+        IdRange ids = carRepository.findIdRange();
+        if (ids.isEmpty()) return 0;
+
+        Deque<Future<List<UninsuredCar>>> window = new ArrayDeque<>(parallelism);
+        long next = ids.min();
+        long count = 0;
+        try {
+            while (next <= ids.max() || !window.isEmpty()) {
+                while (window.size() < parallelism && next <= ids.max()) {
+                    long fromId = next;
+                    long toId = Math.min(ids.max(), fromId + rangeSize - 1);
+                    window.add(executor.submit(() -> carRepository.findUninsuredBetween(date, fromId, toId)));
+                    next = toId + 1;
+                }
+                for (UninsuredCar car : await(window.poll())) {
+                    action.accept(car);
+                    count++;
+                }
+            }
+        } finally {
+            window.forEach(f -> f.cancel(true));
+        }
+        return count;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for report rows", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.carins.service;
+
+import com.example.carins.model.Car;
+import com.example.carins.model.Claim;
+import com.example.carins.model.InsurancePolicy;
+import com.example.carins.model.Owner;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.LinkedHashSet;
+
+/**
+ * JPA listener that bumps {@link ResourceVersions} once a write commits. Car and owner changes
+ * move the collection version, car, claim and policy changes move the version of their car.
+ */
+public class ResourceVersionListener {
+
+    /** A bump of one car's version, or of the collection version when {@code carId} is null. */
+    private record Change(Long carId) {}
+
+    private static final Change COLLECTION = new Change(null);
+
+    private final ObjectProvider<ResourceVersions> versions;
+
+    public ResourceVersionListener(ObjectProvider<ResourceVersions> versions) {
+        this.versions = versions;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        if (entity instanceof Car car) {
+            afterCommit(COLLECTION);
+            afterCommit(new Change(car.getId()));
+        } else if (entity instanceof Owner) {
+            afterCommit(COLLECTION);
+        } else if (entity instanceof Claim claim && claim.getCar() != null) {
+            afterCommit(new Change(claim.getCar().getId()));
+        } else if (entity instanceof InsurancePolicy policy && policy.getCar() != null) {
+            afterCommit(new Change(policy.getCar().getId()));
+        }
+    }
+
+    private void apply(Change c) {
+        ResourceVersions v = versions.getObject();
+        if (c.carId() == null) {
+            v.carsChanged();
+        } else {
+            v.carChanged(c.carId());
+        }
+    }
+
+    private void afterCommit(Change change) {
+        AfterCommit.run(this, change, LinkedHashSet::new, this::apply);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.carins.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters behind the HTTP ETags: one for the car collection and one per car (its
+ * claims, policies and the car itself). Counters are bumped by {@link ResourceVersionListener}
+ * after a write commits. The boot epoch and a generation bumped by {@link #invalidateAll()} are
+ * part of every tag, so tags never repeat across restarts or bulk writes outside JPA.
+ */
+@Component
+public class ResourceVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong cars = new AtomicLong();
+    private final Map<Long, Long> perCar = new ConcurrentHashMap<>();
+
+    public String carsTag() {
+        return "\"" + epoch + "-" + generation.get() + "-" + cars.get() + "\"";
+    }
+
+    public String carTag(Long carId) {
+        return "\"" + epoch + "-" + generation.get() + "-c" + carId + "-" + perCar.getOrDefault(carId, 0L) + "\"";
+    }
+
+    public void carsChanged() {
+        cars.incrementAndGet();
+    }
+
+    public void carChanged(Long carId) {
+        perCar.merge(carId, 1L, Long::sum);
+    }
+
+    /** Changes every tag; for writes that bypass JPA and its listeners. */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+    }
+}
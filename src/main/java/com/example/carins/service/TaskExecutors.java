@@ -0,0 +1,25 @@
+package com.example.carins.service;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Fixed-size pools for the services that fan work out. The owner calls {@code destroy()} from its
+ * {@code @PreDestroy}; submitted tasks then get {@code awaitSeconds} to finish, and with
+ * {@code awaitSeconds == 0} they are interrupted right away.
+ */
+final class TaskExecutors {
+
+    private TaskExecutors() {}
+
+    static ThreadPoolTaskExecutor fixed(String threadNamePrefix, int threads, int awaitSeconds) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setDaemon(true);
+        executor.setWaitForTasksToCompleteOnShutdown(awaitSeconds > 0);
+        executor.setAwaitTerminationSeconds(awaitSeconds);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.carins.service;
+
+import java.time.LocalDate;
+
+public record ValidityCheck(Long carId, LocalDate date) {
+
+    public record Result(Boolean valid, String error) {
+        public static Result of(boolean valid) { return new Result(valid, null); }
+        public static Result error(String error) { return new Result(null, error); }
+    }
+}
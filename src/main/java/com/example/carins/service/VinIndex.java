@@ -0,0 +1,80 @@
+package com.example.carins.service;
+
+import com.example.carins.config.ReadFromPrimary;
+import com.example.carins.repo.CarRepository;
+import com.example.carins.repo.CarVin;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * In-memory VIN to car id lookup backed by a {@link VinTable}. Loaded once the application is
+ * ready and kept in step with committed car writes by {@link VinIndexListener}. A miss is not
+ * authoritative (cars written outside JPA are not seen), so callers fall back to the database.
+ */
+@Component
+public class VinIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(VinIndex.class);
+
+    private final CarRepository carRepository;
+    private final boolean enabled;
+    private final VinTable table = new VinTable();
+    private volatile boolean loaded;
+
+    public VinIndex(CarRepository carRepository,
+                    @Value("${insurance.vin-index.enabled:true}") boolean enabled,
+                    ObjectProvider<MeterRegistry> meterRegistry) {
+        this.carRepository = carRepository;
+        this.enabled = enabled;
+        meterRegistry.ifAvailable(r -> {
+            Gauge.builder("vin.index.size", table, VinTable::size).description("VINs in the lookup index").register(r);
+            Gauge.builder("vin.index.heap", table, VinTable::heapBytes).baseUnit("bytes")
+                    .description("Heap held by the VIN lookup index").register(r);
+        });
+    }
+
+    public boolean isActive() {
+        return enabled && loaded;
+    }
+
+    /** Returns the car id for {@code vin}, or {@code null} when the index does not know it. */
+    public Long find(String vin) {
+        if (!isActive() || vin == null || vin.length() > 255) return null;
+        long id = table.get(vin);
+        return id < 0 ? null : id;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    public void load() {
+        if (!enabled) return;
+        long started = System.nanoTime();
+        try (Stream<CarVin> vins = carRepository.streamAllVins()) {
+            vins.forEach(v -> put(v.vin(), v.carId()));
+        }
+        loaded = true;
+        log.info("VIN index loaded {} cars into {} KiB in {} ms", table.size(), table.heapBytes() / 1024,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public void put(String vin, Long carId) {
+        if (enabled && vin != null && carId != null && vin.length() <= 255) table.put(vin, carId);
+    }
+
+    public void remove(String vin, Long carId) {
+        if (enabled && vin != null && carId != null && vin.length() <= 255) table.remove(vin, carId);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.carins.service;
+
+import com.example.carins.model.Car;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.ArrayList;
+import java.util.Objects;
+
+/**
+ * JPA listener that keeps {@link VinIndex} in step with committed car writes. A VIN change
+ * removes the old VIN and adds the new one; changes are applied in order once the transaction
+ * commits.
+ */
+public class VinIndexListener {
+
+    private record Change(Long carId, String oldVin, String newVin) {}
+
+    private final ObjectProvider<VinIndex> index;
+
+    public VinIndexListener(ObjectProvider<VinIndex> index) {
+        this.index = index;
+    }
+
+    @PostPersist
+    public void inserted(Car car) {
+        afterCommit(new Change(car.getId(), null, car.getVin()));
+    }
+
+    @PostUpdate
+    public void updated(Car car) {
+        if (!Objects.equals(car.getStoredVin(), car.getVin())) {
+            afterCommit(new Change(car.getId(), car.getStoredVin(), car.getVin()));
+        }
+    }
+
+    @PostRemove
+    public void removed(Car car) {
+        afterCommit(new Change(car.getId(), car.getStoredVin(), null));
+    }
+
+    private void apply(Change c) {
+        VinIndex vins = index.getObject();
+        vins.remove(c.oldVin(), c.carId());
+        vins.put(c.newVin(), c.carId());
+    }
+
+    private void afterCommit(Change change) {
+        AfterCommit.run(this, change, ArrayList::new, this::apply);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.carins.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * VIN to car id map without per-entry objects. VIN bytes are packed, length-prefixed, into one
+ * byte arena; entry {@code i} is {@code offsets[i]}, {@code hashes[i]} and {@code ids[i]}; and an
+ * open-addressing table of {@code int} entry numbers with linear probing points into them. That
+ * puts a 17-character VIN at roughly 40 bytes of heap. Lookups take an optimistic read stamp and
+ * only fall back to the read lock when a writer got in the way.
+ */
+public final class VinTable {
+
+    private static final int FREE = 0;
+    private static final int DELETED = -1;
+
+    private final StampedLock lock = new StampedLock();
+
+    private byte[] arena = new byte[1024];
+    private int arenaSize;
+    private int[] offsets = new int[64];
+    private int[] hashes = new int[64];
+    private long[] ids = new long[64];
+    private int entries;
+    private int[] slots = new int[128];
+    private int live;
+    private int deleted;
+
+    /** Returns the car id for {@code vin}, or {@code -1} when it is not in the table. */
+    public long get(String vin) {
+        byte[] key = encode(vin);
+        int hash = hash(key);
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                long id = find(key, hash);
+                if (lock.validate(stamp)) return id;
+            } catch (RuntimeException e) {
+                // torn read while a writer resized the arrays; retry under the lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return find(key, hash);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public void put(String vin, long id) {
+        byte[] key = encode(vin);
+        int hash = hash(key);
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotOf(key, hash);
+            if (slot >= 0) {
+                ids[slots[slot] - 1] = id;
+                return;
+            }
+            if ((live + deleted + 1) * 4L > slots.length * 3L) rehash();
+            int entry = append(key, hash, id);
+            int mask = slots.length - 1;
+            int i = hash & mask;
+            while (slots[i] > 0) i = (i + 1) & mask;
+            if (slots[i] == DELETED) deleted--;
+            slots[i] = entry + 1;
+            live++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Removes {@code vin} if it still maps to {@code id}. */
+    public boolean remove(String vin, long id) {
+        byte[] key = encode(vin);
+        int hash = hash(key);
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotOf(key, hash);
+            if (slot < 0 || ids[slots[slot] - 1] != id) return false;
+            slots[slot] = DELETED;
+            live--;
+            deleted++;
+            if (entries > 1024 && live < entries / 2) rehash();
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return live;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** Bytes held by the backing arrays. */
+    public long heapBytes() {
+        long stamp = lock.readLock();
+        try {
+            return arena.length + 4L * offsets.length + 4L * hashes.length + 8L * ids.length + 4L * slots.length;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private long find(byte[] key, int hash) {
+        int[] table = slots;
+        int mask = table.length - 1;
+        for (int i = hash & mask, probes = 0; probes < table.length; i = (i + 1) & mask, probes++) {
+            int e = table[i];
+            if (e == FREE) return -1;
+            if (e > 0 && hashes[e - 1] == hash && matches(e - 1, key)) return ids[e - 1];
+        }
+        return -1;
+    }
+
+    private int slotOf(byte[] key, int hash) {
+        int mask = slots.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            int e = slots[i];
+            if (e == FREE) return -1;
+            if (e > 0 && hashes[e - 1] == hash && matches(e - 1, key)) return i;
+        }
+    }
+
+    private boolean matches(int entry, byte[] key) {
+        int offset = offsets[entry];
+        int length = arena[offset] & 0xFF;
+        return length == key.length && Arrays.equals(arena, offset + 1, offset + 1 + length, key, 0, length);
+    }
+
+    private int append(byte[] key, int hash, long id) {
+        if (arenaSize + key.length + 1 > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arenaSize + key.length + 1, arena.length + (arena.length >> 1)));
+        }
+        if (entries == ids.length) {
+            int capacity = entries + (entries >> 1);
+            offsets = Arrays.copyOf(offsets, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+        arena[arenaSize] = (byte) key.length;
+        System.arraycopy(key, 0, arena, arenaSize + 1, key.length);
+        offsets[entries] = arenaSize;
+        hashes[entries] = hash;
+        ids[entries] = id;
+        arenaSize += key.length + 1;
+        return entries++;
+    }
+
+    /** Rebuilds the table from the live entries, dropping tombstones and the bytes of removed VINs. */
+    private void rehash() {
+        int capacity = Integer.highestOneBit(Math.max(64, live) * 4 - 1);
+        int[] table = new int[capacity];
+        byte[] newArena = new byte[Math.max(1024, arenaSize)];
+        int[] newOffsets = new int[Math.max(64, live + (live >> 1) + 1)];
+        int[] newHashes = new int[newOffsets.length];
+        long[] newIds = new long[newOffsets.length];
+        int size = 0, n = 0;
+        for (int e : slots) {
+            if (e <= 0) continue;
+            int old = e - 1;
+            int length = (arena[offsets[old]] & 0xFF) + 1;
+            System.arraycopy(arena, offsets[old], newArena, size, length);
+            newOffsets[n] = size;
+            newHashes[n] = hashes[old];
+            newIds[n] = ids[old];
+            size += length;
+            int i = newHashes[n] & (capacity - 1);
+            while (table[i] != FREE) i = (i + 1) & (capacity - 1);
+            table[i] = ++n;
+        }
+        arena = newArena;
+        arenaSize = size;
+        offsets = newOffsets;
+        hashes = newHashes;
+        ids = newIds;
+        entries = n;
+        slots = table;
+        deleted = 0;
+    }
+
+    private static byte[] encode(String vin) {
+        byte[] key = vin.getBytes(StandardCharsets.UTF_8);
+        if (key.length > 255) throw new IllegalArgumentException("VIN longer than 255 bytes");
+        return key;
+    }
+
+    private static int hash(byte[] key) {
+        int h = 0x811C9DC5;
+        for (byte b : key) h = (h ^ b) * 0x01000193;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+}
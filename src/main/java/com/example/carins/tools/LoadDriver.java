@@ -0,0 +1,199 @@
+package com.example.carins.tools;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop HTTP load against the car endpoints. Requests start on a fixed schedule at
+ * {@code rate} per second whether or not earlier ones have finished, and each latency is measured
+ * from its scheduled start, so a stalled server shows up in the tail instead of slowing the driver
+ * down. Requests run on virtual threads; past {@code maxInFlight} outstanding requests new ones are
+ * counted as dropped rather than queued.
+ */
+public class LoadDriver {
+
+    public enum Endpoint {
+        INSURANCE_VALID("insurance-valid"),
+        INSURANCE_VALID_BY_VIN("insurance-valid-by-vin"),
+        HISTORY("history"),
+        COVERAGE("coverage"),
+        CARS("cars"),
+        CLAIM("claim");
+
+        private final String key;
+
+        Endpoint(String key) {
+            this.key = key;
+        }
+
+        public static Endpoint of(String key) {
+            for (Endpoint e : values()) if (e.key.equals(key)) return e;
+            throw new IllegalArgumentException("Unknown endpoint '" + key + "'");
+        }
+    }
+
+    public record Stats(String name, long requests, long errors, double throughput,
+                        double p50Ms, double p99Ms, double p999Ms, double maxMs) {}
+
+    public record Report(double targetRate, long dropped, List<Stats> endpoints, Stats total) {
+
+        public String format() {
+            StringBuilder out = new StringBuilder(String.format(Locale.ROOT,
+                    "target %.0f req/s, dropped %d%n%-24s %9s %7s %9s %9s %9s %9s %9s%n", targetRate, dropped,
+                    "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+            for (Stats s : endpoints) line(out, s);
+            line(out, total);
+            return out.toString();
+        }
+
+        private static void line(StringBuilder out, Stats s) {
+            out.append(String.format(Locale.ROOT, "%-24s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", s.name(), s.requests(),
+                    s.errors(), s.throughput(), s.p50Ms(), s.p99Ms(), s.p999Ms(), s.maxMs()));
+        }
+    }
+
+    /** Cars the requests are aimed at: an id range and a sample of their VINs. */
+    public record Targets(long firstCarId, long lastCarId, List<String> vins) {}
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Targets targets;
+    private final Map<Endpoint, Integer> mix;
+    private final int maxInFlight;
+
+    public LoadDriver(HttpClient client, String baseUrl, Targets targets, Map<Endpoint, Integer> mix, int maxInFlight) {
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("Endpoint mix needs a positive weight");
+        }
+        if (mix.getOrDefault(Endpoint.INSURANCE_VALID_BY_VIN, 0) > 0 && targets.vins().isEmpty()) {
+            throw new IllegalArgumentException("VIN requests need at least one VIN");
+        }
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.targets = targets;
+        this.mix = new EnumMap<>(mix);
+        this.maxInFlight = maxInFlight;
+    }
+
+    /** Parses {@code name=weight,...}, e.g. {@code insurance-valid=60,history=40}. */
+    public static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) throw new IllegalArgumentException("Expected name=weight, got '" + part + "'");
+            weights.put(Endpoint.of(kv[0].trim()), Integer.parseInt(kv[1].trim()));
+        }
+        return weights;
+    }
+
+    public Report run(double rate, Duration warmup, Duration duration) {
+        long interval = (long) (1_000_000_000 / rate);
+        Map<Endpoint, Histogram> latencies = new EnumMap<>(Endpoint.class);
+        Map<Endpoint, AtomicLong> errors = new EnumMap<>(Endpoint.class);
+        for (Endpoint e : mix.keySet()) {
+            latencies.put(e, new ConcurrentHistogram(3));
+            errors.put(e, new AtomicLong());
+        }
+        Endpoint[] wheel = wheel();
+        SplittableRandom random = new SplittableRandom(17);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long dropped = 0;
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long scheduled = start + i * interval;
+                if (scheduled >= end) break;
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+                boolean measured = scheduled >= measureFrom;
+                if (!inFlight.tryAcquire()) {
+                    if (measured) dropped++;
+                    continue;
+                }
+                Endpoint endpoint = wheel[random.nextInt(wheel.length)];
+                HttpRequest request = request(endpoint, random);
+                executor.execute(() -> {
+                    boolean failed;
+                    try {
+                        failed = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 400;
+                    } catch (Exception e) {
+                        failed = true;
+                    } finally {
+                        inFlight.release();
+                    }
+                    if (measured) {
+                        latencies.get(endpoint).recordValue((System.nanoTime() - scheduled) / 1000);
+                        if (failed) errors.get(endpoint).incrementAndGet();
+                    }
+                });
+            }
+        }
+        double seconds = Math.max(1, System.nanoTime() - measureFrom) / 1e9;
+
+        List<Stats> endpoints = new ArrayList<>();
+        Histogram all = new Histogram(3);
+        long allErrors = 0;
+        for (Endpoint e : mix.keySet()) {
+            Histogram h = latencies.get(e);
+            if (h.getTotalCount() == 0) continue;
+            all.add(h);
+            allErrors += errors.get(e).get();
+            endpoints.add(stats(e.key, h, errors.get(e).get(), seconds));
+        }
+        return new Report(rate, dropped, endpoints, stats("total", all, allErrors, seconds));
+    }
+
+    private Endpoint[] wheel() {
+        List<Endpoint> wheel = new ArrayList<>();
+        mix.forEach((e, weight) -> {
+            for (int i = 0; i < weight; i++) wheel.add(e);
+        });
+        return wheel.toArray(Endpoint[]::new);
+    }
+
+    private HttpRequest request(Endpoint endpoint, SplittableRandom random) {
+        long carId = random.nextLong(targets.firstCarId(), targets.lastCarId() + 1);
+        LocalDate date = LocalDate.now().minusDays(random.nextInt(3 * 365));
+        String path = switch (endpoint) {
+            case INSURANCE_VALID -> "/api/cars/" + carId + "/insurance-valid?date=" + date;
+            case INSURANCE_VALID_BY_VIN -> "/api/cars/by-vin/" + targets.vins().get(random.nextInt(targets.vins().size()))
+                    + "/insurance-valid?date=" + date;
+            case HISTORY -> "/api/cars/" + carId + "/history?limit=20";
+            case COVERAGE -> "/api/cars/" + carId + "/coverage?from=" + date.minusYears(1) + "&to=" + date;
+            case CARS -> "/api/cars?limit=50&after=" + (carId - 1);
+            case CLAIM -> "/api/cars/" + carId + "/claims";
+        };
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+        if (endpoint != Endpoint.CLAIM) return builder.GET().build();
+        String body = "{\"claimDate\":\"" + date + "\",\"description\":\"Load test claim\",\"amount\":"
+                + (50 + random.nextInt(5000)) + ".00}";
+        return builder.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private static Stats stats(String name, Histogram h, long errors, double seconds) {
+        return new Stats(name, h.getTotalCount(), errors, h.getTotalCount() / seconds,
+                h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(99) / 1000.0,
+                h.getValueAtPercentile(99.9) / 1000.0, h.getMaxValue() / 1000.0);
+    }
+}
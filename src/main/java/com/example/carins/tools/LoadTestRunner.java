@@ -0,0 +1,98 @@
+package com.example.carins.tools;
+
+import com.example.carins.repo.CarRepository;
+import com.example.carins.repo.IdRange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Runs a {@link LoadDriver} against this application's own HTTP port once it is ready, under the
+ * {@code loadtest} profile ({@code application-loadtest.properties}). Combine with {@code seed}
+ * for data to aim at. The report is logged, and with {@code insurance.loadtest.exit-when-done}
+ * the application then shuts down.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestRunner.class);
+    private static final int VIN_SAMPLE = 10_000;
+
+    private final CarRepository carRepository;
+    private final JdbcTemplate jdbc;
+
+    @Value("${insurance.loadtest.rate}")
+    private double rate;
+    @Value("${insurance.loadtest.warmup}")
+    private Duration warmup;
+    @Value("${insurance.loadtest.duration}")
+    private Duration duration;
+    @Value("${insurance.loadtest.max-in-flight}")
+    private int maxInFlight;
+    @Value("${insurance.loadtest.mix}")
+    private String mix;
+    @Value("${insurance.loadtest.exit-when-done}")
+    private boolean exitWhenDone;
+
+    public LoadTestRunner(CarRepository carRepository, JdbcTemplate jdbc) {
+        this.carRepository = carRepository;
+        this.jdbc = jdbc;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start(ApplicationReadyEvent event) {
+        if (!(event.getApplicationContext() instanceof WebServerApplicationContext web)) {
+            log.warn("Load test needs the embedded web server, skipping");
+            return;
+        }
+        Thread.ofPlatform().name("load-driver").start(() -> {
+            int exitCode = 0;
+            try (HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build()) {
+                IdRange ids = carRepository.findIdRange();
+                if (ids.isEmpty()) throw new IllegalStateException("No cars to load-test against");
+                var driver = new LoadDriver(client, "http://localhost:" + web.getWebServer().getPort(),
+                        new LoadDriver.Targets(ids.min(), ids.max(), sampleVins()), LoadDriver.parseMix(mix), maxInFlight);
+                log.info("Load test: {} req/s for {} after {} warm-up, mix {}", rate, duration, warmup, mix);
+                log.info("Load test report\n{}", driver.run(rate, warmup, duration).format());
+            } catch (RuntimeException e) {
+                log.error("Load test failed", e);
+                exitCode = 1;
+            }
+            if (exitWhenDone) {
+                int code = exitCode;
+                System.exit(SpringApplication.exit(web, () -> code));
+            }
+        });
+    }
+
+    /** Reservoir sample, so every car is equally likely to be picked without loading all VINs. */
+    private List<String> sampleVins() {
+        List<String> sample = new ArrayList<>(VIN_SAMPLE);
+        SplittableRandom random = new SplittableRandom(3);
+        long[] seen = {0};
+        jdbc.query("SELECT vin FROM car", rs -> {
+            long n = ++seen[0];
+            if (sample.size() < VIN_SAMPLE) {
+                sample.add(rs.getString(1));
+            } else {
+                long slot = random.nextLong(n);
+                if (slot < VIN_SAMPLE) sample.set((int) slot, rs.getString(1));
+            }
+        });
+        return sample;
+    }
+}
@@ -0,0 +1,469 @@
+package com.example.carins.tools;
+
+import com.example.carins.config.ReadFromPrimary;
+import com.example.carins.service.ResourceVersions;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Binary columnar snapshot of owners, cars, policies, claims and claim aggregates, for restarts
+ * that should not replay the data row by row through Hibernate.
+ * <p>
+ * Layout (little-endian): a 32-byte header with magic, format version, table count, body length
+ * and a CRC32C of the body, then each table in a fixed order as row groups of up to
+ * {@value #GROUP_ROWS} rows. A group is its row count followed by one block per column: 8 bytes
+ * per value for ids and amounts (in cents), 4 bytes for ints and dates (epoch day), and for
+ * strings 4-byte lengths ({@code -1} for null) followed by the UTF-8 bytes. A zero row count ends
+ * a table.
+ * <p>
+ * {@link #load} maps the file read-only, checks the header and checksum before touching the
+ * database, then replaces the tables with JDBC batches, committing once per row group. It is meant
+ * for startup ({@code insurance.snapshot.load-on-startup}), before the in-memory indexes load.
+ */
+@Component
+public class PortfolioSnapshot implements ApplicationRunner {
+
+    public record Result(Map<String, Long> rows, long bytes, long elapsedMs) {}
+
+    private static final Logger log = LoggerFactory.getLogger(PortfolioSnapshot.class);
+
+    static final long MAGIC = 0x31504E534E495243L; // "CRINSNP1" read little-endian
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int GROUP_ROWS = 65_536;
+    private static final int BATCH = 1000;
+    private static final int SCALE = 2;
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+
+    private enum Type { LONG, INT, DATE, DECIMAL, STRING }
+
+    private record Column(String name, Type type) {}
+
+    private record Table(String name, Column... columns) {
+        String select() {
+            return "SELECT " + names() + " FROM " + name + " ORDER BY " + columns[0].name();
+        }
+
+        String insert() {
+            return "INSERT INTO " + name + " (" + names() + ") VALUES (" + "?, ".repeat(columns.length - 1) + "?)";
+        }
+
+        private String names() {
+            return Arrays.stream(columns).map(Column::name).collect(Collectors.joining(", "));
+        }
+    }
+
+    private static final List<Table> TABLES = List.of(
+            new Table("owner", col("id", Type.LONG), col("name", Type.STRING), col("email", Type.STRING)),
+            new Table("car", col("id", Type.LONG), col("vin", Type.STRING), col("make", Type.STRING),
+                    col("model", Type.STRING), col("year_of_manufacture", Type.INT), col("owner_id", Type.LONG)),
+            new Table("insurancepolicy", col("id", Type.LONG), col("car_id", Type.LONG), col("provider", Type.STRING),
+                    col("start_date", Type.DATE), col("end_date", Type.DATE)),
+            new Table("claim", col("id", Type.LONG), col("car_id", Type.LONG), col("claim_date", Type.DATE),
+                    col("description", Type.STRING), col("amount", Type.DECIMAL), col("tracking_id", Type.STRING)),
+            new Table("car_claim_stats", col("car_id", Type.LONG), col("claim_count", Type.LONG),
+                    col("total_amount", Type.DECIMAL), col("max_amount", Type.DECIMAL), col("last_claim_date", Type.DATE)));
+
+    private final JdbcTemplate jdbc;
+    private final EntityManagerFactory emf;
+    private final ResourceVersions versions;
+    private final Path path;
+    private final boolean loadOnStartup;
+
+    public PortfolioSnapshot(JdbcTemplate jdbc, EntityManagerFactory emf, ResourceVersions versions,
+                             @Value("${insurance.snapshot.path:${java.io.tmpdir}/carins-portfolio.snap}") Path path,
+                             @Value("${insurance.snapshot.load-on-startup:false}") boolean loadOnStartup) {
+        this.jdbc = jdbc;
+        this.emf = emf;
+        this.versions = versions;
+        this.path = path;
+        this.loadOnStartup = loadOnStartup;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!loadOnStartup) return;
+        if (!Files.exists(path)) {
+            log.info("No snapshot at {}, keeping the seeded data", path);
+            return;
+        }
+        load(path);
+    }
+
+    /** Writes every table from one consistent read of the primary to {@code file}, atomically. */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    @ReadFromPrimary
+    public Result export(Path file) throws IOException {
+        long started = System.nanoTime();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Map<String, Long> rows = new LinkedHashMap<>();
+        long size;
+        try (FileChannel out = FileChannel.open(tmp, CREATE, TRUNCATE_EXISTING, WRITE)) {
+            CRC32C crc = new CRC32C();
+            out.position(HEADER_BYTES);
+            for (Table table : TABLES) {
+                GroupWriter writer = new GroupWriter(table, out, crc);
+                jdbc.query(table.select(), writer);
+                rows.put(table.name(), writer.finish());
+            }
+            size = out.position();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                    .putLong(MAGIC).putInt(VERSION).putInt(TABLES.size())
+                    .putLong(size - HEADER_BYTES).putInt((int) crc.getValue()).putInt(0)
+                    .flip();
+            out.write(header, 0);
+            out.force(true);
+        }
+        Files.move(tmp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        long elapsed = (System.nanoTime() - started) / 1_000_000;
+        log.info("Exported snapshot {} ({} bytes) with {} in {} ms", file, size, rows, elapsed);
+        return new Result(rows, size, elapsed);
+    }
+
+    /**
+     * Replaces owners, cars, policies, claims and claim aggregates with the content of
+     * {@code file}. A file that fails the header or checksum check is rejected before anything is
+     * deleted; a failure while inserting leaves the tables partially loaded.
+     */
+    public Result load(Path file) throws IOException {
+        long started = System.nanoTime();
+        Map<String, Long> rows;
+        long size;
+        try (FileChannel in = FileChannel.open(file, READ)) {
+            size = in.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Snapshot " + file + " has unsupported size " + size);
+            }
+            ByteBuffer buf = in.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+            verify(file, buf);
+            rows = jdbc.execute((ConnectionCallback<Map<String, Long>>) con -> replaceAll(con, buf));
+        }
+
+        restartIdentity("owner");
+        restartIdentity("car");
+        restartSequence("policy_seq", "insurancepolicy");
+        restartSequence("claim_seq", "claim");
+        emf.getCache().unwrap(Cache.class).evictAllRegions();
+        versions.invalidateAll();
+
+        long elapsed = (System.nanoTime() - started) / 1_000_000;
+        log.info("Loaded snapshot {} with {} in {} ms", file, rows, elapsed);
+        return new Result(rows, size, elapsed);
+    }
+
+    private static void verify(Path file, ByteBuffer buf) {
+        if (buf.getLong(0) != MAGIC) {
+            throw new IllegalStateException(file + " is not a portfolio snapshot");
+        }
+        if (buf.getInt(8) != VERSION || buf.getInt(12) != TABLES.size()) {
+            throw new IllegalStateException("Snapshot " + file + " has format version " + buf.getInt(8)
+                    + " with " + buf.getInt(12) + " tables, expected version " + VERSION);
+        }
+        if (buf.getLong(16) != buf.capacity() - HEADER_BYTES) {
+            throw new IllegalStateException("Snapshot " + file + " is truncated");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buf.slice(HEADER_BYTES, buf.capacity() - HEADER_BYTES));
+        if ((int) crc.getValue() != buf.getInt(24)) {
+            throw new IllegalStateException("Snapshot " + file + " failed its checksum");
+        }
+    }
+
+    private static Map<String, Long> replaceAll(Connection con, ByteBuffer buf) throws SQLException {
+        Map<String, Long> rows = new LinkedHashMap<>();
+        boolean autoCommit = con.getAutoCommit();
+        try (Statement st = con.createStatement()) {
+            // The snapshot was consistent when taken; checking every foreign key again only slows the load.
+            st.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            try {
+                for (Table table : TABLES.reversed()) st.execute("TRUNCATE TABLE " + table.name());
+                con.setAutoCommit(false);
+                int pos = HEADER_BYTES;
+                for (Table table : TABLES) {
+                    GroupReader reader = new GroupReader(table, buf, pos);
+                    rows.put(table.name(), reader.insertInto(con));
+                    pos = reader.pos;
+                }
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(autoCommit);
+                st.execute("SET REFERENTIAL_INTEGRITY TRUE");
+            }
+        }
+        return rows;
+    }
+
+    private void restartIdentity(String table) {
+        jdbc.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + nextId(table));
+    }
+
+    /** Pooled sequences hand out the block below the value they read, so restart one full increment ahead. */
+    private void restartSequence(String sequence, String table) {
+        Long increment = jdbc.queryForObject(
+                "SELECT INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?", Long.class, sequence.toUpperCase());
+        jdbc.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (nextId(table) - 1 + increment));
+    }
+
+    private long nextId(String table) {
+        Long max = jdbc.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return max == null ? 1 : max + 1;
+    }
+
+    private static Column col(String name, Type type) {
+        return new Column(name, type);
+    }
+
+    /** Buffers up to one row group per column and writes it out columnar. */
+    private static final class GroupWriter implements RowCallbackHandler {
+        private final Column[] columns;
+        private final FileChannel out;
+        private final CRC32C crc;
+        private final long[][] longs;
+        private final int[][] ints;
+        private final byte[][][] strings;
+        private ByteBuffer buffer = ByteBuffer.allocate(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private int rows;
+        private long total;
+
+        GroupWriter(Table table, FileChannel out, CRC32C crc) {
+            this.columns = table.columns();
+            this.out = out;
+            this.crc = crc;
+            longs = new long[columns.length][];
+            ints = new int[columns.length][];
+            strings = new byte[columns.length][][];
+            for (int c = 0; c < columns.length; c++) {
+                switch (columns[c].type()) {
+                    case LONG, DECIMAL -> longs[c] = new long[GROUP_ROWS];
+                    case INT, DATE -> ints[c] = new int[GROUP_ROWS];
+                    case STRING -> strings[c] = new byte[GROUP_ROWS][];
+                }
+            }
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            for (int c = 0; c < columns.length; c++) {
+                int i = c + 1;
+                switch (columns[c].type()) {
+                    case LONG -> {
+                        long v = rs.getLong(i);
+                        longs[c][rows] = rs.wasNull() ? NULL_LONG : v;
+                    }
+                    case INT -> {
+                        int v = rs.getInt(i);
+                        ints[c][rows] = rs.wasNull() ? NULL_INT : v;
+                    }
+                    case DATE -> {
+                        LocalDate d = rs.getObject(i, LocalDate.class);
+                        ints[c][rows] = d == null ? NULL_INT : Math.toIntExact(d.toEpochDay());
+                    }
+                    case DECIMAL -> {
+                        BigDecimal d = rs.getBigDecimal(i);
+                        longs[c][rows] = d == null ? NULL_LONG : d.setScale(SCALE).unscaledValue().longValueExact();
+                    }
+                    case STRING -> {
+                        String s = rs.getString(i);
+                        strings[c][rows] = s == null ? null : s.getBytes(UTF_8);
+                    }
+                }
+            }
+            if (++rows == GROUP_ROWS) flush();
+        }
+
+        long finish() {
+            flush();
+            write(buffer.clear().putInt(0).flip());
+            return total;
+        }
+
+        private void flush() {
+            if (rows == 0) return;
+            long size = 4;
+            for (int c = 0; c < columns.length; c++) {
+                size += switch (columns[c].type()) {
+                    case LONG, DECIMAL -> 8L * rows;
+                    case INT, DATE -> 4L * rows;
+                    case STRING -> {
+                        long bytes = 4L * rows;
+                        for (int r = 0; r < rows; r++) bytes += strings[c][r] == null ? 0 : strings[c][r].length;
+                        yield bytes;
+                    }
+                };
+            }
+            if (size > buffer.capacity()) {
+                buffer = ByteBuffer.allocate(Math.toIntExact(size)).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            buffer.clear().putInt(rows);
+            for (int c = 0; c < columns.length; c++) {
+                switch (columns[c].type()) {
+                    case LONG, DECIMAL -> {
+                        buffer.asLongBuffer().put(longs[c], 0, rows);
+                        buffer.position(buffer.position() + 8 * rows);
+                    }
+                    case INT, DATE -> {
+                        buffer.asIntBuffer().put(ints[c], 0, rows);
+                        buffer.position(buffer.position() + 4 * rows);
+                    }
+                    case STRING -> {
+                        for (int r = 0; r < rows; r++) buffer.putInt(strings[c][r] == null ? -1 : strings[c][r].length);
+                        for (int r = 0; r < rows; r++) {
+                            if (strings[c][r] != null) buffer.put(strings[c][r]);
+                            strings[c][r] = null;
+                        }
+                    }
+                }
+            }
+            write(buffer.flip());
+            total += rows;
+            rows = 0;
+        }
+
+        private void write(ByteBuffer bytes) {
+            crc.update(bytes.duplicate());
+            try {
+                while (bytes.hasRemaining()) out.write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /** Reads the row groups of one table straight from the mapped file into insert batches. */
+    private static final class GroupReader {
+        private final Table table;
+        private final Column[] columns;
+        private final ByteBuffer buf;
+        private final int[] offsets;
+        private byte[] scratch = new byte[256];
+        int pos;
+
+        GroupReader(Table table, ByteBuffer buf, int pos) {
+            this.table = table;
+            this.columns = table.columns();
+            this.buf = buf;
+            this.pos = pos;
+            this.offsets = new int[columns.length];
+        }
+
+        long insertInto(Connection con) throws SQLException {
+            long total = 0;
+            try (PreparedStatement ps = con.prepareStatement(table.insert())) {
+                int rows;
+                while ((rows = buf.getInt(pos)) > 0) {
+                    pos += 4;
+                    int[] strings = locateColumns(rows);
+                    for (int r = 0; r < rows; r++) {
+                        for (int c = 0; c < columns.length; c++) bind(ps, c, r, strings);
+                        ps.addBatch();
+                        if ((r + 1) % BATCH == 0) ps.executeBatch();
+                    }
+                    ps.executeBatch();
+                    con.commit();
+                    total += rows;
+                }
+            }
+            pos += 4;
+            return total;
+        }
+
+        /** Records where each column block starts, moves {@link #pos} past the group and returns the string cursors. */
+        private int[] locateColumns(int rows) {
+            int[] strings = new int[columns.length];
+            for (int c = 0; c < columns.length; c++) {
+                offsets[c] = pos;
+                switch (columns[c].type()) {
+                    case LONG, DECIMAL -> pos += 8 * rows;
+                    case INT, DATE -> pos += 4 * rows;
+                    case STRING -> {
+                        pos += 4 * rows;
+                        strings[c] = pos;
+                        for (int r = 0; r < rows; r++) pos += Math.max(0, buf.getInt(offsets[c] + 4 * r));
+                    }
+                }
+            }
+            return strings;
+        }
+
+        private void bind(PreparedStatement ps, int c, int r, int[] strings) throws SQLException {
+            int i = c + 1;
+            switch (columns[c].type()) {
+                case LONG -> {
+                    long v = buf.getLong(offsets[c] + 8 * r);
+                    if (v == NULL_LONG) ps.setNull(i, Types.BIGINT); else ps.setLong(i, v);
+                }
+                case DECIMAL -> {
+                    long v = buf.getLong(offsets[c] + 8 * r);
+                    if (v == NULL_LONG) ps.setNull(i, Types.DECIMAL); else ps.setBigDecimal(i, BigDecimal.valueOf(v, SCALE));
+                }
+                case INT -> {
+                    int v = buf.getInt(offsets[c] + 4 * r);
+                    if (v == NULL_INT) ps.setNull(i, Types.INTEGER); else ps.setInt(i, v);
+                }
+                case DATE -> {
+                    int v = buf.getInt(offsets[c] + 4 * r);
+                    if (v == NULL_INT) ps.setNull(i, Types.DATE); else ps.setObject(i, LocalDate.ofEpochDay(v));
+                }
+                case STRING -> {
+                    int length = buf.getInt(offsets[c] + 4 * r);
+                    if (length < 0) {
+                        ps.setNull(i, Types.VARCHAR);
+                        return;
+                    }
+                    if (length > scratch.length) scratch = new byte[Math.max(length, 2 * scratch.length)];
+                    buf.get(strings[c], scratch, 0, length);
+                    strings[c] += length;
+                    ps.setString(i, new String(scratch, 0, length, UTF_8));
+                }
+            }
+        }
+    }
+}
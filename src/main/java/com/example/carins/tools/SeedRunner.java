@@ -0,0 +1,50 @@
+package com.example.carins.tools;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Seeds the database at startup under the {@code seed} profile, sized by {@code insurance.seed.*}
+ * (defaults in {@code application-seed.properties}). With {@code insurance.seed.export-snapshot}
+ * the result is also written as a {@link PortfolioSnapshot}, so later starts can load it instead.
+ */
+@Component
+@Profile("seed")
+public class SeedRunner implements ApplicationRunner {
+
+    private final SyntheticDataGenerator generator;
+    private final PortfolioSnapshot snapshot;
+
+    @Value("${insurance.seed.owners}")
+    private int owners;
+    @Value("${insurance.seed.cars}")
+    private int cars;
+    @Value("${insurance.seed.policies-per-car}")
+    private int policiesPerCar;
+    @Value("${insurance.seed.claims-per-car}")
+    private int claimsPerCar;
+    @Value("${insurance.seed.random-seed}")
+    private long seed;
+    @Value("${insurance.seed.claim-skew}")
+    private double claimSkew;
+    @Value("${insurance.seed.overlap-rate}")
+    private double overlapRate;
+    @Value("${insurance.seed.export-snapshot:false}")
+    private boolean exportSnapshot;
+
+    public SeedRunner(SyntheticDataGenerator generator, PortfolioSnapshot snapshot) {
+        this.generator = generator;
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        generator.generate(new SyntheticDataGenerator.Spec(owners, cars, policiesPerCar, claimsPerCar, seed, claimSkew, overlapRate));
+        if (exportSnapshot) snapshot.export(snapshot.path());
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.carins.tools;
+
+import com.example.carins.service.ResourceVersions;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Seeds owners, cars, policies and claims straight through JDBC batches. Owner and car ids are
+ * appended after the current maximum and their identity columns restarted afterwards, policies and
+ * claims draw from their sequences, so the generated rows live alongside {@code import.sql} data
+ * and later JPA inserts. The writes bypass Hibernate, so the
+ * second-level cache is evicted and all HTTP ETags are invalidated once they are done.
+ * <p>
+ * VINs are 17 characters in the ISO 3779 alphabet with a maker prefix, model-year code, valid check
+ * digit and a serial derived from the car id, so they are unique. With a positive
+ * {@link Spec#claimSkew()} claims are spread over cars by a Zipf law instead of evenly, and
+ * {@link Spec#overlapRate()} is the share of renewals that start before the previous policy ends.
+ */
+@Component
+public class SyntheticDataGenerator {
+
+    public record Spec(int owners, int cars, int policiesPerCar, int claimsPerCar, long seed,
+                       double claimSkew, double overlapRate) {
+
+        /** Exactly {@code claimsPerCar} claims per car and no forced policy overlaps. */
+        public Spec(int owners, int cars, int policiesPerCar, int claimsPerCar, long seed) {
+            this(owners, cars, policiesPerCar, claimsPerCar, seed, 0, 0);
+        }
+    }
+
+    public record Result(long firstCarId, long lastCarId, long policies, long claims, long elapsedMs) {}
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+    private static final int BATCH = 1000;
+    private static final String[] MAKES = {"Dacia", "VW", "Ford", "Toyota", "Renault", "Skoda", "BMW"};
+    private static final String[] MAKER_CODES = {"UU1", "WVW", "WF0", "JTD", "VF1", "TMB", "WBA"};
+    private static final String VIN_CHARS = "0123456789ABCDEFGHJKLMNPRSTUVWXYZ";
+    private static final String YEAR_CODES = "ABCDEFGHJKLMNPRSTVWXY123456789";
+    private static final String VIN_VALUES = "12345678012345070923456789";
+    private static final int[] VIN_WEIGHTS = {8, 7, 6, 5, 4, 3, 2, 10, 0, 9, 8, 7, 6, 5, 4, 3, 2};
+    private static final String[] PROVIDERS = {"Allianz", "Groupama", "Generali", "Omniasig", "Asirom"};
+    private static final String[] CLAIM_CAUSES = {"Collision with", "Hail damage to", "Vandalism of", "Theft of",
+            "Scratch on", "Dent in", "Flood damage to", "Fire damage to", "Broken", "Cracked", "Stone chip in",
+            "Rear-end impact on", "Side impact on", "Tree fell on", "Animal strike on"};
+    private static final String[] CLAIM_PARTS = {"front bumper", "rear bumper", "windshield", "left door",
+            "right door", "hood", "trunk lid", "side mirror", "headlight", "tail light", "roof", "wheel rim",
+            "radiator", "exhaust", "fender", "side window", "tailgate", "grille"};
+    private static final String[] CLAIM_PLACES = {"in a parking lot", "on the highway", "at an intersection",
+            "in a roundabout", "while parked on the street", "in a garage", "at a fuel station", "in city traffic",
+            "on a rural road", "during a storm", "overnight", "in a car wash"};
+
+    private final JdbcTemplate jdbc;
+    private final EntityManagerFactory emf;
+    private final ResourceVersions versions;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbc, EntityManagerFactory emf, ResourceVersions versions) {
+        this.jdbc = jdbc;
+        this.emf = emf;
+        this.versions = versions;
+    }
+
+    public Result generate(Spec spec) {
+        if (spec.owners() < 1 || spec.cars() < 1 || spec.policiesPerCar() < 0 || spec.claimsPerCar() < 0) {
+            throw new IllegalArgumentException("Need at least one owner and one car: " + spec);
+        }
+        if (spec.claimSkew() < 0 || spec.overlapRate() < 0 || spec.overlapRate() > 1) {
+            throw new IllegalArgumentException("Claim skew must be >= 0 and overlap rate within [0, 1]: " + spec);
+        }
+        long started = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(spec.seed());
+        LocalDate today = LocalDate.now();
+
+        long firstOwner = nextId("owner");
+        batch("INSERT INTO owner (id, name, email) VALUES (?, ?, ?)", spec.owners(), i -> {
+            long id = firstOwner + i;
+            return new Object[]{id, "Owner " + id, "owner" + id + "@example.com"};
+        });
+
+        long firstCar = nextId("car");
+        batch("INSERT INTO car (id, vin, make, model, year_of_manufacture, owner_id) VALUES (?, ?, ?, ?, ?, ?)", spec.cars(), i -> {
+            long id = firstCar + i;
+            int make = random.nextInt(MAKES.length);
+            int year = 1995 + random.nextInt(31);
+            return new Object[]{id, vin(id, make, year, random), MAKES[make], "Model " + (id % 40),
+                    year, firstOwner + random.nextInt(spec.owners())};
+        });
+
+        long policies = (long) spec.cars() * spec.policiesPerCar();
+        LocalDate[] previousEnd = new LocalDate[1];
+        if (policies > 0) batch("INSERT INTO insurancepolicy (id, car_id, provider, start_date, end_date) VALUES (NEXT VALUE FOR policy_seq, ?, ?, ?, ?)", policies, i -> {
+            long car = firstCar + i / spec.policiesPerCar();
+            int year = (int) (i % spec.policiesPerCar());
+            LocalDate start = today.minusYears(spec.policiesPerCar() - 1 - year).minusDays(random.nextInt(60));
+            if (year > 0 && spec.overlapRate() > 0 && random.nextDouble() < spec.overlapRate()) {
+                start = previousEnd[0].minusDays(1 + random.nextInt(90));
+            }
+            LocalDate end = start.plusYears(1).minusDays(1);
+            previousEnd[0] = end;
+            return new Object[]{car, PROVIDERS[random.nextInt(PROVIDERS.length)],
+                    Date.valueOf(start), Date.valueOf(end)};
+        });
+
+        long claims = (long) spec.cars() * spec.claimsPerCar();
+        LongUnaryOperator claimCar = spec.claimSkew() > 0
+                ? zipf(spec.cars(), spec.claimSkew(), random)
+                : i -> i / spec.claimsPerCar();
+        SplittableRandom words = new SplittableRandom(spec.seed() + 1);
+        if (claims > 0) batch("INSERT INTO claim (id, car_id, claim_date, description, amount) VALUES (NEXT VALUE FOR claim_seq, ?, ?, ?, ?)", claims, i -> {
+            long car = firstCar + claimCar.applyAsLong(i);
+            return new Object[]{car, Date.valueOf(today.minusDays(random.nextInt(3 * 365))),
+                    claimDescription(words), BigDecimal.valueOf(5_000 + random.nextInt(500_000), 2)};
+        });
+
+        if (claims > 0) jdbc.update("INSERT INTO car_claim_stats (car_id, claim_count, total_amount, max_amount, last_claim_date) "
+                + "SELECT car_id, COUNT(*), SUM(amount), MAX(amount), MAX(claim_date) FROM claim "
+                + "WHERE car_id BETWEEN ? AND ? GROUP BY car_id", firstCar, firstCar + spec.cars() - 1);
+
+        restartIdentity("owner");
+        restartIdentity("car");
+        emf.getCache().unwrap(Cache.class).evictAllRegions();
+        versions.invalidateAll();
+
+        long elapsed = (System.nanoTime() - started) / 1_000_000;
+        log.info("Generated {} owners, {} cars, {} policies, {} claims in {} ms", spec.owners(), spec.cars(), policies, claims, elapsed);
+        return new Result(firstCar, firstCar + spec.cars() - 1, policies, claims, elapsed);
+    }
+
+    /** A short accident report such as "Hail damage to hood during a storm". */
+    static String claimDescription(SplittableRandom random) {
+        return CLAIM_CAUSES[random.nextInt(CLAIM_CAUSES.length)] + " " + CLAIM_PARTS[random.nextInt(CLAIM_PARTS.length)]
+                + " " + CLAIM_PLACES[random.nextInt(CLAIM_PLACES.length)];
+    }
+
+    /**
+     * Maker code, five random descriptor characters, check digit, model-year code, then the car id
+     * in base 33 over the last seven positions.
+     */
+    static String vin(long id, int make, int year, SplittableRandom random) {
+        char[] vin = new char[17];
+        MAKER_CODES[make].getChars(0, 3, vin, 0);
+        for (int p = 3; p < 8; p++) vin[p] = VIN_CHARS.charAt(random.nextInt(VIN_CHARS.length()));
+        vin[8] = '0';
+        vin[9] = YEAR_CODES.charAt(Math.floorMod(year - 1980, YEAR_CODES.length()));
+        long serial = id;
+        for (int p = 16; p >= 10; p--) {
+            vin[p] = VIN_CHARS.charAt((int) (serial % VIN_CHARS.length()));
+            serial /= VIN_CHARS.length();
+        }
+        vin[8] = checkDigit(vin);
+        return new String(vin);
+    }
+
+    static char checkDigit(char[] vin) {
+        int sum = 0;
+        for (int p = 0; p < vin.length; p++) {
+            char c = vin[p];
+            sum += (c <= '9' ? c - '0' : VIN_VALUES.charAt(c - 'A') - '0') * VIN_WEIGHTS[p];
+        }
+        int check = sum % 11;
+        return check == 10 ? 'X' : (char) ('0' + check);
+    }
+
+    /**
+     * Car offsets drawn with weight {@code 1 / rank^skew}. Ranks are scattered over the id range
+     * with a stride coprime to the car count, so the busiest cars are not neighbours.
+     */
+    private static LongUnaryOperator zipf(int cars, double skew, SplittableRandom random) {
+        double[] cumulative = new double[cars];
+        double sum = 0;
+        for (int k = 0; k < cars; k++) cumulative[k] = sum += Math.pow(k + 1, -skew);
+        double total = sum;
+        long stride = Math.max(1, (long) (cars * 0.6180339887));
+        while (gcd(stride, cars) != 1) stride++;
+        long step = stride;
+        return i -> {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            return (rank < 0 ? -rank - 1 : rank) * step % cars;
+        };
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private interface RowSource {
+        Object[] row(long i);
+    }
+
+    private void batch(String sql, long count, RowSource source) {
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        for (long i = 0; i < count; i++) {
+            rows.add(source.row(i));
+            if (rows.size() == BATCH) {
+                jdbc.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) jdbc.batchUpdate(sql, rows);
+    }
+
+    private long nextId(String table) {
+        Long max = jdbc.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return max == null ? 1 : max + 1;
+    }
+
+    private void restartIdentity(String table) {
+        jdbc.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + nextId(table));
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.carins.tools;
+
+import com.example.carins.repo.CarRepository;
+import com.example.carins.repo.IdRange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Sends {@code insurance.warmup.rounds} rounds of the hot read requests to this application's own
+ * HTTP port once it is ready, after the in-memory indexes have loaded. Lazily created beans,
+ * Hibernate query plans, pooled connections and JIT-compiled code are then in place before the
+ * readiness probe reports {@code ACCEPTING_TRAFFIC}. With {@code insurance.warmup.exit-when-done}
+ * the application shuts down afterwards, which ends the CDS training run.
+ */
+@Component
+public class WarmUpRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmUpRunner.class);
+
+    private final CarRepository carRepository;
+
+    @Value("${insurance.warmup.enabled:false}")
+    private boolean enabled;
+    @Value("${insurance.warmup.rounds:200}")
+    private int rounds;
+    @Value("${insurance.warmup.exit-when-done:false}")
+    private boolean exitWhenDone;
+
+    public WarmUpRunner(CarRepository carRepository) {
+        this.carRepository = carRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void warmUp(ApplicationReadyEvent event) {
+        if (!enabled) return;
+        if (!(event.getApplicationContext() instanceof WebServerApplicationContext web)) {
+            log.warn("Warm-up needs the embedded web server, skipping");
+            return;
+        }
+        IdRange ids = carRepository.findIdRange();
+        if (ids.isEmpty()) {
+            log.info("No cars to warm up against, skipping");
+        } else {
+            run("http://localhost:" + web.getWebServer().getPort(), ids);
+        }
+        if (exitWhenDone) {
+            Thread.ofPlatform().name("warm-up-exit").start(() -> System.exit(SpringApplication.exit(web, () -> 0)));
+        }
+    }
+
+    private void run(String baseUrl, IdRange ids) {
+        long started = System.nanoTime();
+        String vin = carRepository.findById(ids.min()).orElseThrow().getVin();
+        LocalDate today = LocalDate.now();
+        long span = ids.max() - ids.min() + 1;
+        int sent = 0, failed = 0;
+        try (HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build()) {
+            for (int round = 0; round < rounds; round++) {
+                long carId = ids.min() + (round * 7919L) % span;
+                LocalDate date = today.minusDays(round % 1000);
+                for (String path : List.of(
+                        "/api/cars?limit=20",
+                        "/api/cars/" + carId + "/insurance-valid?date=" + date,
+                        "/api/cars/by-vin/" + vin + "/insurance-valid?date=" + date,
+                        "/api/cars/" + carId + "/history?limit=20&order=desc",
+                        "/api/cars/" + carId + "/coverage?from=" + date.minusYears(1) + "&to=" + date,
+                        "/api/claims/search?q=windshield&limit=20")) {
+                    sent++;
+                    if (!get(client, baseUrl + path)) failed++;
+                }
+            }
+        }
+        log.info("Warm-up sent {} requests in {} ms, {} failed", sent, (System.nanoTime() - started) / 1_000_000, failed);
+    }
+
+    private static boolean get(HttpClient client, String url) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("X-Client-Id", "warm-up")
+                .timeout(Duration.ofSeconds(10))
+                .build();
+        try {
+            // a car missing from a sparse id range answers 404, which exercises the same code
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 500;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -2,19 +2,41 @@ package com.example.carins.web;
 
 import com.example.carins.model.Car;
 import com.example.carins.model.Claim;
+import com.example.carins.service.AsyncClaimService;
+import com.example.carins.service.CarQueryService;
 import com.example.carins.service.CarService;
+import com.example.carins.service.ClaimCursor;
+import com.example.carins.service.CoverageTimeline;
+import com.example.carins.service.ValidityCheck;
+import com.example.carins.web.dto.AsyncClaimStatus;
 import com.example.carins.web.dto.CarDto;
+import com.example.carins.web.dto.CarPage;
 import com.example.carins.web.dto.ClaimDto;
+import com.example.carins.web.dto.ClaimPage;
+import com.example.carins.web.dto.CoverageDto;
 import com.example.carins.web.dto.CreateClaimRequest;
+import com.example.carins.web.dto.InsuranceValidityQuery;
+import com.example.carins.web.dto.InsuranceValidityResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -22,19 +44,81 @@ import java.util.List;
 public class CarController {
 
     private final CarService service;
+    private final CarQueryService queryService;
+    private final ObjectMapper objectMapper;
+    private final AsyncClaimService asyncClaims;
 
-    public CarController(CarService service) {
+    @Value("${insurance.validity-batch.max-size:10000}")
+    private int validityBatchMaxSize;
+
+    @Value("${insurance.validity-batch.stream-chunk-size:1000}")
+    private int validityStreamChunkSize;
+
+    public CarController(CarService service, CarQueryService queryService, ObjectMapper objectMapper,
+                         AsyncClaimService asyncClaims) {
         this.service = service;
+        this.queryService = queryService;
+        this.objectMapper = objectMapper;
+        this.asyncClaims = asyncClaims;
     }
 
     @GetMapping("/cars")
     public List<CarDto> getCars() {
-        return service.listCars().stream().map(this::toDto).toList();
+        return queryService.listCars();
+    }
+
+    @GetMapping(value = "/cars", params = "limit")
+    public CarPage getCarsPage(@RequestParam(required = false) Long after, @RequestParam int limit) {
+        List<Car> cars = service.listCars(after, limit);
+        boolean more = cars.size() > limit;
+        List<CarDto> items = cars.stream().limit(limit).map(this::toDto).toList();
+        return new CarPage(items, more ? items.get(items.size() - 1).id() : null);
+    }
+
+    @GetMapping(value = "/cars", produces = Ndjson.MEDIA_TYPE)
+    public void streamCars(HttpServletResponse response) throws IOException {
+        response.setContentType(Ndjson.MEDIA_TYPE);
+        OutputStream out = new BufferedOutputStream(response.getOutputStream(), 64 * 1024);
+        try {
+            service.streamCars(car -> {
+                try {
+                    Ndjson.write(objectMapper, out, toDto(car));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
     }
 
     @GetMapping("/cars/{carId}/history")
     public List<ClaimDto> getCarHistory(@PathVariable Long carId) {
-        return service.listClaims(carId).stream().map(this::toDto).toList();
+        return queryService.listClaims(carId);
+    }
+
+    @GetMapping(value = "/cars/{carId}/history", params = "limit")
+    public ClaimPage getCarHistoryPage(@PathVariable Long carId,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                       @RequestParam(defaultValue = "asc") String order,
+                                       @RequestParam(required = false) String cursor,
+                                       @RequestParam int limit) {
+        boolean descending = switch (order.toLowerCase()) {
+            case "asc" -> false;
+            case "desc" -> true;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Order must be 'asc' or 'desc'");
+        };
+        List<Claim> claims = service.listClaims(carId, from, to, descending, ClaimCursor.parse(cursor), limit);
+        boolean more = claims.size() > limit;
+        List<Claim> page = more ? claims.subList(0, limit) : claims;
+        String next = null;
+        if (more) {
+            Claim last = page.get(page.size() - 1);
+            next = new ClaimCursor(last.getClaimDate(), last.getId()).toString();
+        }
+        return new ClaimPage(page.stream().map(this::toDto).toList(), next);
     }
 
     @GetMapping("/cars/{carId}/insurance-valid")
@@ -50,14 +134,113 @@ public class CarController {
         return ResponseEntity.ok(new InsuranceValidityResponse(carId, d.toString(), valid));
     }
 
+    @GetMapping("/cars/{carId}/coverage")
+    public CoverageDto getCoverage(@PathVariable Long carId,
+                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        CoverageTimeline t = service.coverageTimeline(carId, from, to);
+        return new CoverageDto(carId, t.from(), t.to(), t.coveredDays(), t.uncoveredDays(),
+                t.segments().stream().map(s -> new CoverageDto.Interval(s.from(), s.to(), s.covered())).toList(),
+                t.overlaps().stream().map(o -> new CoverageDto.Overlap(o.policyId(), o.otherPolicyId(), o.from(), o.to())).toList());
+    }
+
+    @PostMapping(value = "/cars/insurance-valid", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<InsuranceValidityResult> checkInsuranceValidity(@RequestBody List<InsuranceValidityQuery> queries) {
+        if (queries.size() > validityBatchMaxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Batch exceeds " + validityBatchMaxSize + " items. Send larger inputs as " + Ndjson.MEDIA_TYPE + ".");
+        }
+        return checkInsuranceValidityChunk(queries);
+    }
+
+    @PostMapping(value = "/cars/insurance-valid", consumes = Ndjson.MEDIA_TYPE, produces = Ndjson.MEDIA_TYPE)
+    public void checkInsuranceValidityStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(Ndjson.MEDIA_TYPE);
+        OutputStream out = response.getOutputStream();
+        Ndjson.readChunks(objectMapper, request.getReader(), InsuranceValidityQuery.class, validityStreamChunkSize, chunk -> {
+            for (InsuranceValidityResult r : checkInsuranceValidityChunk(chunk)) {
+                Ndjson.write(objectMapper, out, r);
+            }
+            out.flush();
+        });
+    }
+
+    private List<InsuranceValidityResult> checkInsuranceValidityChunk(List<InsuranceValidityQuery> queries) {
+        List<ValidityCheck> checks = new ArrayList<>(queries.size());
+        String[] parseErrors = new String[queries.size()];
+        for (int i = 0; i < queries.size(); i++) {
+            InsuranceValidityQuery q = queries.get(i);
+            LocalDate d = null;
+            if (q == null) {
+                parseErrors[i] = "Malformed item";
+            } else if (q.date() != null) {
+                try {
+                    d = LocalDate.parse(q.date());
+                } catch (DateTimeParseException e) {
+                    parseErrors[i] = "Invalid date format. Use YYYY-MM-DD.";
+                }
+            }
+            checks.add(new ValidityCheck(q != null ? q.carId() : null, d));
+        }
+        List<ValidityCheck.Result> results = service.checkInsuranceValidity(checks);
+
+        List<InsuranceValidityResult> out = new ArrayList<>(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            InsuranceValidityQuery q = queries.get(i);
+            ValidityCheck.Result r = results.get(i);
+            out.add(new InsuranceValidityResult(
+                    q != null ? q.carId() : null,
+                    q != null ? q.date() : null,
+                    parseErrors[i] == null ? r.valid() : null,
+                    parseErrors[i] != null ? parseErrors[i] : r.error()));
+        }
+        return out;
+    }
+
+    /**
+     * Stores the claim and answers 201, or, with {@code insurance.claims.async.enabled}, queues it
+     * and answers 202 with a tracking id whose status is under {@code /api/claims/async/{id}}.
+     */
     @PostMapping("/cars/{carId}/claims")
-    public ResponseEntity<ClaimDto> registerClaim(@PathVariable Long carId, @Valid @RequestBody CreateClaimRequest body) {
+    public ResponseEntity<?> registerClaim(@PathVariable Long carId, @Valid @RequestBody CreateClaimRequest body) {
+        if (asyncClaims.isEnabled()) {
+            String trackingId = asyncClaims.submit(carId, body.claimDate(), body.description(), body.amount());
+            var location = ServletUriComponentsBuilder.fromCurrentContextPath().path("/api/claims/async/{id}")
+                    .buildAndExpand(trackingId).toUri();
+            return ResponseEntity.accepted().location(location)
+                    .body(new AsyncClaimStatus(trackingId, AsyncClaimService.State.QUEUED.name(), null, null));
+        }
         var saved = service.registerClaim(carId, body.claimDate(), body.description(), body.amount());
         var location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
                 .buildAndExpand(saved.getId()).toUri();
         return ResponseEntity.created(location).body(toDto(saved));
     }
 
+    @GetMapping("/cars/by-vin/{vin}/insurance-valid")
+    public ResponseEntity<InsuranceValidityResponse> isInsuranceValidByVin(@PathVariable String vin, @RequestParam String date) {
+        return isInsuranceValid(service.carIdByVin(vin), date);
+    }
+
+    @GetMapping("/cars/by-vin/{vin}/history")
+    public List<ClaimDto> getCarHistoryByVin(@PathVariable String vin) {
+        return getCarHistory(service.carIdByVin(vin));
+    }
+
+    @GetMapping(value = "/cars/by-vin/{vin}/history", params = "limit")
+    public ClaimPage getCarHistoryPageByVin(@PathVariable String vin,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                            @RequestParam(defaultValue = "asc") String order,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam int limit) {
+        return getCarHistoryPage(service.carIdByVin(vin), from, to, order, cursor, limit);
+    }
+
+    @PostMapping("/cars/by-vin/{vin}/claims")
+    public ResponseEntity<?> registerClaimByVin(@PathVariable String vin, @Valid @RequestBody CreateClaimRequest body) {
+        return registerClaim(service.carIdByVin(vin), body);
+    }
+
     private CarDto toDto(Car c) {
         var o = c.getOwner();
         return new CarDto(
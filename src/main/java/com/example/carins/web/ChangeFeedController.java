@@ -0,0 +1,166 @@
+package com.example.carins.web;
+
+import com.example.carins.service.ChangeFeed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api")
+public class ChangeFeedController {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeedController.class);
+    private static final MediaType NDJSON = new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+    private static final Duration POLL = Duration.ofSeconds(1);
+
+    private interface Writer {
+        void changes(List<ChangeFeed.Change> batch) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void dropped(long position) throws IOException;
+    }
+
+    private final ChangeFeed feed;
+
+    @Value("${insurance.changes.batch-size:500}")
+    private int batchSize;
+
+    @Value("${insurance.changes.heartbeat:15s}")
+    private Duration heartbeat;
+
+    public ChangeFeedController(ChangeFeed feed) {
+        this.feed = feed;
+    }
+
+    /**
+     * Streams claim and policy changes after sequence {@code after} (or {@code Last-Event-ID}),
+     * from the current end of the feed when neither is given. Server-Sent Events by default;
+     * NDJSON with {@code format=ndjson} or {@code Accept: application/x-ndjson}. Every batch goes
+     * out with one flush. A consumer that falls behind by more than its buffer gets a final
+     * {@code dropped} event and is disconnected; it resumes from the last sequence it processed.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ResponseBodyEmitter> streamChanges(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean ndjson;
+        if (format != null) {
+            ndjson = switch (format.toLowerCase()) {
+                case "ndjson" -> true;
+                case "sse" -> false;
+                default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Format must be 'sse' or 'ndjson'");
+            };
+        } else {
+            ndjson = accept != null && accept.contains(Ndjson.MEDIA_TYPE);
+        }
+        Long from = after != null ? after : lastEventId;
+        if (from != null && from < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Sequence must not be negative");
+        }
+
+        ChangeFeed.Subscription sub = feed.subscribe(from);
+        ResponseBodyEmitter emitter = ndjson ? new ResponseBodyEmitter(0L) : new SseEmitter(0L);
+        emitter.onCompletion(sub::close);
+        emitter.onError(e -> sub.close());
+        Writer writer = ndjson ? ndjsonWriter(emitter) : sseWriter((SseEmitter) emitter);
+        Thread.ofVirtual().name("change-feed-" + sub.position()).start(() -> pump(sub, emitter, writer));
+        return ResponseEntity.ok()
+                .contentType(ndjson ? NDJSON : MediaType.TEXT_EVENT_STREAM)
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .body(emitter);
+    }
+
+    private void pump(ChangeFeed.Subscription sub, ResponseBodyEmitter emitter, Writer writer) {
+        long heartbeatNanos = heartbeat.toNanos();
+        long lastWrite = System.nanoTime();
+        try {
+            while (!sub.isClosed()) {
+                List<ChangeFeed.Change> batch = sub.next(batchSize, POLL);
+                if (!batch.isEmpty()) {
+                    writer.changes(batch);
+                    lastWrite = System.nanoTime();
+                } else if (sub.isDropped()) {
+                    writer.dropped(sub.position());
+                    break;
+                } else if (System.nanoTime() - lastWrite >= heartbeatNanos) {
+                    writer.heartbeat();
+                    lastWrite = System.nanoTime();
+                }
+            }
+            emitter.complete();
+        } catch (InterruptedException e) {
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Change feed subscriber at {} went away: {}", sub.position(), e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("Change feed subscriber at {} failed", sub.position(), e);
+            emitter.completeWithError(e);
+        } finally {
+            sub.close();
+        }
+    }
+
+    private static Writer sseWriter(SseEmitter emitter) {
+        return new Writer() {
+            @Override
+            public void changes(List<ChangeFeed.Change> batch) throws IOException {
+                Set<ResponseBodyEmitter.DataWithMediaType> items = new LinkedHashSet<>();
+                for (ChangeFeed.Change c : batch) {
+                    items.addAll(SseEmitter.event().id(Long.toString(c.seq())).name(c.type())
+                            .data(c.json(), MediaType.APPLICATION_JSON).build());
+                }
+                emitter.send(items);
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            }
+
+            @Override
+            public void dropped(long position) throws IOException {
+                emitter.send(SseEmitter.event().name("dropped")
+                        .data("{\"resumeAfter\":" + position + "}", MediaType.APPLICATION_JSON));
+            }
+        };
+    }
+
+    private static Writer ndjsonWriter(ResponseBodyEmitter emitter) {
+        return new Writer() {
+            @Override
+            public void changes(List<ChangeFeed.Change> batch) throws IOException {
+                StringBuilder lines = new StringBuilder(batch.size() * 256);
+                for (ChangeFeed.Change c : batch) lines.append(c.json()).append('\n');
+                emitter.send(lines.toString(), NDJSON);
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                emitter.send("\n", NDJSON);
+            }
+
+            @Override
+            public void dropped(long position) throws IOException {
+                emitter.send("{\"type\":\"DROPPED\",\"resumeAfter\":" + position + "}\n", NDJSON);
+            }
+        };
+    }
+}
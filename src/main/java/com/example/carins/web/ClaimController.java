@@ -0,0 +1,124 @@
+package com.example.carins.web;
+
+import com.example.carins.service.AsyncClaimService;
+import com.example.carins.service.ClaimIngestionService;
+import com.example.carins.service.ClaimRow;
+import com.example.carins.service.ClaimSearchService;
+import com.example.carins.web.dto.AsyncClaimStatus;
+import com.example.carins.web.dto.ClaimDto;
+import com.example.carins.web.dto.ClaimPage;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+public class ClaimController {
+
+    private final ClaimIngestionService ingestionService;
+    private final ObjectMapper objectMapper;
+    private final AsyncClaimService asyncClaims;
+    private final ClaimSearchService searchService;
+
+    @Value("${insurance.claims.ingest.max-size:50000}")
+    private int ingestMaxSize;
+
+    @Value("${insurance.claims.ingest.chunk-size:5000}")
+    private int ingestChunkSize;
+
+    public ClaimController(ClaimIngestionService ingestionService, ObjectMapper objectMapper,
+                           AsyncClaimService asyncClaims, ClaimSearchService searchService) {
+        this.ingestionService = ingestionService;
+        this.objectMapper = objectMapper;
+        this.asyncClaims = asyncClaims;
+        this.searchService = searchService;
+    }
+
+    @GetMapping("/claims/search")
+    public ClaimPage searchClaims(@RequestParam(required = false) String q,
+                                  @RequestParam(required = false) BigDecimal minAmount,
+                                  @RequestParam(required = false) BigDecimal maxAmount,
+                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                  @RequestParam(required = false) String cursor,
+                                  @RequestParam(defaultValue = "20") int limit) {
+        Long beforeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                beforeId = Long.parseLong(cursor);
+            } catch (NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor);
+            }
+        }
+        List<ClaimDto> claims = searchService.search(q, minAmount, maxAmount, from, to, beforeId, limit);
+        boolean more = claims.size() > limit;
+        List<ClaimDto> page = more ? claims.subList(0, limit) : claims;
+        return new ClaimPage(page, more ? String.valueOf(page.get(page.size() - 1).id()) : null);
+    }
+
+    @PostMapping(value = "/claims/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkIngestSummary ingestClaims(@RequestBody List<ClaimRow> rows) {
+        if (rows.size() > ingestMaxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Batch exceeds " + ingestMaxSize + " items. Send larger inputs as " + Ndjson.MEDIA_TYPE + ".");
+        }
+        long started = System.nanoTime();
+        long accepted = 0;
+        List<ClaimIngestionService.Reject> rejects = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += ingestChunkSize) {
+            var result = ingestionService.ingest(rows.subList(from, Math.min(rows.size(), from + ingestChunkSize)), from);
+            accepted += result.accepted();
+            rejects.addAll(result.rejects());
+        }
+        return BulkIngestSummary.of(accepted, rejects.size(), rejects, started);
+    }
+
+    @PostMapping(value = "/claims/bulk", consumes = Ndjson.MEDIA_TYPE, produces = Ndjson.MEDIA_TYPE)
+    public void ingestClaimsStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(Ndjson.MEDIA_TYPE);
+        OutputStream out = response.getOutputStream();
+        long started = System.nanoTime();
+        long[] counts = new long[3]; // rows read, accepted, rejected
+        Ndjson.readChunks(objectMapper, request.getReader(), ClaimRow.class, ingestChunkSize, chunk -> {
+            var result = ingestionService.ingest(chunk, counts[0]);
+            counts[0] += chunk.size();
+            counts[1] += result.accepted();
+            counts[2] += result.rejects().size();
+            for (var reject : result.rejects()) {
+                Ndjson.write(objectMapper, out, reject);
+            }
+            out.flush();
+        });
+        Ndjson.write(objectMapper, out, BulkIngestSummary.of(counts[1], counts[2], null, started));
+    }
+
+    @GetMapping("/claims/async/{trackingId}")
+    public AsyncClaimStatus getAsyncClaimStatus(@PathVariable String trackingId) {
+        AsyncClaimService.Status s = asyncClaims.status(trackingId);
+        return new AsyncClaimStatus(s.trackingId(), s.state().name(), s.claimId(), s.error());
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record BulkIngestSummary(long accepted, long rejected, List<ClaimIngestionService.Reject> rejects,
+                                    long elapsedMs, long rowsPerSecond) {
+        static BulkIngestSummary of(long accepted, long rejected, List<ClaimIngestionService.Reject> rejects, long startedNanos) {
+            long elapsedNanos = Math.max(1, System.nanoTime() - startedNanos);
+            long rowsPerSecond = (accepted + rejected) * 1_000_000_000L / elapsedNanos;
+            return new BulkIngestSummary(accepted, rejected, rejects, elapsedNanos / 1_000_000, rowsPerSecond);
+        }
+    }
+}
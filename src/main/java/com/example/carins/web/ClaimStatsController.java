@@ -0,0 +1,39 @@
+package com.example.carins.web;
+
+import com.example.carins.model.CarClaimStats;
+import com.example.carins.service.ClaimStatsService;
+import com.example.carins.web.dto.ClaimStatsDto;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api")
+public class ClaimStatsController {
+
+    private final ClaimStatsService statsService;
+
+    public ClaimStatsController(ClaimStatsService statsService) {
+        this.statsService = statsService;
+    }
+
+    @GetMapping("/cars/{carId}/claim-stats")
+    public ClaimStatsDto getCarClaimStats(@PathVariable Long carId) {
+        return toDto(statsService.forCar(carId));
+    }
+
+    @GetMapping("/claim-stats/top")
+    public List<ClaimStatsDto> getTopByTotalAmount(@RequestParam(defaultValue = "10") int limit) {
+        return statsService.topByTotalAmount(limit).stream().map(this::toDto).toList();
+    }
+
+    @PostMapping("/admin/claim-stats/rebuild")
+    public Map<String, Integer> rebuild() {
+        return Map.of("cars", statsService.rebuild());
+    }
+
+    private ClaimStatsDto toDto(CarClaimStats s) {
+        return new ClaimStatsDto(s.getCarId(), s.getClaimCount(), s.getTotalAmount(), s.getMaxAmount(), s.getLastClaimDate());
+    }
+}
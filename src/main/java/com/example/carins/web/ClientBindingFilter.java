@@ -0,0 +1,35 @@
+package com.example.carins.web;
+
+import com.example.carins.config.ReadYourWrites;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Binds the calling client to the request thread for {@link ReadYourWrites}. Clients are told
+ * apart by the {@code X-Client-Id} header, falling back to the remote address.
+ */
+public class ClientBindingFilter extends OncePerRequestFilter {
+
+    public static final String CLIENT_HEADER = "X-Client-Id";
+
+    public static String clientKey(HttpServletRequest request) {
+        String client = request.getHeader(CLIENT_HEADER);
+        return client != null && !client.isBlank() ? client : request.getRemoteAddr();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReadYourWrites.bind(clientKey(request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.clear();
+        }
+    }
+}
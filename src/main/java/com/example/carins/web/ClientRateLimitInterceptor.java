@@ -0,0 +1,33 @@
+package com.example.carins.web;
+
+import com.example.carins.config.ClientRateLimiter;
+import com.example.carins.service.RetryLaterException;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Charges every API request to its client's token bucket, clients being told apart as in
+ * {@link ClientBindingFilter}. Async re-dispatches of streaming responses are not charged again.
+ */
+public class ClientRateLimitInterceptor implements HandlerInterceptor {
+
+    private final ClientRateLimiter limiter;
+
+    public ClientRateLimitInterceptor(ClientRateLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) return true;
+        long waitNanos = limiter.acquire(ClientBindingFilter.clientKey(request));
+        if (waitNanos > 0) {
+            long seconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+            throw new RetryLaterException(HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded, please retry.", seconds);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.carins.web;
+
+import com.example.carins.config.ReadWriteRoutingDataSource;
+import com.example.carins.service.ResourceVersions;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Strong ETags for {@code GET /api/cars} and {@code GET /api/cars/{carId}/history}, computed from
+ * {@link ResourceVersions} before the controller runs. A matching {@code If-None-Match} gets 304
+ * without touching the database; with a {@link ResponseBytesCache}, an unchanged resource is served
+ * from its serialized bytes. Requests with parameters and NDJSON requests are passed through untouched.
+ * A body read from a replica may predate the version, so it is sent without an ETag and not cached.
+ */
+public class ConditionalGetFilter extends OncePerRequestFilter {
+
+    private static final Pattern HISTORY = Pattern.compile("/api/cars/(\\d{1,18})/history");
+
+    private final ResourceVersions versions;
+    private final ResponseBytesCache cache;
+
+    public ConditionalGetFilter(ResourceVersions versions, long cacheMaxBytes) {
+        this.versions = versions;
+        this.cache = cacheMaxBytes > 0 ? new ResponseBytesCache(cacheMaxBytes) : null;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod()) || !request.getParameterMap().isEmpty()) return true;
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(Ndjson.MEDIA_TYPE);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String etag;
+        if (path.equals("/api/cars")) {
+            etag = versions.carsTag();
+        } else {
+            Matcher m = HISTORY.matcher(path);
+            if (!m.matches()) {
+                chain.doFilter(request, response);
+                return;
+            }
+            etag = versions.carTag(Long.parseLong(m.group(1)));
+        }
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        ResponseBytesCache.Entry cached = cache != null ? cache.get(path, etag) : null;
+        if (cached != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setContentType(cached.contentType());
+            response.setContentLength(cached.body().length);
+            response.getOutputStream().write(cached.body());
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        ReadWriteRoutingDataSource.trackReplicaReads();
+        try {
+            chain.doFilter(request, wrapper);
+            if (wrapper.getStatus() == HttpServletResponse.SC_OK && !ReadWriteRoutingDataSource.replicaWasRead()) {
+                wrapper.setHeader(HttpHeaders.ETAG, etag);
+                if (cache != null) cache.put(path, etag, wrapper.getContentType(), wrapper.getContentAsByteArray());
+            }
+        } finally {
+            ReadWriteRoutingDataSource.stopTrackingReplicaReads();
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+}
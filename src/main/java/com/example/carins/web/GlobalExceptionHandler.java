@@ -1,14 +1,17 @@
 package com.example.carins.web;
 
+import com.example.carins.service.RetryLaterException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.sql.SQLTransientConnectionException;
 import java.time.format.DateTimeParseException;
 import java.util.Map;
 
@@ -37,7 +40,9 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(ResponseStatusException.class)
     public ResponseEntity<Map<String, Object>> handleResponseStatus(ResponseStatusException ex) {
         HttpStatus status = HttpStatus.valueOf(ex.getStatusCode().value());
-        return build(status, ex.getReason());
+        var response = build(status, ex.getReason());
+        if (ex.getHeaders().isEmpty()) return response;
+        return ResponseEntity.status(status).headers(ex.getHeaders()).body(response.getBody());
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -58,6 +63,27 @@ public class GlobalExceptionHandler {
         return build(HttpStatus.BAD_REQUEST, "Data integrity violation.");
     }
 
+    /**
+     * No connection within the pool timeout, or too many threads already waiting for one
+     * ({@link com.example.carins.config.ConnectionGuardDataSource}); both surface as
+     * {@link SQLTransientConnectionException}. Other resource failures are not load and stay 500s.
+     */
+    @ExceptionHandler({org.springframework.transaction.CannotCreateTransactionException.class,
+            org.springframework.dao.DataAccessResourceFailureException.class})
+    public ResponseEntity<Map<String, Object>> handleDatabaseBusy(Exception ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof SQLTransientConnectionException) {
+                return handleResponseStatus(new RetryLaterException(HttpStatus.SERVICE_UNAVAILABLE, "Database is busy, please retry.", 1));
+            }
+        }
+        return handleOther(ex);
+    }
+
+    @ExceptionHandler(AsyncRequestNotUsableException.class)
+    public void handleClientGone(AsyncRequestNotUsableException ex) {
+        // the client closed a streaming response; there is nothing left to write
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleOther(Exception ex) {
         return build(HttpStatus.INTERNAL_SERVER_ERROR, "Unexpected error");
@@ -0,0 +1,50 @@
+package com.example.carins.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+final class Ndjson {
+
+    static final String MEDIA_TYPE = "application/x-ndjson";
+
+    interface ChunkHandler<T> {
+        void accept(List<T> chunk) throws IOException;
+    }
+
+    private Ndjson() {}
+
+    /**
+     * Reads one JSON object per line and hands them over in chunks of at most
+     * {@code chunkSize}. Lines that cannot be parsed are passed on as {@code null}
+     * so callers can report them at the right position.
+     */
+    static <T> void readChunks(ObjectMapper mapper, BufferedReader reader, Class<T> type, int chunkSize,
+                               ChunkHandler<T> handler) throws IOException {
+        List<T> chunk = new ArrayList<>(chunkSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) continue;
+            try {
+                chunk.add(mapper.readValue(line, type));
+            } catch (JsonProcessingException e) {
+                chunk.add(null);
+            }
+            if (chunk.size() == chunkSize) {
+                handler.accept(chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) handler.accept(chunk);
+    }
+
+    static void write(ObjectMapper mapper, OutputStream out, Object row) throws IOException {
+        out.write(mapper.writeValueAsBytes(row));
+        out.write('\n');
+    }
+}
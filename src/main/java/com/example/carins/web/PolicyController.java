@@ -0,0 +1,79 @@
+package com.example.carins.web;
+
+import com.example.carins.model.InsurancePolicy;
+import com.example.carins.repo.InsurancePolicyRepository;
+import com.example.carins.service.PolicyRenewalService;
+import com.example.carins.service.PolicyRow;
+import com.example.carins.service.PolicyService;
+import com.example.carins.web.dto.CreatePolicyRequest;
+import com.example.carins.web.dto.PolicyDto;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+public class PolicyController {
+
+    private final PolicyService policyService;
+    private final PolicyRenewalService renewalService;
+    private final InsurancePolicyRepository policyRepository;
+
+    @Value("${insurance.policies.renew.max-size:100000}")
+    private int renewMaxSize;
+
+    public PolicyController(PolicyService policyService, PolicyRenewalService renewalService,
+                            InsurancePolicyRepository policyRepository) {
+        this.policyService = policyService;
+        this.renewalService = renewalService;
+        this.policyRepository = policyRepository;
+    }
+
+    /** Answers 409 when the interval shares a day with another policy of the car. */
+    @PostMapping("/cars/{carId}/policies")
+    public ResponseEntity<PolicyDto> createPolicy(@PathVariable Long carId, @Valid @RequestBody CreatePolicyRequest body) {
+        var saved = policyService.create(carId, body.provider(), body.startDate(), body.endDate());
+        var location = ServletUriComponentsBuilder.fromCurrentContextPath().path("/api/policies/{id}")
+                .buildAndExpand(saved.getId()).toUri();
+        return ResponseEntity.created(location).body(toDto(saved, carId));
+    }
+
+    @GetMapping("/policies/{policyId}")
+    public PolicyDto getPolicy(@PathVariable Long policyId) {
+        return policyRepository.findById(policyId)
+                .map(p -> toDto(p, p.getCar().getId()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Policy not found"));
+    }
+
+    @PostMapping(value = "/policies/renewals", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkRenewalSummary renewPolicies(@RequestBody List<PolicyRow> rows) {
+        if (rows.size() > renewMaxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch exceeds " + renewMaxSize + " items");
+        }
+        long started = System.nanoTime();
+        var result = renewalService.renew(rows);
+        return BulkRenewalSummary.of(result.accepted(), result.rejects(), started);
+    }
+
+    private static PolicyDto toDto(InsurancePolicy p, Long carId) {
+        return new PolicyDto(p.getId(), carId, p.getProvider(), p.getStartDate(), p.getEndDate());
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record BulkRenewalSummary(long accepted, long rejected, List<PolicyService.Reject> rejects,
+                                     long elapsedMs, long rowsPerSecond) {
+        static BulkRenewalSummary of(long accepted, List<PolicyService.Reject> rejects, long startedNanos) {
+            long elapsedNanos = Math.max(1, System.nanoTime() - startedNanos);
+            long rowsPerSecond = (accepted + rejects.size()) * 1_000_000_000L / elapsedNanos;
+            return new BulkRenewalSummary(accepted, rejects.size(), rejects, elapsedNanos / 1_000_000, rowsPerSecond);
+        }
+    }
+}
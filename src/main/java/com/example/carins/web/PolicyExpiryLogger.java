@@ -1,34 +1,49 @@
 package com.example.carins.web;
 
-import com.example.carins.model.InsurancePolicy;
-import com.example.carins.repo.InsurancePolicyRepository;
+import com.example.carins.service.PolicyExpiryProcessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.util.List;
 
 @Component
 public class PolicyExpiryLogger {
 
     private static final Logger log = LoggerFactory.getLogger(PolicyExpiryLogger.class);
-    private final InsurancePolicyRepository repo;
+    private final PolicyExpiryProcessor processor;
+    private final TaskScheduler scheduler;
 
-    public PolicyExpiryLogger(InsurancePolicyRepository repo) {
-        this.repo = repo;
+    /** Delay of the startup catch-up run; zero runs it before the application reports ready. */
+    @Value("${insurance.expiry.startup-delay:0s}")
+    private Duration startupDelay;
+
+    public PolicyExpiryLogger(PolicyExpiryProcessor processor, TaskScheduler scheduler) {
+        this.processor = processor;
+        this.scheduler = scheduler;
     }
 
-    @Scheduled(cron = "0 0 0 * * *")
-    public void logYesterdayExpiredPolicies() {
-        LocalDate yesterday = LocalDate.now().minusDays(1);
-        List<InsurancePolicy> expired = repo.findByEndDate(yesterday);
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUpOnStartup() {
+        if (startupDelay.isZero() || startupDelay.isNegative()) {
+            processExpiredPolicies();
+        } else {
+            scheduler.schedule(this::processExpiredPolicies, Instant.now().plus(startupDelay));
+        }
+    }
 
-        for (var p : expired) {
-            Long carId = (p.getCar() != null ? p.getCar().getId() : null);
-            log.info("Policy {} for car {} expired on {}", p.getId(), carId, p.getEndDate());
+    @Scheduled(cron = "${insurance.expiry.cron:0 0 * * * *}")
+    public void processExpiredPolicies() {
+        int processed = processor.processUpTo(LocalDate.now().minusDays(1));
+        if (processed > 0) {
+            log.info("Processed {} expired policies up to {}", processed, processor.lastProcessedDay());
         }
     }
 }
-
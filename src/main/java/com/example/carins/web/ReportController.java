@@ -0,0 +1,104 @@
+package com.example.carins.web;
+
+import com.example.carins.repo.UninsuredCar;
+import com.example.carins.service.ReportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    static final String CSV_MEDIA_TYPE = "text/csv";
+    static final String INCOMPLETE = "Report incomplete, retry the request";
+
+    private static final Logger log = LoggerFactory.getLogger(ReportController.class);
+
+    private final ReportService reportService;
+    private final ObjectMapper objectMapper;
+
+    public ReportController(ReportService reportService, ObjectMapper objectMapper) {
+        this.reportService = reportService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Streams every car without an active policy on {@code date}. NDJSON by default; CSV with
+     * {@code format=csv} or {@code Accept: text/csv}. A failure before anything reached the client
+     * gets the usual error response; a failure after that ends the body with an error line, a JSON
+     * object with {@code "error"} for NDJSON and {@code error,<message>} for CSV.
+     */
+    @GetMapping("/uninsured")
+    public void uninsuredOn(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                            @RequestParam(required = false) String format,
+                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                            HttpServletResponse response) throws IOException {
+        boolean csv;
+        if (format != null) {
+            csv = switch (format.toLowerCase()) {
+                case "csv" -> true;
+                case "ndjson" -> false;
+                default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Format must be 'ndjson' or 'csv'");
+            };
+        } else {
+            csv = accept != null && accept.contains(CSV_MEDIA_TYPE);
+        }
+        reportService.validateDate(date);
+
+        response.setContentType(csv ? CSV_MEDIA_TYPE + ";charset=UTF-8" : Ndjson.MEDIA_TYPE);
+        OutputStream out = new BufferedOutputStream(response.getOutputStream(), 64 * 1024);
+        try {
+            if (csv) out.write("carId,vin,make,model,ownerId\n".getBytes(StandardCharsets.UTF_8));
+            reportService.forEachUninsured(date, car -> {
+                try {
+                    if (csv) writeCsv(out, car); else Ndjson.write(objectMapper, out, car);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            if (!response.isCommitted()) {
+                response.reset();
+                throw e;
+            }
+            log.error("Uninsured report for {} failed after streaming started", date, e);
+            if (csv) {
+                out.write(("error," + INCOMPLETE + "\n").getBytes(StandardCharsets.UTF_8));
+            } else {
+                Ndjson.write(objectMapper, out, Map.of("error", INCOMPLETE));
+            }
+        }
+        out.flush();
+    }
+
+    private static void writeCsv(OutputStream out, UninsuredCar car) throws IOException {
+        String line = car.carId() + "," + csvField(car.vin()) + "," + csvField(car.make()) + ","
+                + csvField(car.model()) + "," + (car.ownerId() != null ? car.ownerId() : "") + "\n";
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String csvField(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.carins.web;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Serialized response bodies keyed by request path, each remembered with the ETag it was produced
+ * under. Bounded by total body bytes; the least recently used entries go first.
+ */
+final class ResponseBytesCache {
+
+    record Entry(String etag, String contentType, byte[] body) {}
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    ResponseBytesCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /** Returns the cached body for {@code key} if it was produced under {@code etag}. */
+    synchronized Entry get(String key, String etag) {
+        Entry e = entries.get(key);
+        return e != null && e.etag().equals(etag) ? e : null;
+    }
+
+    synchronized void put(String key, String etag, String contentType, byte[] body) {
+        if (body.length > maxBytes / 4) return;
+        Entry previous = entries.put(key, new Entry(etag, contentType, Arrays.copyOf(body, body.length)));
+        if (previous != null) bytes -= previous.body().length;
+        bytes += body.length;
+        for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); bytes > maxBytes && it.hasNext(); ) {
+            bytes -= it.next().getValue().body().length;
+            it.remove();
+        }
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.carins.web;
+
+import com.example.carins.tools.PortfolioSnapshot;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/admin")
+public class SnapshotController {
+
+    private final PortfolioSnapshot snapshot;
+
+    public SnapshotController(PortfolioSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /** Writes the snapshot to {@code insurance.snapshot.path}; it is loaded on the next start with {@code insurance.snapshot.load-on-startup}. */
+    @PostMapping("/snapshot")
+    public PortfolioSnapshot.Result export() throws IOException {
+        return snapshot.export(snapshot.path());
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.carins.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AsyncClaimStatus(String trackingId, String status, Long claimId, String error) {}
@@ -0,0 +1,5 @@
+package com.example.carins.web.dto;
+
+import java.util.List;
+
+public record CarPage(List<CarDto> items, Long nextAfter) {}
@@ -0,0 +1,7 @@
+package com.example.carins.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.Instant;
+
+public record ChangeDto(long seq, String type, Long carId, Long entityId, Instant createdAt, @JsonRawValue String data) {}
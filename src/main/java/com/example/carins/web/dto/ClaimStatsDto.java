@@ -0,0 +1,6 @@
+package com.example.carins.web.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record ClaimStatsDto(Long carId, long claimCount, BigDecimal totalAmount, BigDecimal maxAmount, LocalDate lastClaimDate) {}
@@ -0,0 +1,12 @@
+package com.example.carins.web.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record CoverageDto(Long carId, LocalDate from, LocalDate to, long coveredDays, long uncoveredDays,
+                          List<Interval> intervals, List<Overlap> overlaps) {
+
+    public record Interval(LocalDate from, LocalDate to, boolean covered) {}
+
+    public record Overlap(Long policyId, Long otherPolicyId, LocalDate from, LocalDate to) {}
+}
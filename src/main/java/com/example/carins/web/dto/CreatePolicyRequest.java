@@ -0,0 +1,19 @@
+package com.example.carins.web.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+
+public record CreatePolicyRequest(
+        @NotBlank(message = "Provider must be provided")
+        @Size(max = 255, message = "Provider must be at most 255 characters")
+        String provider,
+
+        @NotNull(message = "Start date must be provided")
+        LocalDate startDate,
+
+        @NotNull(message = "End date must be provided")
+        LocalDate endDate
+) {}
@@ -0,0 +1,3 @@
+package com.example.carins.web.dto;
+
+public record InsuranceValidityQuery(Long carId, String date) {}
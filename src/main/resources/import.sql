@@ -4,11 +4,11 @@ INSERT INTO owner (name, email) VALUES ('Bogdan Ionescu', 'bogdan.ionescu@exampl
 INSERT INTO car (vin, make, model, year_of_manufacture, owner_id) VALUES ('VIN12345', 'Dacia', 'Logan', 2018, 1);
 INSERT INTO car (vin, make, model, year_of_manufacture, owner_id) VALUES ('VIN67890', 'VW', 'Golf', 2021, 2);
 
-INSERT INTO insurancepolicy (car_id, provider, start_date, end_date) VALUES (1, 'Allianz', DATE '2024-01-01', DATE '2024-12-31');
-INSERT INTO insurancepolicy (car_id, provider, start_date, end_date) VALUES (1, 'Groupama', DATE '2025-01-01', DATE '2026-01-01');
-INSERT INTO insurancepolicy (car_id, provider, start_date, end_date) VALUES (2, 'Allianz', DATE '2025-03-01', DATE '2025-09-30');
+INSERT INTO insurancepolicy (id, car_id, provider, start_date, end_date) VALUES (NEXT VALUE FOR policy_seq, 1, 'Allianz', DATE '2024-01-01', DATE '2024-12-31');
+INSERT INTO insurancepolicy (id, car_id, provider, start_date, end_date) VALUES (NEXT VALUE FOR policy_seq, 1, 'Groupama', DATE '2025-01-01', DATE '2026-01-01');
+INSERT INTO insurancepolicy (id, car_id, provider, start_date, end_date) VALUES (NEXT VALUE FOR policy_seq, 2, 'Allianz', DATE '2025-03-01', DATE '2025-09-30');
 
 
-INSERT INTO claim (car_id, claim_date, description, amount) VALUES (1, DATE '2025-05-15', 'Rear bumper replacement after collision', 850.00);
-INSERT INTO claim (car_id, claim_date, description, amount) VALUES (1, DATE '2025-03-10', 'Windshield crack repair', 1200.00);
-INSERT INTO claim (car_id, claim_date, description, amount) VALUES (2, DATE '2025-04-05', 'Front left door dent repair', 600.00);
+INSERT INTO claim (id, car_id, claim_date, description, amount) VALUES (NEXT VALUE FOR claim_seq, 1, DATE '2025-05-15', 'Rear bumper replacement after collision', 850.00);
+INSERT INTO claim (id, car_id, claim_date, description, amount) VALUES (NEXT VALUE FOR claim_seq, 1, DATE '2025-03-10', 'Windshield crack repair', 1200.00);
+INSERT INTO claim (id, car_id, claim_date, description, amount) VALUES (NEXT VALUE FOR claim_seq, 2, DATE '2025-04-05', 'Front left door dent repair', 600.00);
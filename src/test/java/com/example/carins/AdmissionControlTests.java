@@ -0,0 +1,131 @@
+package com.example.carins;
+
+import com.example.carins.config.AdaptiveConcurrencyLimit;
+import com.example.carins.config.ClientRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:admission;DB_CLOSE_DELAY=-1",
+        "insurance.admission.enabled=true",
+        "insurance.admission.client-rate=0.5",
+        "insurance.admission.client-burst=3",
+        "insurance.admission.concurrency.initial-limit=1",
+        "insurance.admission.concurrency.min-limit=1",
+        "insurance.admission.concurrency.max-limit=1"
+})
+@AutoConfigureMockMvc
+public class AdmissionControlTests {
+
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    AdaptiveConcurrencyLimit concurrencyLimit;
+    @Autowired
+    MeterRegistry registry;
+
+    @Test
+    void clientOverItsBucket_getsTooManyRequestsWithRetryAfter_othersDoNot() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mvc.perform(get("/api/cars/1/insurance-valid").param("date", "2025-06-01").header("X-Client-Id", "partner-a"))
+                    .andExpect(status().isOk());
+        }
+        mvc.perform(get("/api/cars/1/insurance-valid").param("date", "2025-06-01").header("X-Client-Id", "partner-a"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.status").value(429))
+                .andExpect(jsonPath("$.message").value("Rate limit exceeded, please retry."));
+        mvc.perform(get("/api/cars/1/insurance-valid").param("date", "2025-06-01").header("X-Client-Id", "partner-b"))
+                .andExpect(status().isOk());
+        assertEquals(1.0, registry.get("admission.rejected").tag("reason", "client-rate").functionCounter().count());
+    }
+
+    @Test
+    void callsOverTheConcurrencyLimit_failFast() throws Exception {
+        assertTrue(concurrencyLimit.tryAcquire());
+        try {
+            mvc.perform(get("/api/cars/2/insurance-valid").param("date", "2025-06-01").header("X-Client-Id", "partner-c"))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andExpect(jsonPath("$.message").value("Server is busy, please retry."));
+        } finally {
+            concurrencyLimit.release(concurrencyLimit.now(), false);
+        }
+        mvc.perform(get("/api/cars/2/insurance-valid").param("date", "2025-06-01").header("X-Client-Id", "partner-c"))
+                .andExpect(status().isOk());
+        assertEquals(0, concurrencyLimit.inflight());
+        assertEquals(1, registry.get("admission.concurrency.limit").gauge().value());
+    }
+
+    @Test
+    void carListingAndHistory_areUnderTheConcurrencyLimit() throws Exception {
+        assertTrue(concurrencyLimit.tryAcquire());
+        try {
+            mvc.perform(get("/api/cars").header("X-Client-Id", "partner-d"))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string("Retry-After", "1"));
+            mvc.perform(get("/api/cars/1/history").header("X-Client-Id", "partner-d"))
+                    .andExpect(status().isTooManyRequests());
+        } finally {
+            concurrencyLimit.release(concurrencyLimit.now(), false);
+        }
+        mvc.perform(get("/api/cars").header("X-Client-Id", "partner-d")).andExpect(status().isOk());
+        assertEquals(0, concurrencyLimit.inflight());
+    }
+
+    @Test
+    void tokenBucket_refillsAtTheConfiguredRate() {
+        AtomicLong clock = new AtomicLong();
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 2, 1000, clock::get);
+        assertEquals(0, limiter.acquire("a"));
+        assertEquals(0, limiter.acquire("a"));
+        assertEquals(100_000_000L, limiter.acquire("a"));
+        clock.addAndGet(100_000_000L);
+        assertEquals(0, limiter.acquire("a"));
+        assertTrue(limiter.acquire("a") > 0);
+        assertEquals(0, limiter.acquire("b"));
+        assertEquals(2, limiter.rejected());
+    }
+
+    @Test
+    void concurrencyLimit_growsWhileLatencyHoldsAndShrinksWhenItRises() {
+        AtomicLong clock = new AtomicLong();
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 100, 1.5, 100_000_000L, clock::get);
+        for (int w = 0; w < 60; w++) saturatedWindow(limit, clock, 5_000_000L);
+        int grown = limit.limit();
+        assertTrue(grown > 50, "limit grew to " + grown);
+
+        for (int w = 0; w < 10; w++) saturatedWindow(limit, clock, 50_000_000L);
+        int shrunk = limit.limit();
+        assertTrue(shrunk < grown / 2, "limit shrank from " + grown + " to " + shrunk);
+        assertTrue(shrunk >= 4);
+
+        int acquired = 0;
+        while (limit.tryAcquire()) acquired++;
+        assertEquals(shrunk, acquired);
+        long before = limit.rejected();
+        assertFalse(limit.tryAcquire());
+        assertEquals(before + 1, limit.rejected());
+    }
+
+    /** Fills the limit, lets every call take {@code rttNanos} and closes the window. */
+    private static void saturatedWindow(AdaptiveConcurrencyLimit limit, AtomicLong clock, long rttNanos) {
+        long start = limit.now();
+        int acquired = 0;
+        while (limit.tryAcquire()) acquired++;
+        clock.addAndGet(rttNanos);
+        for (int i = 0; i < acquired - 1; i++) limit.release(start, false);
+        clock.addAndGet(100_000_000L);
+        limit.release(start + 100_000_000L, false);
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.carins;
+
+import com.example.carins.model.Claim;
+import com.example.carins.repo.ClaimRepository;
+import com.example.carins.service.ClaimJournal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:async-claims;DB_CLOSE_DELAY=-1",
+        "insurance.claims.async.enabled=true",
+        "insurance.claims.async.queue-capacity=2"
+})
+@AutoConfigureMockMvc
+public class AsyncClaimTests {
+
+    static final String REPLAYED = "00000000-0000-0000-0000-000000000001";
+
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) throws IOException {
+        // a journal left behind by a crashed run: one claim written twice and a torn last line
+        Path dir = Files.createTempDirectory("claim-journal");
+        var mapper = new ObjectMapper().findAndRegisterModules();
+        var entry = new ClaimJournal.Entry(REPLAYED, 1L, LocalDate.of(2025, 1, 15), "Journaled", new BigDecimal("42.00"));
+        try (var journal = new ClaimJournal(dir, mapper, 1 << 20, true)) {
+            journal.append(entry);
+            journal.append(entry);
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            Path segment = files.findFirst().orElseThrow();
+            Files.writeString(segment, "{\"trackingId\":\"torn", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        }
+        registry.add("insurance.claims.async.journal-dir", dir::toString);
+    }
+
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    ClaimRepository claimRepository;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    DataSource dataSource;
+
+    @Test
+    void journalLeftovers_areReplayedOnce() {
+        Claim claim = claimRepository.findByTrackingId(REPLAYED).orElseThrow();
+        assertEquals("Journaled", claim.getDescription());
+        assertEquals(1, claimRepository.findExistingTrackingIds(List.of(REPLAYED)).size());
+    }
+
+    @Test
+    void claim_isAcceptedThenCommitted() throws Exception {
+        String body = mvc.perform(post("/api/cars/1/claims").contentType("application/json")
+                        .content("{\"claimDate\":\"2025-04-01\",\"description\":\"Async dent\",\"amount\":75.50}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andReturn().getResponse().getContentAsString();
+        String trackingId = objectMapper.readTree(body).get("trackingId").asText();
+
+        String state = null;
+        for (int i = 0; i < 100 && !"COMMITTED".equals(state); i++) {
+            Thread.sleep(50);
+            String status = mvc.perform(get("/api/claims/async/{id}", trackingId)).andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            state = objectMapper.readTree(status).get("status").asText();
+        }
+        assertEquals("COMMITTED", state);
+        assertEquals("Async dent", claimRepository.findByTrackingId(trackingId).orElseThrow().getDescription());
+    }
+
+    @Test
+    void fullQueue_isRejectedWithRetryAfter() throws Exception {
+        String claim = "{\"claimDate\":\"2025-04-02\",\"description\":\"Queued behind a lock\",\"amount\":10.00}";
+        List<String> trackingIds = new ArrayList<>();
+        try (Connection lock = dataSource.getConnection()) {
+            // holds the stats row of car 2, so the writer cannot commit and the queue fills up
+            lock.setAutoCommit(false);
+            try (Statement st = lock.createStatement()) {
+                st.execute("SELECT * FROM car_claim_stats WHERE car_id = 2 FOR UPDATE");
+            }
+            for (int i = 0; i < 2; i++) {
+                String body = mvc.perform(post("/api/cars/2/claims").contentType("application/json").content(claim))
+                        .andExpect(status().isAccepted())
+                        .andReturn().getResponse().getContentAsString();
+                trackingIds.add(objectMapper.readTree(body).get("trackingId").asText());
+            }
+            mvc.perform(post("/api/cars/2/claims").contentType("application/json").content(claim))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andExpect(jsonPath("$.message").value("Claim queue is full, please retry."));
+            lock.rollback();
+        }
+        for (int i = 0; i < 200 && claimRepository.findExistingTrackingIds(trackingIds).size() < 2; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(2, claimRepository.findExistingTrackingIds(trackingIds).size());
+    }
+
+    @Test
+    void corruptLineBeforeTheEnd_failsTheReplay() throws IOException {
+        Path dir = Files.createTempDirectory("claim-journal");
+        var entry = new ClaimJournal.Entry("corrupt-1", 1L, LocalDate.of(2025, 1, 15), "Fine", BigDecimal.ONE);
+        try (var journal = new ClaimJournal(dir, objectMapper, 1 << 20, false)) {
+            journal.append(entry);
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            Path segment = files.findFirst().orElseThrow();
+            Files.writeString(segment, "{\"trackingId\":\"garbled\n" + objectMapper.writeValueAsString(entry) + "\n",
+                    StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        }
+        try (var journal = new ClaimJournal(dir, objectMapper, 1 << 20, false)) {
+            IOException e = assertThrows(IOException.class, journal::readUncommitted);
+            assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+        }
+    }
+
+    @Test
+    void invalidRequests_areRejectedUpFront() throws Exception {
+        mvc.perform(post("/api/cars/999999/claims").contentType("application/json")
+                        .content("{\"claimDate\":\"2025-04-01\",\"description\":\"x\",\"amount\":1}"))
+                .andExpect(status().isNotFound());
+        mvc.perform(post("/api/cars/1/claims").contentType("application/json")
+                        .content("{\"claimDate\":\"2025-04-01\",\"description\":\"\",\"amount\":1}"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/claims/async/{id}", "no-such-id")).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.carins;
+
+import com.example.carins.web.CarController;
+import com.example.carins.web.dto.CarDto;
+import com.example.carins.web.dto.CarPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:car-listing;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+public class CarListingTests {
+
+    @Autowired
+    CarController controller;
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    void keysetPages_coverFullListing() {
+        List<CarDto> all = controller.getCars();
+        List<CarDto> paged = new ArrayList<>();
+        Long after = null;
+        do {
+            CarPage page = controller.getCarsPage(after, 1);
+            paged.addAll(page.items());
+            after = page.nextAfter();
+        } while (after != null);
+        assertEquals(all, paged);
+    }
+
+    @Test
+    void invalidLimit_returns400() throws Exception {
+        mvc.perform(get("/api/cars").param("limit", "0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void ndjsonStream_writesOneCarPerLine() throws Exception {
+        String body = mvc.perform(get("/api/cars").accept("application/x-ndjson"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(controller.getCars().size(), body.lines().count());
+        assertTrue(body.startsWith("{\"id\":1,\"vin\":\"VIN12345\""));
+    }
+
+    @Test
+    void defaultAccept_returnsJsonArray() throws Exception {
+        mvc.perform(get("/api/cars"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andExpect(jsonPath("$[0].vin").value("VIN12345"));
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.carins;
+
+import com.example.carins.model.ChangeEvent;
+import com.example.carins.repo.ChangeEventRepository;
+import com.example.carins.service.CarService;
+import com.example.carins.service.ChangeFeed;
+import com.example.carins.service.ChangeLog;
+import com.example.carins.service.PolicyService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:change-feed;DB_CLOSE_DELAY=-1",
+        "insurance.changes.poll-interval=20ms",
+        "insurance.changes.batch-size=5",
+        "insurance.changes.replay-buffer=8",
+        "insurance.changes.subscriber-buffer=4"
+})
+public class ChangeFeedTests {
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    ChangeFeed feed;
+    @Autowired
+    ChangeEventRepository changeRepository;
+    @Autowired
+    CarService carService;
+    @Autowired
+    PolicyService policyService;
+    @Autowired
+    TransactionTemplate tx;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    MeterRegistry registry;
+
+    @Test
+    void changes_areSequencedWithoutGapsAndOnlyWhenCommitted() throws Exception {
+        long before = feed.lastSeq();
+        Long claimId = carService.registerClaim(1L, LocalDate.now(), "Cracked mirror", new BigDecimal("120.00")).getId();
+        tx.executeWithoutResult(status -> {
+            carService.registerClaim(1L, LocalDate.now(), "Rolled back", new BigDecimal("1.00"));
+            status.setRollbackOnly();
+        });
+        LocalDate start = LocalDate.now().plusYears(40);
+        Long policyId = policyService.create(1L, "Allianz", start, start.plusYears(1)).getId();
+        awaitSeq(before + 2);
+        Thread.sleep(100);
+
+        List<ChangeEvent> events = changeRepository.findSequencedAfter(before, Limit.of(10));
+        assertEquals(List.of(before + 1, before + 2), events.stream().map(ChangeEvent::getSeq).toList());
+        assertEquals(List.of(ChangeLog.CLAIM_REGISTERED, ChangeLog.POLICY_CREATED),
+                events.stream().map(ChangeEvent::getType).toList());
+        assertEquals(List.of(claimId, policyId), events.stream().map(ChangeEvent::getEntityId).toList());
+        assertEquals(before + 2, feed.lastSeq());
+    }
+
+    @Test
+    void sse_resumesFromTableAndRingThenFollowsLive() throws Exception {
+        long before = feed.lastSeq();
+        for (int i = 0; i < 12; i++) register("Backlog claim " + i);
+        awaitSeq(before + 12);
+
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<InputStream> response = client.send(HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + port + "/api/changes?after=" + before)).build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            assertEquals(200, response.statusCode());
+            assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("text/event-stream"));
+            try (BufferedReader reader = reader(response)) {
+                List<Long> seqs = new ArrayList<>();
+                while (seqs.size() < 12) {
+                    String id = readUntil(reader, l -> l.startsWith("id:"));
+                    JsonNode change = objectMapper.readTree(readUntil(reader, l -> l.startsWith("data:")).substring(5));
+                    assertEquals(id.substring(3), change.get("seq").asText());
+                    seqs.add(change.get("seq").asLong());
+                }
+                for (int i = 0; i < 12; i++) assertEquals(before + 1 + i, seqs.get(i));
+
+                register("Live claim");
+                JsonNode live = objectMapper.readTree(readUntil(reader, l -> l.startsWith("data:")).substring(5));
+                assertEquals(before + 13, live.get("seq").asLong());
+                assertEquals(ChangeLog.CLAIM_REGISTERED, live.get("type").asText());
+                assertEquals("Live claim", live.get("data").get("description").asText());
+            }
+        }
+    }
+
+    @Test
+    void ndjson_resumesFromLastEventId() throws Exception {
+        long before = feed.lastSeq();
+        for (int i = 0; i < 3; i++) register("Ndjson claim " + i);
+        awaitSeq(before + 3);
+
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<InputStream> response = client.send(HttpRequest.newBuilder(
+                                    URI.create("http://localhost:" + port + "/api/changes?format=ndjson"))
+                            .header("Last-Event-ID", Long.toString(before + 1)).build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("application/x-ndjson"));
+            try (BufferedReader reader = reader(response)) {
+                assertEquals(before + 2, objectMapper.readTree(readUntil(reader, l -> !l.isBlank())).get("seq").asLong());
+                assertEquals(before + 3, objectMapper.readTree(readUntil(reader, l -> !l.isBlank())).get("seq").asLong());
+            }
+        }
+    }
+
+    @Test
+    void slowConsumer_isDroppedAfterItsBufferAndCanResume() throws Exception {
+        double droppedBefore = registry.counter("changes.subscribers.dropped").count();
+        ChangeFeed.Subscription slow = feed.subscribe(null);
+        long start = slow.position();
+        assertTrue(slow.next(10, Duration.ofMillis(10)).isEmpty());
+        for (int i = 0; i < 7; i++) register("Burst claim " + i);
+        awaitSeq(start + 7);
+
+        List<Long> received = new ArrayList<>();
+        for (List<ChangeFeed.Change> batch; !(batch = slow.next(10, Duration.ofMillis(10))).isEmpty(); ) {
+            batch.forEach(c -> received.add(c.seq()));
+        }
+        assertEquals(List.of(start + 1, start + 2, start + 3, start + 4), received);
+        assertTrue(slow.isDropped());
+        assertEquals(droppedBefore + 1, registry.counter("changes.subscribers.dropped").count());
+        slow.close();
+
+        try (ChangeFeed.Subscription resumed = feed.subscribe(slow.position())) {
+            List<Long> rest = new ArrayList<>();
+            while (rest.size() < 3) resumed.next(10, Duration.ofMillis(10)).forEach(c -> rest.add(c.seq()));
+            assertEquals(List.of(start + 5, start + 6, start + 7), rest);
+        }
+    }
+
+    private void register(String description) {
+        carService.registerClaim(2L, LocalDate.now(), description, new BigDecimal("50.00"));
+    }
+
+    private void awaitSeq(long seq) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (feed.lastSeq() < seq && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        assertTrue(feed.lastSeq() >= seq, "feed reached " + seq);
+    }
+
+    private static BufferedReader reader(HttpResponse<InputStream> response) {
+        return new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8));
+    }
+
+    private static String readUntil(BufferedReader reader, Predicate<String> match) throws Exception {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (match.test(line)) return line;
+        }
+        throw new AssertionError("stream ended");
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.carins;
+
+import com.example.carins.service.CarService;
+import com.example.carins.web.CarController;
+import com.example.carins.web.dto.ClaimDto;
+import com.example.carins.web.dto.ClaimPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:claim-history;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.carins.CapturingStatementInspector"
+})
+public class ClaimHistoryTests {
+
+    @Autowired
+    CarService service;
+    @Autowired
+    CarController controller;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void pages_walkHistoryInBothDirections() {
+        for (int i = 0; i < 5; i++) {
+            service.registerClaim(1L, LocalDate.parse("2025-04-01").plusDays(i % 2), "Claim " + i, BigDecimal.TEN);
+        }
+        List<ClaimDto> asc = collect(1L, null, null, "asc");
+        List<ClaimDto> desc = collect(1L, null, null, "desc");
+
+        Comparator<ClaimDto> order = Comparator.comparing(ClaimDto::claimDate).thenComparing(ClaimDto::id);
+        assertEquals(asc.stream().sorted(order).toList(), asc);
+        assertEquals(asc.reversed(), desc);
+        assertEquals(controller.getCarHistory(1L).size(), asc.size());
+    }
+
+    @Test
+    void fromTo_limitsWindow() {
+        LocalDate from = LocalDate.parse("2025-03-01");
+        LocalDate to = LocalDate.parse("2025-04-30");
+        List<ClaimDto> window = collect(1L, from, to, "asc");
+        assertFalse(window.isEmpty());
+        window.forEach(c -> assertFalse(c.claimDate().isBefore(from) || c.claimDate().isAfter(to)));
+    }
+
+    @Test
+    void unknownCar_throws404() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> controller.getCarHistoryPage(9999L, null, null, "asc", null, 10));
+        assertEquals(404, ex.getStatusCode().value());
+    }
+
+    @Test
+    void badCursor_throws400() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> controller.getCarHistoryPage(1L, null, null, "asc", "garbage", 10));
+        assertEquals(400, ex.getStatusCode().value());
+    }
+
+    @Test
+    void pageQuery_usesCompositeIndex() {
+        CapturingStatementInspector.statements.clear();
+        controller.getCarHistoryPage(1L, LocalDate.parse("2025-01-01"), LocalDate.parse("2025-12-31"), "desc",
+                "2025-06-01_1000", 2);
+        String sql = CapturingStatementInspector.statements.stream()
+                .filter(s -> s.contains("claim_date")).findFirst().orElseThrow();
+
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class,
+                1L, LocalDate.parse("2025-01-01"), LocalDate.parse("2025-12-31"),
+                LocalDate.parse("2025-06-01"), LocalDate.parse("2025-06-01"), 1000L, 3);
+        assertTrue(plan.toUpperCase().contains("IDX_CLAIM_CAR_DATE_ID"), plan);
+    }
+
+    private List<ClaimDto> collect(Long carId, LocalDate from, LocalDate to, String order) {
+        List<ClaimDto> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            ClaimPage page = controller.getCarHistoryPage(carId, from, to, order, cursor, 2);
+            all.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return all;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.carins;
+
+import com.example.carins.repo.ClaimRepository;
+import com.example.carins.service.CarService;
+import com.example.carins.service.ClaimRow;
+import com.example.carins.web.ClaimController;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:claim-ingestion;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.carins.CapturingStatementInspector",
+        "insurance.claims.ingest.batch-size=100",
+        "insurance.claims.ingest.chunk-size=400"
+})
+@AutoConfigureMockMvc
+public class ClaimIngestionTests {
+
+    @Autowired
+    ClaimController controller;
+    @Autowired
+    CarService service;
+    @Autowired
+    ClaimRepository claimRepository;
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    void bulkIngest_insertsValidRowsAndReportsRejects() {
+        long before = claimRepository.count();
+        List<ClaimRow> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new ClaimRow(1L + i % 2, LocalDate.now().minusDays(i % 30), "Feed claim " + i, BigDecimal.valueOf(10 + i)));
+        }
+        rows.set(10, new ClaimRow(9999L, LocalDate.now(), "Unknown car", BigDecimal.TEN));
+        rows.set(500, new ClaimRow(1L, LocalDate.now(), " ", BigDecimal.TEN));
+        rows.set(999, new ClaimRow(1L, LocalDate.now().plusDays(3), "Future", BigDecimal.TEN));
+
+        var summary = controller.ingestClaims(rows);
+
+        assertEquals(997, summary.accepted());
+        assertEquals(3, summary.rejected());
+        assertEquals(List.of(10L, 500L, 999L), summary.rejects().stream().map(r -> r.index()).toList());
+        assertEquals("Car not found", summary.rejects().get(0).error());
+        assertEquals("Description must be provided", summary.rejects().get(1).error());
+        assertEquals("Claim date cannot be in the future", summary.rejects().get(2).error());
+        assertEquals(before + 997, claimRepository.count());
+
+        var single = service.registerClaim(2L, LocalDate.now(), "After bulk", BigDecimal.ONE);
+        assertNotNull(single.getId());
+    }
+
+    @Test
+    void bulkIngest_usesBatchedInserts() {
+        CapturingStatementInspector.statements.clear();
+        List<ClaimRow> rows = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            rows.add(new ClaimRow(2L, LocalDate.now(), "Batch " + i, BigDecimal.ONE));
+        }
+        controller.ingestClaims(rows);
+        long inserts = CapturingStatementInspector.statements.stream().filter(s -> s.startsWith("insert into claim")).count();
+        assertTrue(inserts <= 3, "expected batched inserts, saw " + inserts + " insert statements");
+    }
+
+    @Test
+    void ndjson_streamsRejectsAndSummary() throws Exception {
+        String body = """
+                {"carId":1,"claimDate":"2025-01-10","description":"Scratch","amount":120.50}
+                oops
+                {"carId":9999,"claimDate":"2025-01-10","description":"Dent","amount":80}
+                """;
+        String out = mvc.perform(post("/api/claims/bulk").contentType("application/x-ndjson").content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<String> lines = out.lines().toList();
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).contains("\"index\":1") && lines.get(0).contains("Malformed item"));
+        assertTrue(lines.get(1).contains("\"index\":2") && lines.get(1).contains("Car not found"));
+        assertTrue(lines.get(2).startsWith("{\"accepted\":1,\"rejected\":2"));
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.carins;
+
+import com.example.carins.model.Car;
+import com.example.carins.model.Claim;
+import com.example.carins.repo.CarRepository;
+import com.example.carins.repo.ClaimRepository;
+import com.example.carins.repo.ClaimText;
+import com.example.carins.service.ClaimSearchIndex;
+import com.example.carins.service.ClaimSearchService;
+import com.example.carins.tools.SyntheticDataGenerator;
+import com.example.carins.web.dto.ClaimDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:claim-search;DB_CLOSE_DELAY=-1",
+        "insurance.claim-search.merge-min-docs=64"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ClaimSearchTests {
+
+    private static final String[] WORDS = {"hail", "hood", "storm", "rear", "bumper", "parking", "theft",
+            "windshield", "highway", "cracked", "overnight", "grille", "nomatch"};
+
+    @Autowired
+    ClaimSearchIndex index;
+    @Autowired
+    ClaimSearchService searchService;
+    @Autowired
+    SyntheticDataGenerator generator;
+    @Autowired
+    ClaimRepository claimRepository;
+    @Autowired
+    CarRepository carRepository;
+    @Autowired
+    MockMvc mvc;
+
+    SyntheticDataGenerator.Result dataset;
+
+    @BeforeAll
+    void seed() {
+        dataset = generator.generate(new SyntheticDataGenerator.Spec(20, 100, 0, 10, 17));
+        index.load();
+    }
+
+    @Test
+    void search_matchesFullScan() {
+        assertTrue(index.isActive());
+        assertRandomQueriesMatchScan(new SplittableRandom(5), 150);
+    }
+
+    @Test
+    void index_followsCommittedInsertsUpdatesAndDeletes() throws Exception {
+        Car car = carRepository.findById(dataset.firstCarId()).orElseThrow();
+        List<Claim> saved = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            saved.add(claimRepository.save(new Claim(car, LocalDate.now().minusDays(i),
+                    "Kerbstone scrape on wheel rim number " + i, new BigDecimal("100.00").add(BigDecimal.valueOf(i)))));
+        }
+        assertEquals(150, search("kerbstone", null, null, null, null).size());
+
+        Claim renamed = saved.get(10);
+        renamed.setDescription("Pothole damage to exhaust");
+        claimRepository.save(renamed);
+        claimRepository.delete(saved.get(20));
+        Claim generated = claimRepository.findAll().stream()
+                .filter(c -> c.getDescription().contains("storm")).findFirst().orElseThrow();
+        claimRepository.delete(generated);
+
+        List<Long> kerbstone = search("kerbstone", null, null, null, null);
+        assertEquals(148, kerbstone.size());
+        assertFalse(kerbstone.contains(renamed.getId()));
+        assertEquals(List.of(renamed.getId()), search("pothole exhaust", null, null, null, null));
+        assertFalse(search("storm", null, null, null, null).contains(generated.getId()));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (index.pendingDocs() >= 64 && System.currentTimeMillis() < deadline) Thread.sleep(20);
+        assertTrue(index.pendingDocs() < 64, "tail was merged into the segment");
+        assertEquals(148, search("kerbstone", null, null, null, null).size());
+        assertRandomQueriesMatchScan(new SplittableRandom(9), 60);
+    }
+
+    @Test
+    void load_keepsChangesCommittedWhileItRuns() {
+        LocalDate day = LocalDate.now();
+        AtomicReference<ClaimSearchIndex> loading = new AtomicReference<>();
+        ClaimRepository snapshot = (ClaimRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ClaimRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("streamAllTextNewestFirst")) throw new UnsupportedOperationException();
+                    return Stream.of(3L, 2L, 1L)
+                            .peek(id -> {
+                                if (id != 3L) return;
+                                loading.get().put(4L, day, BigDecimal.TEN, "Scratched door");
+                                loading.get().put(5L, day, BigDecimal.TEN, "Cracked mirror");
+                                loading.get().remove(2L);
+                                loading.get().put(3L, day, BigDecimal.ONE, "Dented door");
+                            })
+                            .map(id -> new ClaimText(id, day, BigDecimal.ONE, "Dented bumper " + id));
+                });
+        ClaimSearchIndex fresh = new ClaimSearchIndex(snapshot, true, 64, new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        loading.set(fresh);
+        fresh.put(9L, day, BigDecimal.ONE, "Before the load, already in the snapshot");
+
+        fresh.load();
+
+        assertTrue(fresh.isActive());
+        assertEquals(4, fresh.size(), "claims 1, 3, 4 and 5");
+        assertEquals(3, fresh.pendingDocs(), "claims 3, 4 and 5 replayed into the tail");
+        fresh.remove(4L);
+        assertEquals(3, fresh.size());
+    }
+
+    @Test
+    void endpoint_pagesWithCursorAndValidatesInput() throws Exception {
+        List<Long> all = search("hail", null, new BigDecimal("2000"), null, null);
+        assertTrue(all.size() > 5);
+        mvc.perform(get("/api/claims/search").param("q", "Hail").param("maxAmount", "2000").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(5))
+                .andExpect(jsonPath("$.items[0].id").value(all.get(0)))
+                .andExpect(jsonPath("$.nextCursor").value(String.valueOf(all.get(4))));
+        mvc.perform(get("/api/claims/search").param("q", "hail").param("maxAmount", "2000")
+                        .param("cursor", String.valueOf(all.get(4))).param("limit", "5"))
+                .andExpect(jsonPath("$.items[0].id").value(all.get(5)));
+
+        mvc.perform(get("/api/claims/search").param("q", "hail").param("cursor", "abc")).andExpect(status().isBadRequest());
+        mvc.perform(get("/api/claims/search").param("q", "hail").param("limit", "101")).andExpect(status().isBadRequest());
+        mvc.perform(get("/api/claims/search").param("q", "!").param("limit", "5")).andExpect(status().isBadRequest());
+        mvc.perform(get("/api/claims/search").param("minAmount", "10").param("maxAmount", "5")).andExpect(status().isBadRequest());
+        mvc.perform(get("/api/claims/search").param("from", "2025-02-01").param("to", "2025-01-01")).andExpect(status().isBadRequest());
+    }
+
+    private void assertRandomQueriesMatchScan(SplittableRandom random, int queries) {
+        List<Claim> claims = claimRepository.findAll();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < queries; i++) {
+            int words = random.nextInt(3);
+            StringBuilder q = new StringBuilder();
+            for (int w = 0; w < words; w++) q.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            BigDecimal min = random.nextInt(3) == 0 ? BigDecimal.valueOf(random.nextInt(300_000), 2) : null;
+            BigDecimal max = random.nextInt(3) == 0 ? BigDecimal.valueOf(random.nextInt(600_000), 2) : null;
+            LocalDate from = random.nextInt(3) == 0 ? today.minusDays(random.nextInt(1100)) : null;
+            LocalDate to = random.nextInt(3) == 0 ? today.minusDays(random.nextInt(400)) : null;
+            if (min != null && max != null && min.compareTo(max) > 0) max = null;
+            if (from != null && to != null && from.isAfter(to)) to = null;
+
+            List<String> terms = ClaimSearchIndex.tokens(q.toString());
+            BigDecimal fMin = min, fMax = max;
+            LocalDate fFrom = from, fTo = to;
+            List<Long> expected = claims.stream()
+                    .filter(c -> ClaimSearchIndex.tokens(c.getDescription()).containsAll(terms))
+                    .filter(c -> fMin == null || c.getAmount().compareTo(fMin) >= 0)
+                    .filter(c -> fMax == null || c.getAmount().compareTo(fMax) <= 0)
+                    .filter(c -> fFrom == null || !c.getClaimDate().isBefore(fFrom))
+                    .filter(c -> fTo == null || !c.getClaimDate().isAfter(fTo))
+                    .map(Claim::getId)
+                    .sorted(Comparator.reverseOrder())
+                    .toList();
+            assertEquals(expected, search(q.toString(), min, max, from, to),
+                    "q=" + q + " amount=[" + min + ", " + max + "] date=[" + from + ", " + to + "]");
+        }
+    }
+
+    /** Every page of the search, 37 claims at a time. */
+    private List<Long> search(String q, BigDecimal min, BigDecimal max, LocalDate from, LocalDate to) {
+        List<Long> ids = new ArrayList<>();
+        Long before = null;
+        while (true) {
+            List<ClaimDto> page = searchService.search(q, min, max, from, to, before, 37);
+            page.stream().limit(37).forEach(c -> ids.add(c.id()));
+            if (page.size() <= 37) return ids;
+            before = page.get(36).id();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.carins;
+
+import com.example.carins.model.Car;
+import com.example.carins.model.CarClaimStats;
+import com.example.carins.model.Claim;
+import com.example.carins.model.Owner;
+import com.example.carins.repo.CarRepository;
+import com.example.carins.repo.OwnerRepository;
+import com.example.carins.service.CarService;
+import com.example.carins.service.ClaimIngestionService;
+import com.example.carins.service.ClaimRow;
+import com.example.carins.service.ClaimStatsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:claim-stats;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000")
+@AutoConfigureMockMvc
+public class ClaimStatsTests {
+
+    @Autowired
+    CarService carService;
+    @Autowired
+    ClaimIngestionService ingestionService;
+    @Autowired
+    ClaimStatsService statsService;
+    @Autowired
+    OwnerRepository ownerRepository;
+    @Autowired
+    CarRepository carRepository;
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    void stats_matchHistoryAfterIncrementalWrites() {
+        Long carId = newCar("STATS0001");
+        carService.registerClaim(carId, LocalDate.of(2025, 2, 1), "Scratch", new BigDecimal("120.00"));
+        carService.registerClaim(carId, LocalDate.of(2025, 1, 1), "Dent", new BigDecimal("900.50"));
+        ingestionService.ingest(List.of(
+                new ClaimRow(carId, LocalDate.of(2024, 6, 1), "Glass", new BigDecimal("80.00")),
+                new ClaimRow(carId, LocalDate.of(2025, 3, 1), "Mirror", new BigDecimal("45.25"))), 0);
+
+        assertMatchesHistory(carId);
+        CarClaimStats stats = statsService.forCar(carId);
+        assertEquals(4, stats.getClaimCount());
+        assertEquals(0, new BigDecimal("900.50").compareTo(stats.getMaxAmount()));
+        assertEquals(LocalDate.of(2025, 3, 1), stats.getLastClaimDate());
+    }
+
+    @Test
+    void concurrentFirstClaims_loseNoUpdates() throws Exception {
+        Long carId = newCar("STATS0002");
+        int threads = 8, perThread = 25;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        carService.registerClaim(carId, LocalDate.of(2025, 1, 1), "Concurrent", BigDecimal.TEN);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+        CarClaimStats stats = statsService.forCar(carId);
+        assertEquals(threads * perThread, stats.getClaimCount());
+        assertEquals(0, BigDecimal.valueOf(10L * threads * perThread).compareTo(stats.getTotalAmount()));
+    }
+
+    @Test
+    void rebuild_reproducesIncrementalStats() throws Exception {
+        Long carId = newCar("STATS0003");
+        carService.registerClaim(carId, LocalDate.of(2025, 4, 1), "Bumper", new BigDecimal("300.00"));
+        CarClaimStats before = statsService.forCar(carId);
+
+        mvc.perform(post("/api/admin/claim-stats/rebuild")).andExpect(status().isOk());
+
+        CarClaimStats after = statsService.forCar(carId);
+        assertEquals(before.getClaimCount(), after.getClaimCount());
+        assertEquals(0, before.getTotalAmount().compareTo(after.getTotalAmount()));
+        assertMatchesHistory(1L);
+    }
+
+    @Test
+    void rebuild_duringConcurrentClaims_losesAndDoublesNothing() throws Exception {
+        Long existing = newCar("STATS0005");
+        carService.registerClaim(existing, LocalDate.of(2025, 1, 1), "Before", BigDecimal.ONE);
+        Long fresh = newCar("STATS0006");
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long carId : List.of(existing, fresh)) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 40; i++) {
+                        carService.registerClaim(carId, LocalDate.of(2025, 1, 2), "During", BigDecimal.TEN);
+                    }
+                    return null;
+                }));
+            }
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 10; i++) statsService.rebuild();
+                return null;
+            }));
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(41, statsService.forCar(existing).getClaimCount());
+        assertEquals(40, statsService.forCar(fresh).getClaimCount());
+        assertMatchesHistory(existing);
+        assertMatchesHistory(fresh);
+    }
+
+    @Test
+    void endpoints_returnCarStatsAndTopN() throws Exception {
+        Long carId = newCar("STATS0004");
+        mvc.perform(get("/api/cars/{id}/claim-stats", carId)).andExpect(status().isOk())
+                .andExpect(jsonPath("$.claimCount").value(0));
+        carService.registerClaim(carId, LocalDate.of(2025, 5, 1), "Total loss", new BigDecimal("99999.00"));
+
+        mvc.perform(get("/api/claim-stats/top").param("limit", "1")).andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].carId").value(carId));
+        mvc.perform(get("/api/cars/999999/claim-stats")).andExpect(status().isNotFound());
+        mvc.perform(get("/api/claim-stats/top").param("limit", "0")).andExpect(status().isBadRequest());
+    }
+
+    private Long newCar(String vin) {
+        Owner owner = ownerRepository.save(new Owner("Stats " + vin, vin.toLowerCase() + "@example.com"));
+        return carRepository.save(new Car(vin, "Ford", "Focus", 2019, owner)).getId();
+    }
+
+    private void assertMatchesHistory(Long carId) {
+        List<Claim> claims = carService.listClaims(carId);
+        CarClaimStats stats = statsService.forCar(carId);
+        assertEquals(claims.size(), stats.getClaimCount());
+        assertEquals(0, claims.stream().map(Claim::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add).compareTo(stats.getTotalAmount()));
+        assertEquals(0, claims.stream().map(Claim::getAmount).max(Comparator.naturalOrder()).orElseThrow().compareTo(stats.getMaxAmount()));
+        assertEquals(claims.stream().map(Claim::getClaimDate).max(Comparator.naturalOrder()).orElseThrow(), stats.getLastClaimDate());
+    }
+}
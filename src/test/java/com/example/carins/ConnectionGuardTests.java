@@ -0,0 +1,99 @@
+package com.example.carins;
+
+import com.example.carins.config.ConnectionGuardDataSource;
+import com.example.carins.web.GlobalExceptionHandler;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** A two-connection pool with room for one waiter, drained by the test holding both connections. */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:connection-guard;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=1000",
+        "insurance.db.max-pending-connections=1",
+        "insurance.changes.enabled=false",
+        "insurance.cache.enabled=false"
+})
+@AutoConfigureMockMvc
+public class ConnectionGuardTests {
+
+    @Autowired
+    DataSource dataSource;
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    GlobalExceptionHandler handler;
+
+    @Test
+    void poolTimeout_isReportedAsBusyWithRetryAfter() throws Exception {
+        List<Connection> held = holdAll();
+        try {
+            mvc.perform(get("/api/cars/1/history"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andExpect(jsonPath("$.message").value("Database is busy, please retry."));
+        } finally {
+            for (Connection c : held) c.close();
+        }
+        mvc.perform(get("/api/cars/1/history")).andExpect(status().isOk());
+    }
+
+    @Test
+    void waitersOverTheLimit_failFastWhileTheOthersGetAConnection() throws Exception {
+        ConnectionGuardDataSource guard = (ConnectionGuardDataSource) dataSource;
+        List<Connection> held = holdAll();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> waiting = pool.submit(() ->
+                    mvc.perform(get("/api/cars/1/history")).andReturn().getResponse().getStatus());
+            for (int i = 0; i < 100 && guard.pending() < 1; i++) Thread.sleep(5);
+            assertEquals(1, guard.pending());
+
+            long started = System.nanoTime();
+            mvc.perform(get("/api/cars/2/history"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"));
+            assertTrue(System.nanoTime() - started < 500_000_000L, "rejected without waiting for the pool");
+
+            held.remove(0).close();
+            assertEquals(200, waiting.get());
+        } finally {
+            pool.shutdown();
+            for (Connection c : held) c.close();
+        }
+        assertEquals(0, guard.pending());
+    }
+
+    @Test
+    void otherResourceFailures_areServerErrors() {
+        var response = handler.handleDatabaseBusy(new DataAccessResourceFailureException("Disk full", new SQLException("Disk full")));
+        assertEquals(500, response.getStatusCode().value());
+        assertFalse(response.getHeaders().containsKey("Retry-After"));
+    }
+
+    private List<Connection> holdAll() throws SQLException {
+        List<Connection> held = new ArrayList<>();
+        held.add(dataSource.getConnection());
+        held.add(dataSource.getConnection());
+        return held;
+    }
+}
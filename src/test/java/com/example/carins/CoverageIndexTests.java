@@ -0,0 +1,155 @@
+package com.example.carins;
+
+import com.example.carins.model.Car;
+import com.example.carins.model.InsurancePolicy;
+import com.example.carins.repo.CarRepository;
+import com.example.carins.repo.InsurancePolicyRepository;
+import com.example.carins.service.CarService;
+import com.example.carins.service.CoverageIndex;
+import com.example.carins.service.ValidityCheck;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:coverage-index;DB_CLOSE_DELAY=-1",
+        "insurance.coverage-index.enabled=true"
+})
+public class CoverageIndexTests {
+
+    @Autowired
+    CarService service;
+    @Autowired
+    CoverageIndex index;
+    @Autowired
+    CarRepository carRepository;
+    @Autowired
+    InsurancePolicyRepository policyRepository;
+    @Autowired
+    JdbcTemplate jdbc;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void indexMatchesDatabase() {
+        assertTrue(index.isActive());
+        for (long carId : new long[]{1L, 2L}) {
+            for (LocalDate d = LocalDate.parse("2023-12-01"); d.isBefore(LocalDate.parse("2026-02-01")); d = d.plusDays(1)) {
+                assertEquals(policyRepository.existsActiveOnDate(carId, d), service.isInsuranceValid(carId, d),
+                        "car " + carId + " on " + d);
+            }
+        }
+        assertEquals(0, index.verify());
+    }
+
+    @Test
+    void newPolicyIsVisibleAfterCommit() {
+        Car car = carRepository.findById(2L).orElseThrow();
+        LocalDate day = LocalDate.parse("2026-06-15");
+        assertFalse(service.isInsuranceValid(2L, day));
+
+        InsurancePolicy saved = policyRepository.save(new InsurancePolicy(car, "Generali", day.minusDays(10), day.plusDays(10)));
+        assertTrue(service.isInsuranceValid(2L, day));
+
+        policyRepository.delete(saved);
+        assertFalse(service.isInsuranceValid(2L, day));
+        assertEquals(0, index.verify());
+    }
+
+    @Test
+    void unknownCar_throws404() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> service.isInsuranceValid(9999L, LocalDate.now()));
+        assertEquals(404, ex.getStatusCode().value());
+    }
+
+    @Test
+    void verify_keepsRefreshesCommittedWhileItReads() {
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        LocalDate day = LocalDate.parse("2027-06-15");
+        AtomicReference<CoverageIndex> verifying = new AtomicReference<>();
+        AtomicLong newCarId = new AtomicLong();
+        InsurancePolicyRepository policies = (InsurancePolicyRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{InsurancePolicyRepository.class}, (proxy, method, args) -> {
+                    Object result = invoke(policyRepository, method, args);
+                    if (!method.getName().equals("streamAllIntervals") || verifying.get() == null) return result;
+                    List<?> snapshot;
+                    try (Stream<?> rows = (Stream<?>) result) {
+                        snapshot = rows.toList();
+                    }
+                    requiresNew.executeWithoutResult(st -> {
+                        Car car = carRepository.save(new Car("VIN-COVERAGE-RACE", "Skoda", "Octavia", 2022,
+                                carRepository.findById(1L).orElseThrow().getOwner()));
+                        newCarId.set(car.getId());
+                        policyRepository.save(new InsurancePolicy(car, "Allianz", day.minusDays(10), day.plusDays(10)));
+                        policyRepository.save(new InsurancePolicy(carRepository.findById(2L).orElseThrow(), "Allianz",
+                                day.minusDays(10), day.plusDays(10)));
+                    });
+                    requiresNew.executeWithoutResult(st -> verifying.get().refresh(newCarId.get()));
+                    requiresNew.executeWithoutResult(st -> verifying.get().refresh(2L));
+                    return snapshot.stream();
+                });
+        CoverageIndex fresh = new CoverageIndex(carRepository, policies, true);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        try {
+            readOnly.executeWithoutResult(st -> fresh.load());
+            verifying.set(fresh);
+
+            readOnly.executeWithoutResult(st -> fresh.verify());
+
+            assertTrue(fresh.find(newCarId.get()).covers(day), "new car kept with its policy");
+            assertTrue(fresh.find(2L).covers(day), "car 2 kept with its new policy");
+        } finally {
+            jdbc.update("delete from insurancepolicy where start_date = ?", day.minusDays(10));
+            jdbc.update("delete from car where vin = 'VIN-COVERAGE-RACE'");
+            index.refresh(2L);
+            index.refresh(newCarId.get());
+        }
+    }
+
+    @Test
+    void carMissingFromIndex_isLookedUpInTheDatabase() {
+        jdbc.update("insert into car (vin, make, model, year_of_manufacture, owner_id) values ('VIN-COVERAGE-MISS', 'Opel', 'Astra', 2020, 1)");
+        Long carId = jdbc.queryForObject("select id from car where vin = 'VIN-COVERAGE-MISS'", Long.class);
+        try {
+            jdbc.update("insert into insurancepolicy (id, car_id, provider, start_date, end_date) " +
+                    "values (next value for policy_seq, ?, 'Allianz', DATE '2025-01-01', DATE '2025-12-31')", carId);
+            assertNull(index.find(carId));
+
+            assertTrue(service.isInsuranceValid(carId, LocalDate.parse("2025-06-01")));
+            assertFalse(service.isInsuranceValid(carId, LocalDate.parse("2026-06-01")));
+            assertEquals(List.of(ValidityCheck.Result.of(true), ValidityCheck.Result.error("Car not found")),
+                    service.checkInsuranceValidity(List.of(new ValidityCheck(carId, LocalDate.parse("2025-06-01")),
+                            new ValidityCheck(9999L, LocalDate.parse("2025-06-01")))));
+        } finally {
+            jdbc.update("delete from insurancepolicy where car_id = ?", carId);
+            jdbc.update("delete from car where id = ?", carId);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
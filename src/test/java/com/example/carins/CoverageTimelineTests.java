@@ -0,0 +1,116 @@
+package com.example.carins;
+
+import com.example.carins.metrics.SqlStatementCounter;
+import com.example.carins.model.Car;
+import com.example.carins.model.InsurancePolicy;
+import com.example.carins.model.Owner;
+import com.example.carins.repo.CarRepository;
+import com.example.carins.repo.InsurancePolicyRepository;
+import com.example.carins.repo.OwnerRepository;
+import com.example.carins.service.CarService;
+import com.example.carins.service.CoverageTimeline;
+import com.example.carins.tools.SyntheticDataGenerator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static com.example.carins.SqlStatementBudget.assertAtMost;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:coverage-timeline;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class CoverageTimelineTests {
+
+    @Autowired
+    CarService service;
+    @Autowired
+    SyntheticDataGenerator generator;
+    @Autowired
+    OwnerRepository ownerRepository;
+    @Autowired
+    CarRepository carRepository;
+    @Autowired
+    InsurancePolicyRepository policyRepository;
+    @Autowired
+    SqlStatementCounter counter;
+    @Autowired
+    MockMvc mvc;
+
+    SyntheticDataGenerator.Result dataset;
+    Long overlapCarId;
+
+    @BeforeAll
+    void seed() {
+        dataset = generator.generate(new SyntheticDataGenerator.Spec(5, 10, 3, 0, 11));
+
+        Owner owner = ownerRepository.save(new Owner("Timeline Owner", "timeline@example.com"));
+        Car car = carRepository.save(new Car("TIMELINE01", "Skoda", "Octavia", 2020, owner));
+        policyRepository.save(new InsurancePolicy(car, "A", LocalDate.of(2030, 1, 1), LocalDate.of(2030, 3, 31)));
+        policyRepository.save(new InsurancePolicy(car, "B", LocalDate.of(2030, 3, 1), LocalDate.of(2030, 4, 30)));
+        policyRepository.save(new InsurancePolicy(car, "C", LocalDate.of(2030, 5, 1), LocalDate.of(2030, 5, 31)));
+        policyRepository.save(new InsurancePolicy(car, "D", LocalDate.of(2030, 7, 1), LocalDate.of(2030, 7, 31)));
+        overlapCarId = car.getId();
+    }
+
+    @Test
+    void timeline_matchesPerDayCheck() {
+        LocalDate from = LocalDate.now().minusYears(3);
+        LocalDate to = LocalDate.now().plusMonths(6);
+        for (long carId = dataset.firstCarId(); carId <= dataset.lastCarId(); carId++) {
+            CoverageTimeline timeline = service.coverageTimeline(carId, from, to);
+            assertEquals(from, timeline.segments().get(0).from());
+            assertEquals(to, timeline.segments().get(timeline.segments().size() - 1).to());
+            for (CoverageTimeline.Segment s : timeline.segments()) {
+                for (LocalDate d = s.from(); !d.isAfter(s.to()); d = d.plusDays(1)) {
+                    assertEquals(policyRepository.existsActiveOnDate(carId, d), s.covered(), "car " + carId + " on " + d);
+                }
+            }
+        }
+    }
+
+    @Test
+    void timeline_mergesAdjacentAndFlagsOverlaps() {
+        CoverageTimeline t = service.coverageTimeline(overlapCarId, LocalDate.of(2029, 12, 1), LocalDate.of(2030, 8, 15));
+
+        assertEquals(5, t.segments().size());
+        assertEquals(new CoverageTimeline.Segment(LocalDate.of(2029, 12, 1), LocalDate.of(2029, 12, 31), false), t.segments().get(0));
+        assertEquals(new CoverageTimeline.Segment(LocalDate.of(2030, 1, 1), LocalDate.of(2030, 5, 31), true), t.segments().get(1));
+        assertEquals(new CoverageTimeline.Segment(LocalDate.of(2030, 6, 1), LocalDate.of(2030, 6, 30), false), t.segments().get(2));
+        assertEquals(new CoverageTimeline.Segment(LocalDate.of(2030, 7, 1), LocalDate.of(2030, 7, 31), true), t.segments().get(3));
+        assertEquals(new CoverageTimeline.Segment(LocalDate.of(2030, 8, 1), LocalDate.of(2030, 8, 15), false), t.segments().get(4));
+        assertEquals(151 + 31, t.coveredDays());
+
+        assertEquals(1, t.overlaps().size());
+        assertEquals(LocalDate.of(2030, 3, 1), t.overlaps().get(0).from());
+        assertEquals(LocalDate.of(2030, 3, 31), t.overlaps().get(0).to());
+    }
+
+    @Test
+    void timeline_isOneQuery() throws Throwable {
+        assertAtMost(counter, 1, "GET /api/cars/{id}/coverage",
+                () -> mvc.perform(get("/api/cars/{id}/coverage", dataset.firstCarId())
+                                .param("from", "2024-01-01").param("to", "2025-12-31"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.intervals[0].from").value("2024-01-01")));
+    }
+
+    @Test
+    void timeline_rejectsBadInput() throws Exception {
+        mvc.perform(get("/api/cars/999999/coverage").param("from", "2025-01-01").param("to", "2025-02-01"))
+                .andExpect(status().isNotFound());
+        mvc.perform(get("/api/cars/1/coverage").param("from", "2025-02-01").param("to", "2025-01-01"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/cars/1/coverage").param("from", "2025-02-01"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.carins;
+
+import com.example.carins.model.Car;
+import com.example.carins.model.Claim;
+import com.example.carins.service.CarQueryService;
+import com.example.carins.service.CarService;
+import com.example.carins.tools.SyntheticDataGenerator;
+import com.example.carins.web.dto.CarDto;
+import com.example.carins.web.dto.ClaimDto;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:dto-projection;DB_CLOSE_DELAY=-1")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class DtoProjectionTests {
+
+    @Autowired
+    CarService service;
+    @Autowired
+    CarQueryService queryService;
+    @Autowired
+    SyntheticDataGenerator generator;
+
+    SyntheticDataGenerator.Result dataset;
+
+    @BeforeAll
+    void seed() {
+        dataset = generator.generate(new SyntheticDataGenerator.Spec(15, 60, 1, 8, 21));
+    }
+
+    @Test
+    void cars_matchEntityPath() {
+        List<CarDto> fromEntities = service.listCars().stream()
+                .sorted(Comparator.comparing(Car::getId))
+                .map(c -> new CarDto(c.getId(), c.getVin(), c.getMake(), c.getModel(), c.getYearOfManufacture(),
+                        c.getOwner().getId(), c.getOwner().getName(), c.getOwner().getEmail()))
+                .toList();
+        assertEquals(fromEntities, queryService.listCars());
+    }
+
+    @Test
+    void claims_matchEntityPath() {
+        for (long carId = 1; carId <= dataset.lastCarId(); carId++) {
+            List<ClaimDto> fromEntities = service.listClaims(carId).stream()
+                    .sorted(Comparator.comparing(Claim::getClaimDate).thenComparing(Claim::getId))
+                    .map(c -> new ClaimDto(c.getId(), c.getClaimDate(), c.getDescription(), c.getAmount(), c.getCar().getId()))
+                    .toList();
+            assertEquals(fromEntities, queryService.listClaims(carId), "car " + carId);
+        }
+    }
+
+    @Test
+    void claims_unknownCarIs404() {
+        var ex = assertThrows(ResponseStatusException.class, () -> queryService.listClaims(999_999L));
+        assertEquals(404, ex.getStatusCode().value());
+    }
+}
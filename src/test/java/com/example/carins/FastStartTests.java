@@ -0,0 +1,49 @@
+package com.example.carins;
+
+import com.example.carins.service.PolicyExpiryProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:fast-start;DB_CLOSE_DELAY=-1",
+        "insurance.warmup.rounds=2"
+})
+@ActiveProfiles("faststart")
+public class FastStartTests {
+
+    @Autowired
+    MeterRegistry registry;
+    @Autowired
+    PolicyExpiryProcessor expiryProcessor;
+    @Autowired
+    ApplicationAvailability availability;
+    @Autowired
+    ApplicationContext context;
+
+    @Test
+    void warmUp_sendsHotRequestsBeforeTheAppReportsReady() {
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+        for (String uri : new String[]{"/api/cars/{carId}/insurance-valid", "/api/cars/{carId}/history",
+                "/api/claims/search", "/api/cars/by-vin/{vin}/insurance-valid"}) {
+            Timer timer = registry.find("http.server.requests").tag("uri", uri).timer();
+            assertNotNull(timer, uri);
+            assertEquals(2, timer.count(), uri);
+        }
+        assertTrue(registry.find("http.server.requests").tag("outcome", "SERVER_ERROR").timers().isEmpty());
+    }
+
+    @Test
+    void nonHotWork_isDeferredOrOff() {
+        assertNull(expiryProcessor.lastProcessedDay(), "startup expiry catch-up runs after the delay");
+        assertFalse(context.containsBean("h2Console"));
+    }
+}
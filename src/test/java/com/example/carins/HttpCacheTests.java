@@ -0,0 +1,109 @@
+package com.example.carins;
+
+import com.example.carins.metrics.SqlStatementCounter;
+import com.example.carins.model.Car;
+import com.example.carins.repo.CarRepository;
+import com.example.carins.service.CarService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static com.example.carins.SqlStatementBudget.assertAtMost;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:http-cache;DB_CLOSE_DELAY=-1",
+        "insurance.http-cache.response-bytes.max-bytes=1048576"
+})
+@AutoConfigureMockMvc
+public class HttpCacheTests {
+
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    SqlStatementCounter counter;
+    @Autowired
+    CarService service;
+    @Autowired
+    CarRepository carRepository;
+
+    @Test
+    void matchingIfNoneMatch_answers304WithoutSql() throws Throwable {
+        String etag = etag("/api/cars");
+        MvcResult notModified = assertAtMost(counter, 0, "conditional GET /api/cars", () ->
+                mvc.perform(get("/api/cars").header(HttpHeaders.IF_NONE_MATCH, "W/" + etag))
+                        .andExpect(status().isNotModified())
+                        .andExpect(header().string(HttpHeaders.ETAG, etag))
+                        .andReturn());
+        assertEquals(0, notModified.getResponse().getContentLength());
+
+        mvc.perform(get("/api/cars").header(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag))
+                .andExpect(status().isNotModified());
+        mvc.perform(get("/api/cars").header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void repeatGet_isServedFromCachedBytes() throws Throwable {
+        String first = mvc.perform(get("/api/cars/1/history")).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String second = assertAtMost(counter, 0, "repeat GET history", () ->
+                mvc.perform(get("/api/cars/1/history")).andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString());
+        assertEquals(first, second);
+    }
+
+    @Test
+    void newClaim_changesHistoryTagOnly() throws Exception {
+        String cars = etag("/api/cars");
+        String history = etag("/api/cars/2/history");
+        String otherHistory = etag("/api/cars/1/history");
+
+        service.registerClaim(2L, LocalDate.now(), "Cracked windshield", new BigDecimal("120.00"));
+
+        assertEquals(cars, etag("/api/cars"));
+        assertEquals(otherHistory, etag("/api/cars/1/history"));
+        assertNotEquals(history, etag("/api/cars/2/history"));
+        String body = mvc.perform(get("/api/cars/2/history").header(HttpHeaders.IF_NONE_MATCH, history))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(body.contains("Cracked windshield"));
+    }
+
+    @Test
+    void carUpdate_changesCollectionTag() throws Exception {
+        String cars = etag("/api/cars");
+        Car car = carRepository.findById(1L).orElseThrow();
+        car.setModel(car.getModel() + " II");
+        carRepository.save(car);
+
+        assertNotEquals(cars, etag("/api/cars"));
+    }
+
+    @Test
+    void errorsAndQueries_carryNoEtag() throws Exception {
+        mvc.perform(get("/api/cars/999/history"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        mvc.perform(get("/api/cars").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    private String etag(String path) throws Exception {
+        String etag = mvc.perform(get(path)).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag, path);
+        return etag;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.carins;
+
+import com.example.carins.service.CarService;
+import com.example.carins.web.CarController;
+import com.example.carins.web.dto.InsuranceValidityQuery;
+import com.example.carins.web.dto.InsuranceValidityResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:validity-batch;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+public class InsuranceValidityBatchTests {
+
+    @Autowired
+    CarService service;
+    @Autowired
+    CarController controller;
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    void batch_matchesSingleChecks() {
+        List<InsuranceValidityQuery> queries = List.of(
+                new InsuranceValidityQuery(1L, "2024-06-01"),
+                new InsuranceValidityQuery(1L, "2025-06-01"),
+                new InsuranceValidityQuery(2L, "2025-02-01"),
+                new InsuranceValidityQuery(2L, "2025-04-01"));
+        List<InsuranceValidityResult> results = controller.checkInsuranceValidity(queries);
+        assertEquals(queries.size(), results.size());
+        for (int i = 0; i < queries.size(); i++) {
+            var q = queries.get(i);
+            assertNull(results.get(i).error());
+            assertEquals(service.isInsuranceValid(q.carId(), LocalDate.parse(q.date())), results.get(i).valid());
+        }
+    }
+
+    @Test
+    void batch_reportsErrorsInline() {
+        List<InsuranceValidityResult> results = controller.checkInsuranceValidity(List.of(
+                new InsuranceValidityQuery(9999L, "2025-01-01"),
+                new InsuranceValidityQuery(1L, "2025-29-01"),
+                new InsuranceValidityQuery(1L, LocalDate.now().plusYears(500).toString()),
+                new InsuranceValidityQuery(null, "2025-01-01"),
+                new InsuranceValidityQuery(1L, "2025-06-01")));
+        assertEquals("Car not found", results.get(0).error());
+        assertTrue(results.get(1).error().contains("Invalid date format"));
+        assertTrue(results.get(2).error().contains("outside the supported range"));
+        assertEquals("Car id must be provided", results.get(3).error());
+        assertEquals(Boolean.TRUE, results.get(4).valid());
+    }
+
+    @Test
+    void ndjson_streamsOneResultPerLine() throws Exception {
+        String body = """
+                {"carId":1,"date":"2025-06-01"}
+                not json
+                {"carId":2,"date":"2025-02-01"}
+                """;
+        mvc.perform(post("/api/cars/insurance-valid").contentType("application/x-ndjson").content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().string("""
+                        {"carId":1,"date":"2025-06-01","valid":true}
+                        {"error":"Malformed item"}
+                        {"carId":2,"date":"2025-02-01","valid":false}
+                        """));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.carins;
+
+import com.example.carins.model.Car;
+import com.example.carins.repo.CarRepository;
+import com.example.carins.tools.LoadDriver;
+import com.example.carins.tools.SyntheticDataGenerator;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:load-harness;DB_CLOSE_DELAY=-1")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class LoadHarnessTests {
+
+    private static final String VIN_VALUES = "12345678012345070923456789";
+    private static final int[] VIN_WEIGHTS = {8, 7, 6, 5, 4, 3, 2, 10, 0, 9, 8, 7, 6, 5, 4, 3, 2};
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    SyntheticDataGenerator generator;
+    @Autowired
+    CarRepository carRepository;
+    @Autowired
+    Validator validator;
+    @Autowired
+    JdbcTemplate jdbc;
+
+    SyntheticDataGenerator.Result dataset;
+
+    @BeforeAll
+    void seed() {
+        dataset = generator.generate(new SyntheticDataGenerator.Spec(50, 400, 3, 5, 9, 0.9, 0.4));
+    }
+
+    @Test
+    void generatedVins_passValidationAndCheckDigit() {
+        List<Car> cars = carRepository.findAllById(List.of(dataset.firstCarId(), dataset.firstCarId() + 1, dataset.lastCarId()));
+        assertEquals(3, cars.size());
+        for (Car car : cars) {
+            assertTrue(validator.validate(car).isEmpty(), car.getVin());
+            assertTrue(car.getVin().matches("[A-HJ-NPR-Z0-9]{17}"), car.getVin());
+            assertEquals(checkDigit(car.getVin()), car.getVin().charAt(8), car.getVin());
+        }
+        Long distinct = jdbc.queryForObject("SELECT COUNT(DISTINCT vin) FROM car WHERE id BETWEEN ? AND ?",
+                Long.class, dataset.firstCarId(), dataset.lastCarId());
+        assertEquals(400L, distinct);
+    }
+
+    @Test
+    void claimsAreSkewedAndPoliciesOverlap() {
+        List<Integer> perCar = jdbc.queryForList("SELECT COUNT(*) FROM claim WHERE car_id BETWEEN ? AND ? GROUP BY car_id "
+                + "ORDER BY COUNT(*) DESC", Integer.class, dataset.firstCarId(), dataset.lastCarId());
+        assertEquals(2000, perCar.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(perCar.get(0) >= 10 * 5, "busiest car has " + perCar.get(0) + " claims");
+        assertTrue(perCar.size() < 400, "some cars have no claims");
+
+        Long overlapping = jdbc.queryForObject("SELECT COUNT(*) FROM insurancepolicy a JOIN insurancepolicy b "
+                + "ON a.car_id = b.car_id AND a.id < b.id AND b.start_date <= a.end_date AND a.start_date <= b.end_date "
+                + "WHERE a.car_id BETWEEN ? AND ?", Long.class, dataset.firstCarId(), dataset.lastCarId());
+        assertTrue(overlapping > 100, overlapping + " overlapping policy pairs");
+    }
+
+    @Test
+    void loadDriver_reportsLatencyPercentiles() {
+        List<String> vins = jdbc.queryForList("SELECT vin FROM car WHERE id BETWEEN ? AND ?", String.class,
+                dataset.firstCarId(), dataset.firstCarId() + 20);
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            var driver = new LoadDriver(client, "http://localhost:" + port,
+                    new LoadDriver.Targets(dataset.firstCarId(), dataset.lastCarId(), vins),
+                    LoadDriver.parseMix("insurance-valid=4,insurance-valid-by-vin=2,history=2,coverage=1,cars=1,claim=1"), 500);
+            LoadDriver.Report report = driver.run(200, Duration.ofMillis(500), Duration.ofSeconds(1));
+
+            LoadDriver.Stats total = report.total();
+            assertTrue(total.requests() + report.dropped() >= 190 && total.requests() <= 200, report.format());
+            assertEquals(0, total.errors(), report.format());
+            assertTrue(total.p50Ms() > 0 && total.p50Ms() <= total.p99Ms() && total.p99Ms() <= total.p999Ms()
+                    && total.p999Ms() <= total.maxMs(), report.format());
+            assertEquals(total.requests(), report.endpoints().stream().mapToLong(LoadDriver.Stats::requests).sum());
+        }
+    }
+
+    private static char checkDigit(String vin) {
+        int sum = 0;
+        for (int p = 0; p < 17; p++) {
+            char c = vin.charAt(p);
+            sum += (Character.isDigit(c) ? c - '0' : VIN_VALUES.charAt(c - 'A') - '0') * VIN_WEIGHTS[p];
+        }
+        return sum % 11 == 10 ? 'X' : (char) ('0' + sum % 11);
+    }
+}
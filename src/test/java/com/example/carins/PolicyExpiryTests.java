@@ -0,0 +1,77 @@
+package com.example.carins;
+
+import com.example.carins.model.Car;
+import com.example.carins.model.InsurancePolicy;
+import com.example.carins.model.JobWatermark;
+import com.example.carins.repo.CarRepository;
+import com.example.carins.repo.ExpiredPolicy;
+import com.example.carins.repo.InsurancePolicyRepository;
+import com.example.carins.repo.JobWatermarkRepository;
+import com.example.carins.repo.NotificationOutboxRepository;
+import com.example.carins.service.OutboxExpiryHandler;
+import com.example.carins.service.PolicyExpiryHandler;
+import com.example.carins.service.PolicyExpiryProcessor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:policy-expiry;DB_CLOSE_DELAY=-1",
+        "insurance.expiry.chunk-size=2",
+        "insurance.expiry.outbox.enabled=true"
+})
+public class PolicyExpiryTests {
+
+    static final List<ExpiredPolicy> seen = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class RecordingHandlerConfig {
+        @Bean
+        PolicyExpiryHandler recordingHandler() {
+            return seen::add;
+        }
+    }
+
+    @Autowired
+    PolicyExpiryProcessor processor;
+    @Autowired
+    CarRepository carRepository;
+    @Autowired
+    InsurancePolicyRepository policyRepository;
+    @Autowired
+    JobWatermarkRepository watermarkRepository;
+    @Autowired
+    NotificationOutboxRepository outboxRepository;
+
+    @Test
+    void catchesUpMissedDaysInChunksWithoutRepeats() {
+        LocalDate base = LocalDate.parse("2020-03-01");
+        Car car = carRepository.findById(1L).orElseThrow();
+        for (int day = 1; day <= 3; day++) {
+            for (int i = 0; i < day * 2 + 1; i++) {
+                policyRepository.save(new InsurancePolicy(car, "P" + i, base.minusYears(1), base.plusDays(day)));
+            }
+        }
+        watermarkRepository.save(new JobWatermark(PolicyExpiryProcessor.JOB_NAME, base));
+        seen.clear();
+        long outboxBefore = outboxRepository.findByTypeOrderByIdAsc(OutboxExpiryHandler.TYPE).size();
+
+        assertEquals(3 + 5 + 7, processor.processUpTo(base.plusDays(3)));
+        assertEquals(15, seen.size());
+        assertEquals(15, seen.stream().map(ExpiredPolicy::id).distinct().count());
+        assertEquals(base.plusDays(3), processor.lastProcessedDay());
+        assertEquals(outboxBefore + 15, outboxRepository.findByTypeOrderByIdAsc(OutboxExpiryHandler.TYPE).size());
+
+        seen.clear();
+        assertEquals(0, processor.processUpTo(base.plusDays(3)));
+        assertTrue(seen.isEmpty());
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.carins;
+
+import com.example.carins.model.InsurancePolicy;
+import com.example.carins.repo.InsurancePolicyRepository;
+import com.example.carins.service.PolicyRenewalService;
+import com.example.carins.service.PolicyRow;
+import com.example.carins.service.PolicyService;
+import com.example.carins.tools.SyntheticDataGenerator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:policy-management;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "insurance.policies.renew.chunk-size=64",
+        "insurance.policies.renew.batch-size=16"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PolicyManagementTests {
+
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    PolicyService policyService;
+    @Autowired
+    PolicyRenewalService renewalService;
+    @Autowired
+    InsurancePolicyRepository policyRepository;
+    @Autowired
+    SyntheticDataGenerator generator;
+    @Autowired
+    JdbcTemplate jdbc;
+
+    SyntheticDataGenerator.Result dataset;
+
+    @BeforeAll
+    void seed() {
+        dataset = generator.generate(new SyntheticDataGenerator.Spec(20, 300, 1, 0, 4));
+    }
+
+    @Test
+    void create_rejectsOverlapsAndAcceptsAdjacentTerms() throws Exception {
+        // car 2 is insured 2025-03-01..2025-09-30 by import.sql
+        mvc.perform(post("/api/cars/2/policies").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"provider\":\"Generali\",\"startDate\":\"2025-09-30\",\"endDate\":\"2026-03-31\"}"))
+                .andExpect(status().isConflict());
+        String location = mvc.perform(post("/api/cars/2/policies").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"provider\":\"Generali\",\"startDate\":\"2025-10-01\",\"endDate\":\"2026-03-31\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.carId").value(2))
+                .andReturn().getResponse().getHeader("Location");
+        mvc.perform(get(location)).andExpect(status().isOk()).andExpect(jsonPath("$.provider").value("Generali"));
+
+        mvc.perform(post("/api/cars/2/policies").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"provider\":\"Generali\",\"startDate\":\"2026-05-01\",\"endDate\":\"2026-04-01\"}"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/api/cars/999999/policies").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"provider\":\"Generali\",\"startDate\":\"2030-01-01\",\"endDate\":\"2030-12-31\"}"))
+                .andExpect(status().isNotFound());
+        mvc.perform(post("/api/cars/2/policies").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"startDate\":\"2030-01-01\",\"endDate\":\"2030-12-31\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void concurrentCreates_forSameCarAndTerm_storeOnePolicy() throws Exception {
+        long carId = dataset.firstCarId();
+        LocalDate start = LocalDate.now().plusYears(5);
+        List<Callable<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            attempts.add(() -> {
+                try {
+                    policyService.create(carId, "Asirom", start, start.plusMonths(6));
+                    return true;
+                } catch (ResponseStatusException e) {
+                    assertEquals(409, e.getStatusCode().value());
+                    return false;
+                }
+            });
+        }
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            long created = 0;
+            for (Future<Boolean> f : pool.invokeAll(attempts)) if (f.get()) created++;
+            assertEquals(1, created);
+        }
+        assertEquals(0, overlappingPairs(carId, carId));
+    }
+
+    @Test
+    void bulkRenewal_defaultsToTheNextTermAndRejectsConflicts() throws Exception {
+        long first = dataset.firstCarId() + 100;
+        long last = first + 149;
+        List<PolicyRow> rows = new ArrayList<>(LongStream.rangeClosed(first, last).mapToObj(id -> new PolicyRow(id, null, null, null)).toList());
+        rows.add(new PolicyRow(first, "Omniasig", null, null));
+        rows.add(new PolicyRow(999_999L, null, null, null));
+        rows.add(new PolicyRow(null, null, null, null));
+
+        PolicyRenewalService.Result result = renewalService.renew(rows);
+
+        assertEquals(151, result.accepted());
+        assertEquals(List.of(151L, 152L), result.rejects().stream().map(PolicyService.Reject::index).toList());
+        assertEquals("Car not found", result.rejects().get(0).error());
+        assertEquals(0, overlappingPairs(first, last));
+
+        List<InsurancePolicy> policies = new ArrayList<>(policyRepository.findByCarId(first));
+        policies.sort((a, b) -> a.getStartDate().compareTo(b.getStartDate()));
+        assertEquals(3, policies.size());
+        assertEquals(policies.get(0).getEndDate().plusDays(1), policies.get(1).getStartDate());
+        assertEquals(policies.get(0).getProvider(), policies.get(1).getProvider());
+        assertEquals(policies.get(1).getStartDate().plusYears(1).minusDays(1), policies.get(1).getEndDate());
+        assertEquals(policies.get(1).getEndDate().plusDays(1), policies.get(2).getStartDate());
+        assertEquals("Omniasig", policies.get(2).getProvider());
+    }
+
+    @Test
+    void bulkRenewal_chainsRowsForTheSameCar() {
+        long carId = dataset.firstCarId() + 260;
+        LocalDate end = policyRepository.findByCarId(carId).stream()
+                .map(InsurancePolicy::getEndDate).max(LocalDate::compareTo).orElseThrow();
+        List<PolicyRow> rows = List.of(
+                new PolicyRow(carId, null, null, null),
+                new PolicyRow(carId, null, null, null),
+                new PolicyRow(carId, "Groupama", end.plusYears(1), null));
+
+        PolicyRenewalService.Result result = renewalService.renew(rows);
+
+        assertEquals(2, result.accepted());
+        assertEquals(List.of(2L), result.rejects().stream().map(PolicyService.Reject::index).toList());
+        assertTrue(result.rejects().get(0).error().startsWith("Overlaps an earlier row"), result.rejects().get(0).error());
+        List<InsurancePolicy> policies = new ArrayList<>(policyRepository.findByCarId(carId));
+        policies.sort((a, b) -> a.getStartDate().compareTo(b.getStartDate()));
+        assertEquals(end.plusDays(1), policies.get(policies.size() - 2).getStartDate());
+        assertEquals(end.plusYears(1).plusDays(1), policies.get(policies.size() - 1).getStartDate());
+        assertEquals(0, overlappingPairs(carId, carId));
+    }
+
+    @Test
+    void bulkRenewal_chainsOnlyOnRowsThatWentIn() {
+        long carId = dataset.firstCarId() + 10;
+        InsurancePolicy stored = policyRepository.findByCarId(carId).stream()
+                .max(Comparator.comparing(InsurancePolicy::getEndDate)).orElseThrow();
+        LocalDate end = stored.getEndDate();
+        List<PolicyRow> rows = List.of(
+                new PolicyRow(carId, "Generali", end, end.plusYears(1)),
+                new PolicyRow(carId, null, null, null));
+
+        PolicyRenewalService.Result result = renewalService.renew(rows);
+
+        assertEquals(1, result.accepted());
+        assertEquals(List.of(0L), result.rejects().stream().map(PolicyService.Reject::index).toList());
+        assertTrue(result.rejects().get(0).error().startsWith("Overlaps policy " + stored.getId()), result.rejects().get(0).error());
+        InsurancePolicy renewed = policyRepository.findByCarId(carId).stream()
+                .max(Comparator.comparing(InsurancePolicy::getEndDate)).orElseThrow();
+        assertEquals(end.plusDays(1), renewed.getStartDate());
+        assertEquals(stored.getProvider(), renewed.getProvider());
+        assertEquals(0, overlappingPairs(carId, carId));
+    }
+
+    @Test
+    void concurrentBulkRenewals_ofTheSameCars_neverOverlap() throws Exception {
+        long first = dataset.firstCarId() + 200;
+        long last = first + 99;
+        LocalDate start = LocalDate.now().plusYears(3);
+        List<PolicyRow> rows = LongStream.rangeClosed(first, last)
+                .mapToObj(id -> new PolicyRow(id, "Allianz", start, start.plusYears(1).minusDays(1))).toList();
+        List<PolicyRow> reversed = new ArrayList<>(rows);
+        java.util.Collections.reverse(reversed);
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(2)) {
+            Future<PolicyRenewalService.Result> a = pool.submit(() -> renewalService.renew(rows));
+            Future<PolicyRenewalService.Result> b = pool.submit(() -> renewalService.renew(reversed));
+            assertEquals(100, a.get().accepted() + b.get().accepted());
+            assertEquals(100, a.get().rejects().size() + b.get().rejects().size());
+        }
+        assertEquals(0, overlappingPairs(first, last));
+    }
+
+    @Test
+    void renewalEndpoint_reportsCountsAndRejects() throws Exception {
+        long carId = dataset.lastCarId();
+        mvc.perform(post("/api/policies/renewals").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"carId\":" + carId + "},{\"carId\":" + carId + ",\"startDate\":\"2020-01-01\",\"endDate\":\"2019-01-01\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rejects[0].index").value(1))
+                .andExpect(jsonPath("$.rejects[0].error").value("Start date must not be after end date"));
+    }
+
+    private long overlappingPairs(long firstCar, long lastCar) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM insurancepolicy a JOIN insurancepolicy b "
+                + "ON a.car_id = b.car_id AND a.id < b.id AND b.start_date <= a.end_date AND a.start_date <= b.end_date "
+                + "WHERE a.car_id BETWEEN ? AND ?", Long.class, firstCar, lastCar);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.carins;
+
+import com.example.carins.model.Claim;
+import com.example.carins.model.Owner;
+import com.example.carins.repo.OwnerRepository;
+import com.example.carins.service.CarService;
+import com.example.carins.tools.PortfolioSnapshot;
+import com.example.carins.tools.SyntheticDataGenerator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:portfolio-snapshot;DB_CLOSE_DELAY=-1")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class PortfolioSnapshotTests {
+
+    private static final List<String> TABLES = List.of("owner", "car", "insurancepolicy", "claim", "car_claim_stats");
+
+    @Autowired
+    PortfolioSnapshot snapshot;
+    @Autowired
+    SyntheticDataGenerator generator;
+    @Autowired
+    OwnerRepository ownerRepository;
+    @Autowired
+    CarService service;
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    void seed() {
+        generator.generate(new SyntheticDataGenerator.Spec(40, 300, 2, 4, 18));
+        ownerRepository.save(new Owner("Ioana Șerban", null));
+    }
+
+    @Test
+    void loadRestoresExportedRowsAndKeepsIdsAhead() throws IOException {
+        List<List<Map<String, Object>>> before = dump();
+        Path file = dir.resolve("portfolio.snap");
+        PortfolioSnapshot.Result exported = snapshot.export(file);
+        assertEquals(Long.valueOf(before.get(3).size()), exported.rows().get("claim"));
+
+        generator.generate(new SyntheticDataGenerator.Spec(5, 20, 1, 2, 19));
+        jdbc.update("DELETE FROM car_claim_stats WHERE car_id = 1");
+        assertNotEquals(before, dump());
+
+        PortfolioSnapshot.Result loaded = snapshot.load(file);
+        assertEquals(exported.rows(), loaded.rows());
+        assertEquals(before, dump());
+
+        Long maxClaim = jdbc.queryForObject("SELECT MAX(id) FROM claim", Long.class);
+        Claim claim = service.registerClaim(1L, LocalDate.now(), "Side mirror", new BigDecimal("75.00"));
+        assertTrue(claim.getId() > maxClaim);
+        Long maxOwner = jdbc.queryForObject("SELECT MAX(id) FROM owner", Long.class);
+        assertTrue(ownerRepository.save(new Owner("New Owner", "new@example.com")).getId() > maxOwner);
+    }
+
+    @Test
+    void corruptOrForeignFiles_areRejectedBeforeAnythingChanges() throws IOException {
+        Path file = dir.resolve("corrupt.snap");
+        snapshot.export(file);
+        List<List<Map<String, Object>>> before = dump();
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            long at = ch.size() / 2;
+            ch.read(b, at);
+            b.put(0, (byte) (b.get(0) ^ 0x40)).rewind();
+            ch.write(b, at);
+        }
+        var checksum = assertThrows(IllegalStateException.class, () -> snapshot.load(file));
+        assertTrue(checksum.getMessage().contains("checksum"), checksum.getMessage());
+
+        snapshot.export(file);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, 99), 8);
+        }
+        var version = assertThrows(IllegalStateException.class, () -> snapshot.load(file));
+        assertTrue(version.getMessage().contains("version 99"), version.getMessage());
+
+        assertEquals(before, dump());
+    }
+
+    private List<List<Map<String, Object>>> dump() {
+        List<List<Map<String, Object>>> tables = new ArrayList<>();
+        for (String table : TABLES) {
+            String key = table.equals("car_claim_stats") ? "car_id" : "id";
+            tables.add(jdbc.queryForList("SELECT * FROM " + table + " ORDER BY " + key));
+        }
+        return tables;
+    }
+}
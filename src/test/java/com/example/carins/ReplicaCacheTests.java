@@ -0,0 +1,88 @@
+package com.example.carins;
+
+import com.example.carins.model.Car;
+import com.example.carins.model.InsurancePolicy;
+import com.example.carins.repo.CarRepository;
+import com.example.carins.repo.InsurancePolicyRepository;
+import com.example.carins.service.CarService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Replica routing with the second-level and query caches on. The replica is copied from the
+ * primary before each test and then lags behind every later write.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cache-primary;DB_CLOSE_DELAY=-1",
+        "insurance.replicas.enabled=true",
+        "insurance.replicas.urls=" + ReplicaCacheTests.REPLICA,
+        "insurance.cache.enabled=true"
+})
+public class ReplicaCacheTests {
+
+    static final String REPLICA = "jdbc:h2:mem:cache-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    JdbcTemplate jdbc;
+    @Autowired
+    CarService service;
+    @Autowired
+    CarRepository carRepository;
+    @Autowired
+    InsurancePolicyRepository policyRepository;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate readOnly;
+    TransactionTemplate readWrite;
+
+    @BeforeEach
+    void replicate() throws SQLException {
+        List<String> script = jdbc.queryForList("SCRIPT", String.class);
+        try (Connection c = DriverManager.getConnection(REPLICA, "sa", ""); Statement st = c.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+            for (String sql : script) st.execute(sql);
+        }
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void staleQueryResultFromReplica_isNotCachedAsCurrent() {
+        LocalDate date = LocalDate.of(2041, 6, 1);
+        Car car = carRepository.findById(2L).orElseThrow();
+        policyRepository.save(new InsurancePolicy(car, "Allianz", date.minusDays(10), date.plusDays(10)));
+
+        assertFalse(service.isInsuranceValid(2L, date), "the replica has not seen the policy yet");
+        Boolean fromPrimary = readWrite.execute(status -> service.isInsuranceValid(2L, date));
+        assertEquals(Boolean.TRUE, fromPrimary, "the primary read is fresh");
+    }
+
+    @Test
+    void staleEntityFromReplica_isNotCachedAsCurrent() {
+        jdbc.update("UPDATE car SET model = 'Replica lag test' WHERE id = 1");
+        emf.getCache().evict(Car.class);
+
+        String fromReplica = readOnly.execute(status -> carRepository.findById(1L).orElseThrow().getModel());
+        assertNotEquals("Replica lag test", fromReplica);
+        assertEquals("Replica lag test", readWrite.execute(status -> carRepository.findById(1L).orElseThrow().getModel()));
+    }
+}
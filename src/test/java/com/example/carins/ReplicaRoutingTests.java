@@ -0,0 +1,217 @@
+package com.example.carins;
+
+import com.example.carins.config.ReadWriteRoutingDataSource;
+import com.example.carins.config.ReadYourWrites;
+import com.example.carins.model.Claim;
+import com.example.carins.service.CarService;
+import com.example.carins.service.CoverageIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Two extra in-memory H2 databases stand in for replicas. Each test copies the primary into them,
+ * after which they never change, so anything written later shows which database a read went to.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "insurance.replicas.enabled=true",
+        "insurance.replicas.urls=" + ReplicaRoutingTests.REPLICA_A + "," + ReplicaRoutingTests.REPLICA_B,
+        "insurance.replicas.staleness-window=500ms",
+        "insurance.coverage-index.enabled=true",
+        "insurance.cache.enabled=false"
+})
+@AutoConfigureMockMvc
+public class ReplicaRoutingTests {
+
+    static final String REPLICA_A = "jdbc:h2:mem:routing-replica-a;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_B = "jdbc:h2:mem:routing-replica-b;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    DataSource dataSource;
+    @Autowired
+    JdbcTemplate jdbc;
+    @Autowired
+    CarService service;
+    @Autowired
+    CoverageIndex coverageIndex;
+    @Autowired
+    MockMvc mvc;
+
+    @BeforeEach
+    void replicate() throws SQLException {
+        List<String> script = jdbc.queryForList("SCRIPT", String.class);
+        for (String url : List.of(REPLICA_A, REPLICA_B)) {
+            try (Connection c = DriverManager.getConnection(url, "sa", ""); Statement st = c.createStatement()) {
+                st.execute("DROP ALL OBJECTS");
+                for (String sql : script) st.execute(sql);
+            }
+        }
+    }
+
+    @Test
+    void readOnlyTransactions_readFromReplicas_andWritesGoToThePrimary() {
+        insertClaimOnPrimary(1L, "Not replicated yet");
+
+        assertFalse(descriptions(service.listClaims(1L)).contains("Not replicated yet"));
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM claim WHERE description = 'Not replicated yet'", Integer.class));
+    }
+
+    @Test
+    void clientReadsItsOwnWrites_untilTheStalenessWindowEnds() throws Exception {
+        mvc.perform(post("/api/cars/2/claims").header("X-Client-Id", "writer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"claimDate\":\"2025-06-01\",\"description\":\"Own write\",\"amount\":10.00}"))
+                .andExpect(status().isCreated());
+
+        assertTrue(history(2, "writer").contains("Own write"));
+        assertFalse(history(2, "someone-else").contains("Own write"));
+
+        Thread.sleep(700);
+        assertFalse(history(2, "writer").contains("Own write"));
+    }
+
+    @Test
+    void bulkRenewal_countsAsTheClientsOwnWrite() throws Exception {
+        mvc.perform(post("/api/policies/renewals").header("X-Client-Id", "renewer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"carId\":1,\"provider\":\"Allianz\",\"startDate\":\"2041-01-01\",\"endDate\":\"2041-12-31\"}]"))
+                .andExpect(status().isOk());
+
+        assertTrue(coverage(1, "renewer").contains("\"coveredDays\":365"));
+        assertTrue(coverage(1, "someone-else").contains("\"coveredDays\":0"));
+    }
+
+    @Test
+    void replicaBodies_getNoETag() throws Exception {
+        mvc.perform(post("/api/cars/1/claims").header("X-Client-Id", "tagged-writer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"claimDate\":\"2025-06-01\",\"description\":\"Tagged write\",\"amount\":10.00}"))
+                .andExpect(status().isCreated());
+
+        MockHttpServletResponse fresh = mvc.perform(get("/api/cars/1/history").header("X-Client-Id", "tagged-writer"))
+                .andExpect(status().isOk()).andReturn().getResponse();
+        assertTrue(fresh.getContentAsString().contains("Tagged write"));
+        assertNotNull(fresh.getHeader(HttpHeaders.ETAG));
+
+        MockHttpServletResponse stale = mvc.perform(get("/api/cars/1/history").header("X-Client-Id", "poller"))
+                .andExpect(status().isOk()).andReturn().getResponse();
+        assertFalse(stale.getContentAsString().contains("Tagged write"));
+        assertNull(stale.getHeader(HttpHeaders.ETAG));
+        assertNull(mvc.perform(get("/api/cars").header("X-Client-Id", "poller"))
+                .andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void readFromPrimaryMethods_seeWritesTheReplicasMissed() {
+        Long carId = jdbc.queryForObject("SELECT MAX(id) FROM car", Long.class);
+        jdbc.update("INSERT INTO insurancepolicy (id, car_id, provider, start_date, end_date) "
+                + "VALUES (NEXT VALUE FOR policy_seq, ?, 'Allianz', DATE '2040-01-01', DATE '2040-12-31')", carId);
+
+        coverageIndex.refresh(carId);
+
+        assertTrue(service.isInsuranceValid(carId, LocalDate.of(2040, 6, 1)));
+    }
+
+    @Test
+    void vinIndexMiss_isResolvedOnThePrimary() {
+        jdbc.update("INSERT INTO car (vin, make, model, year_of_manufacture, owner_id) "
+                + "VALUES ('ROUTEVIN01', 'Skoda', 'Octavia', 2020, 1)");
+        Long carId = jdbc.queryForObject("SELECT id FROM car WHERE vin = 'ROUTEVIN01'", Long.class);
+
+        assertEquals(carId, service.carIdByVin("ROUTEVIN01"));
+    }
+
+    @Test
+    void replicaWithFewestOutstandingConnections_isPicked() throws SQLException {
+        ReadWriteRoutingDataSource routing =
+                (ReadWriteRoutingDataSource) ((LazyConnectionDataSourceProxy) dataSource).getTargetDataSource();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            Connection first = routing.getConnection();
+            Connection second = routing.getConnection();
+            assertNotEquals(url(first), url(second));
+            assertEquals(1, routing.outstanding(0));
+            assertEquals(1, routing.outstanding(1));
+
+            String freed = url(first);
+            first.close();
+            first.close();
+            try (Connection third = routing.getConnection()) {
+                assertEquals(freed, url(third));
+            }
+            second.close();
+            assertEquals(0, routing.outstanding(0));
+            assertEquals(0, routing.outstanding(1));
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+
+    @Test
+    void explicitCredentials_areRoutedLikeTheDefaultOnes() throws Exception {
+        try (ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                new DriverManagerDataSource("jdbc:h2:mem:routing-primary"),
+                List.of(new DriverManagerDataSource(REPLICA_A)), new ReadYourWrites(Duration.ZERO))) {
+            try (Connection c = routing.getConnection("sa", "")) {
+                assertEquals("jdbc:h2:mem:routing-primary", url(c));
+            }
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            try (Connection c = routing.getConnection("sa", "")) {
+                assertEquals(REPLICA_A.substring(0, REPLICA_A.indexOf(';')), url(c));
+                assertEquals(1, routing.outstanding(0));
+            } finally {
+                TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            }
+            assertEquals(0, routing.outstanding(0));
+        }
+    }
+
+    private void insertClaimOnPrimary(long carId, String description) {
+        jdbc.update("INSERT INTO claim (id, car_id, claim_date, description, amount) "
+                + "VALUES (NEXT VALUE FOR claim_seq, ?, DATE '2025-06-01', ?, 10.00)", carId, description);
+    }
+
+    private String history(long carId, String client) throws Exception {
+        return mvc.perform(get("/api/cars/" + carId + "/history").header("X-Client-Id", client))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+    }
+
+    private String coverage(long carId, String client) throws Exception {
+        return mvc.perform(get("/api/cars/" + carId + "/coverage").param("from", "2041-01-01").param("to", "2041-12-31")
+                        .header("X-Client-Id", client))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+    }
+
+    private static List<String> descriptions(List<Claim> claims) {
+        return claims.stream().map(Claim::getDescription).toList();
+    }
+
+    private static String url(Connection c) throws SQLException {
+        return c.getMetaData().getURL();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.carins;
+
+import com.example.carins.metrics.SqlStatementCounter;
+import com.example.carins.model.Car;
+import com.example.carins.model.InsurancePolicy;
+import com.example.carins.repo.CarRepository;
+import com.example.carins.repo.InsurancePolicyRepository;
+import com.example.carins.service.CarService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static com.example.carins.SqlStatementBudget.assertAtMost;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:l2-cache;DB_CLOSE_DELAY=-1",
+        "insurance.cache.enabled=true"
+})
+@AutoConfigureMockMvc
+public class SecondLevelCacheTests {
+
+    @Autowired
+    CarService service;
+    @Autowired
+    CarRepository carRepository;
+    @Autowired
+    InsurancePolicyRepository policyRepository;
+    @Autowired
+    SqlStatementCounter counter;
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    void repeatedValidityCheck_isServedFromCache() throws Throwable {
+        LocalDate date = LocalDate.of(2025, 3, 14);
+        boolean first = service.isInsuranceValid(2L, date);
+        boolean second = assertAtMost(counter, 0, "cached isInsuranceValid", () -> service.isInsuranceValid(2L, date));
+        assertEquals(first, second);
+    }
+
+    @Test
+    void policyWrite_invalidatesCachedQuery() {
+        LocalDate date = LocalDate.of(2031, 6, 1);
+        assertFalse(service.isInsuranceValid(2L, date));
+
+        Car car = carRepository.findById(2L).orElseThrow();
+        policyRepository.save(new InsurancePolicy(car, "Allianz", date.minusDays(10), date.plusDays(10)));
+
+        assertTrue(service.isInsuranceValid(2L, date));
+    }
+
+    @Test
+    void carUpdate_isVisibleThroughCache() {
+        Car car = carRepository.findById(1L).orElseThrow();
+        String model = car.getModel();
+        car.setModel(model + " (facelift)");
+        carRepository.save(car);
+
+        assertEquals(model + " (facelift)", carRepository.findById(1L).orElseThrow().getModel());
+    }
+
+    @Test
+    void cacheStatistics_areExposed() throws Exception {
+        service.isInsuranceValid(1L, LocalDate.of(2025, 1, 1));
+        mvc.perform(get("/actuator/metrics/hibernate.second.level.cache.requests")).andExpect(status().isOk());
+        mvc.perform(get("/actuator/metrics/hibernate.cache.query.requests")).andExpect(status().isOk());
+    }
+}
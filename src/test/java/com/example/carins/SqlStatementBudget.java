@@ -0,0 +1,25 @@
+package com.example.carins;
+
+import com.example.carins.metrics.SqlStatementCounter;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/** Fails a test when the wrapped call issues more SQL statements than allowed, e.g. after an N+1 regression. */
+final class SqlStatementBudget {
+
+    private SqlStatementBudget() {}
+
+    static <T> T assertAtMost(SqlStatementCounter counter, int max, String what, ThrowingSupplier<T> call) throws Throwable {
+        T result;
+        int count;
+        try (var scope = counter.open()) {
+            result = call.get();
+            count = scope.count();
+        }
+        if (count > max) {
+            fail(what + " issued " + count + " SQL statements, budget is " + max);
+        }
+        return result;
+    }
+}
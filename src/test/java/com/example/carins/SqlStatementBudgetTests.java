@@ -0,0 +1,71 @@
+package com.example.carins;
+
+import com.example.carins.metrics.SqlStatementCounter;
+import com.example.carins.tools.SyntheticDataGenerator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.example.carins.SqlStatementBudget.assertAtMost;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:sql-budget;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class SqlStatementBudgetTests {
+
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    SqlStatementCounter counter;
+    @Autowired
+    SyntheticDataGenerator generator;
+
+    @BeforeAll
+    void seed() {
+        generator.generate(new SyntheticDataGenerator.Spec(20, 50, 2, 3, 1));
+    }
+
+    @Test
+    void carListing_isOneQueryRegardlessOfOwners() throws Throwable {
+        assertAtMost(counter, 1, "GET /api/cars", () -> mvc.perform(get("/api/cars")).andExpect(status().isOk()));
+        assertAtMost(counter, 1, "GET /api/cars?limit", () -> mvc.perform(get("/api/cars").param("limit", "30")).andExpect(status().isOk()));
+    }
+
+    @Test
+    void history_isOneQueryWhenClaimsExist() throws Throwable {
+        assertAtMost(counter, 1, "GET /api/cars/1/history", () -> mvc.perform(get("/api/cars/1/history")).andExpect(status().isOk()));
+        assertAtMost(counter, 1, "GET /api/cars/1/history?limit", () -> mvc.perform(get("/api/cars/1/history").param("limit", "10")).andExpect(status().isOk()));
+    }
+
+    @Test
+    void insuranceValid_isAtMostTwoQueries() throws Throwable {
+        assertAtMost(counter, 2, "GET /api/cars/1/insurance-valid",
+                () -> mvc.perform(get("/api/cars/1/insurance-valid").param("date", "2025-06-01")).andExpect(status().isOk()));
+    }
+
+    @Test
+    void overBudget_fails() {
+        assertThrows(AssertionFailedError.class,
+                () -> assertAtMost(counter, 0, "GET /api/cars", () -> mvc.perform(get("/api/cars"))));
+    }
+
+    @Test
+    void metricsEndpoint_exposesSqlAndHibernateMeters() throws Exception {
+        mvc.perform(get("/api/cars")).andExpect(status().isOk());
+        mvc.perform(get("/actuator/metrics/http.server.sql.statements")).andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("http.server.sql.statements"));
+        mvc.perform(get("/actuator/metrics/hibernate.statements")).andExpect(status().isOk());
+        mvc.perform(get("/actuator/metrics/spring.data.repository.invocations")).andExpect(status().isOk());
+        mvc.perform(get("/actuator/metrics/carins.service")).andExpect(status().isOk());
+        mvc.perform(get("/actuator/metrics/hikaricp.connections.active")).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.carins;
+
+import com.example.carins.repo.CarRepository;
+import com.example.carins.repo.InsurancePolicyRepository;
+import com.example.carins.repo.UninsuredCar;
+import com.example.carins.service.ReportService;
+import com.example.carins.tools.SyntheticDataGenerator;
+import com.example.carins.web.ReportController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:uninsured-report;DB_CLOSE_DELAY=-1",
+        "insurance.reports.range-size=37",
+        "insurance.reports.parallelism=3"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class UninsuredReportTests {
+
+    @Autowired
+    MockMvc mvc;
+    @Autowired
+    SyntheticDataGenerator generator;
+    @Autowired
+    InsurancePolicyRepository policyRepository;
+    @Autowired
+    JdbcTemplate jdbc;
+    @Autowired
+    CarRepository carRepository;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @BeforeAll
+    void seed() {
+        generator.generate(new SyntheticDataGenerator.Spec(20, 400, 1, 0, 5));
+    }
+
+    @Test
+    void report_matchesPerCarCheckInIdOrder() throws Exception {
+        LocalDate date = LocalDate.now().minusDays(20);
+        List<Long> expected = new ArrayList<>();
+        for (Long id : jdbc.queryForList("SELECT id FROM car ORDER BY id", Long.class)) {
+            if (!policyRepository.existsActiveOnDate(id, date)) expected.add(id);
+        }
+        assertFalse(expected.isEmpty());
+
+        String body = mvc.perform(get("/api/reports/uninsured").param("date", date.toString()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<Long> actual = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            actual.add(Long.parseLong(line.replaceAll(".*\"carId\":(\\d+).*", "$1")));
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void report_writesCsv() throws Exception {
+        LocalDate date = LocalDate.now().plusYears(5);
+        int cars = jdbc.queryForObject("SELECT COUNT(*) FROM car", Integer.class);
+
+        String body = mvc.perform(get("/api/reports/uninsured").param("date", date.toString()).header("Accept", "text/csv"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals("carId,vin,make,model,ownerId", lines[0]);
+        assertEquals(cars + 1, lines.length);
+    }
+
+    @Test
+    void report_rejectsBadInput() throws Exception {
+        mvc.perform(get("/api/reports/uninsured")).andExpect(status().isBadRequest());
+        mvc.perform(get("/api/reports/uninsured").param("date", "2025-01-01").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/reports/uninsured").param("date", "1800-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andExpect(jsonPath("$.message").value(startsWith("Date is outside")));
+    }
+
+    @Test
+    void failureBeforeAnythingWasSent_isAnErrorResponse() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ReportController controller = new ReportController(failingAfter(3, () -> {}), objectMapper);
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> controller.uninsuredOn(LocalDate.now(), "csv", null, response));
+        assertNull(response.getContentType());
+        assertEquals(0, response.getContentLength());
+    }
+
+    @Test
+    void failureAfterRowsWereSent_endsTheBodyWithAnErrorLine() throws Exception {
+        for (String format : new String[]{"ndjson", "csv"}) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            new ReportController(failingAfter(3, response::flushBuffer), objectMapper)
+                    .uninsuredOn(LocalDate.now(), format, null, response);
+
+            String[] lines = response.getContentAsString().split("\n");
+            assertEquals(format.equals("csv") ? 5 : 4, lines.length, format);
+            String last = lines[lines.length - 1];
+            assertEquals(format.equals("csv") ? "error,Report incomplete, retry the request"
+                    : "{\"error\":\"Report incomplete, retry the request\"}", last, format);
+        }
+    }
+
+    /** Hands out {@code rows} cars, runs {@code beforeFailure} and then fails like a lost connection. */
+    private ReportService failingAfter(int rows, Runnable beforeFailure) {
+        return new ReportService(carRepository, 1) {
+            @Override
+            public long forEachUninsured(LocalDate date, Consumer<UninsuredCar> action) {
+                for (long id = 1; id <= rows; id++) action.accept(new UninsuredCar(id, "VIN" + id, "Dacia", "Logan", 1L));
+                beforeFailure.run();
+                throw new DataAccessResourceFailureException("Replica went away");
+            }
+        };
+    }
+}
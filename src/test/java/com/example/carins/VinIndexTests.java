@@ -0,0 +1,98 @@
+package com.example.carins;
+
+import com.example.carins.model.Car;
+import com.example.carins.model.Owner;
+import com.example.carins.repo.CarRepository;
+import com.example.carins.repo.OwnerRepository;
+import com.example.carins.service.VinIndex;
+import com.example.carins.service.VinTable;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:vin-index;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+public class VinIndexTests {
+
+    @Autowired
+    VinIndex vinIndex;
+    @Autowired
+    OwnerRepository ownerRepository;
+    @Autowired
+    CarRepository carRepository;
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    void table_behavesLikeAMap() {
+        VinTable table = new VinTable();
+        Map<String, Long> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(3);
+        List<String> vins = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            String vin = "WVW" + Long.toString(random.nextLong(1L << 50), 36).toUpperCase();
+            vins.add(vin);
+            table.put(vin, i);
+            expected.put(vin, (long) i);
+        }
+        for (int i = 0; i < vins.size(); i += 3) {
+            String vin = vins.get(i);
+            assertTrue(table.remove(vin, expected.remove(vin)));
+        }
+        assertFalse(table.remove(vins.get(1), -5));
+        for (int i = 0; i < 10_000; i++) {
+            table.put("NEW" + i, 1_000_000L + i);
+            expected.put("NEW" + i, 1_000_000L + i);
+        }
+
+        assertEquals(expected.size(), table.size());
+        expected.forEach((vin, id) -> assertEquals(id, table.get(vin), vin));
+        for (int i = 0; i < vins.size(); i += 3) assertEquals(-1, table.get(vins.get(i)));
+        assertEquals(-1, table.get("MISSING"));
+    }
+
+    @Test
+    void index_followsCarInsertsAndVinChanges() throws Exception {
+        Owner owner = ownerRepository.save(new Owner("Vin Owner", "vin@example.com"));
+        Car car = carRepository.save(new Car("VINIDX00001", "Opel", "Astra", 2017, owner));
+        assertEquals(car.getId(), vinIndex.find("VINIDX00001"));
+
+        Car loaded = carRepository.findById(car.getId()).orElseThrow();
+        loaded.setVin("VINIDX00002");
+        carRepository.save(loaded);
+
+        assertNull(vinIndex.find("VINIDX00001"));
+        assertEquals(car.getId(), vinIndex.find("VINIDX00002"));
+        mvc.perform(get("/api/cars/by-vin/VINIDX00001/history")).andExpect(status().isNotFound());
+        mvc.perform(get("/api/cars/by-vin/VINIDX00002/history")).andExpect(status().isOk());
+    }
+
+    @Test
+    void vinEndpoints_resolveToTheSameCar() throws Exception {
+        mvc.perform(get("/api/cars/by-vin/VIN12345/insurance-valid").param("date", "2025-06-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.carId").value(1))
+                .andExpect(jsonPath("$.valid").value(true));
+        mvc.perform(get("/api/cars/by-vin/VIN12345/history").param("limit", "10"))
+                .andExpect(status().isOk());
+        mvc.perform(post("/api/cars/by-vin/VIN67890/claims").contentType("application/json")
+                        .content("{\"claimDate\":\"2025-04-01\",\"description\":\"By VIN\",\"amount\":20}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.carId").value(2));
+        mvc.perform(get("/api/cars/by-vin/NOPE0000/history")).andExpect(status().isNotFound());
+    }
+}